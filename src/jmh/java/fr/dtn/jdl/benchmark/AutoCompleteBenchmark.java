@@ -0,0 +1,80 @@
+package fr.dtn.jdl.benchmark;
+
+import fr.dtn.jdl.autocomplete.CandidateIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the completions of a parameter from its candidate index, with and without the cache of the last inputs
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AutoCompleteBenchmark {
+    /**
+     * The amount of inputs cycled through, and the words the candidates are made of
+     */
+    private static final int INPUTS = 4096;
+    private static final String[] WORDS = { "iron", "gold", "sword", "shield", "potion", "of", "the", "dragon", "ancient", "blue", "red", "elixir", "bow", "arrow", "stone" };
+
+    /**
+     * The amount of candidates
+     */
+    @Param({"1000", "100000"})
+    public int candidates;
+
+    /**
+     * If candidates containing the letters of the input in order are also found
+     */
+    @Param({"false", "true"})
+    public boolean fuzzy;
+
+    /**
+     * The index, and inputs cycled through, usually more of them than the cache keeps so that they miss it
+     */
+    private CandidateIndex index;
+    private String[] prefixes, scattered;
+    private int next;
+
+    @Setup
+    public void setup(){
+        Random random = new Random(1);
+        List<String> list = new ArrayList<>(candidates);
+
+        for(int i = 0; i < candidates; i++)
+            list.add(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " #" + i);
+
+        index = new CandidateIndex(list, fuzzy);
+
+        Set<String> prefixes = new LinkedHashSet<>(), scattered = new LinkedHashSet<>();
+        for(int attempt = 0; attempt < INPUTS * 16 && (prefixes.size() < INPUTS || scattered.size() < INPUTS); attempt++){
+            String candidate = list.get(random.nextInt(list.size()));
+            int first = random.nextInt(candidate.length() - 2), second = first + 1 + random.nextInt(candidate.length() - first - 2);
+            int third = second + 1 + random.nextInt(candidate.length() - second - 1);
+
+            prefixes.add(candidate.substring(0, 3 + random.nextInt(candidate.length() - 3)));
+            scattered.add("" + candidate.charAt(first) + candidate.charAt(second) + candidate.charAt(third));
+        }
+
+        this.prefixes = prefixes.toArray(new String[0]);
+        this.scattered = scattered.toArray(new String[0]);
+    }
+
+    @Benchmark
+    public List<String> cached(){ return index.complete("iron s"); }
+
+    @Benchmark
+    public List<String> prefix(){ return index.complete(prefixes[next++ % prefixes.length]); }
+
+    @Benchmark
+    public List<String> scattered(){ return index.complete(scattered[next++ % scattered.length]); }
+}
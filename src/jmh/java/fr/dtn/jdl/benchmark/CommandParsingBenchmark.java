@@ -0,0 +1,85 @@
+package fr.dtn.jdl.benchmark;
+
+import fr.dtn.jdl.annotation.CommandIndex;
+import fr.dtn.jdl.command.Command;
+import fr.dtn.jdl.simulator.Simulator;
+import fr.dtn.jdl.slashcommand.SlashCommand;
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the handling of messages by the raw text command system, from the prefix check to the executor call
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandParsingBenchmark {
+    /**
+     * The kind of message : realistic ones first, then adversarial ones
+     */
+    @Param({"chat", "call", "arguments", "unknown", "longCall", "spaces", "manyArguments"})
+    public String message;
+
+    /**
+     * The bot and the event of the message
+     */
+    private Simulator simulator;
+    private MessageReceivedEvent event;
+
+    @Setup
+    public void setup() throws Exception {
+        simulator = Simulator.inTemporaryDirectory(Noop.CONFIGURATION, 1, 1, 1);
+
+        List<Command> commands = new ArrayList<>();
+        for(int i = 0; i < 50; i++)
+            commands.add(new Command("command" + i, "", new String[]{ "command" + i, "c" + i }, new Permission[0], null, new Noop.Command()));
+        commands.add(new Command("ping", "", new String[]{ "ping", "p" }, new Permission[0], null, new Noop.Command()));
+        commands.add(new Command("cook", "", new String[]{ "cook" }, new Permission[]{ Permission.MESSAGE_SEND }, null, new Noop.Command()));
+
+        simulator.getBot().registerCommandIndex(new CommandIndex() {
+            @Override
+            public List<Command> commands(){ return commands; }
+
+            @Override
+            public List<SlashCommand> slashCommands(){ return Collections.emptyList(); }
+        });
+
+        event = simulator.getGuild(0).message(0, content(message), 1);
+    }
+
+    @TearDown
+    public void tearDown(){ simulator.shutdown(); }
+
+    // Utility method
+    private static String content(String message){
+        switch(message){
+            case "chat": return "hello everyone, is anyone up for a game tonight ?";
+            case "call": return "!ping";
+            case "arguments": return "!cook apple bowl with some extra words";
+            case "unknown": return "!unknown command";
+            case "longCall": return "!" + "a".repeat(2000);
+            case "spaces": return "!cook" + " ".repeat(2000) + "apple";
+            case "manyArguments": return "!cook " + "a ".repeat(1000);
+            default: throw new IllegalArgumentException("Unknown message '" + message + "'");
+        }
+    }
+
+    /**
+     * The handling of the message
+     * @return The event, so the handling is not removed
+     */
+    @Benchmark
+    public Object receive(){
+        simulator.fire(event);
+        return event;
+    }
+}
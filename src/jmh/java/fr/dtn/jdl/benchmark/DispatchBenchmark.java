@@ -0,0 +1,71 @@
+package fr.dtn.jdl.benchmark;
+
+import fr.dtn.jdl.benchmark.Noop.CustomEvent;
+import fr.dtn.jdl.simulator.SimulatedGuild;
+import fr.dtn.jdl.simulator.Simulator;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the dispatching of an event to the event handlers, through the listener the bot adds to its simulated shards
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+    /**
+     * The amount of handlers of the dispatched event
+     */
+    @Param({"1", "10", "100"})
+    public int handlers;
+
+    /**
+     * The bot and the events
+     */
+    private Simulator simulator;
+    private CustomEvent handled;
+    private MessageReceivedEvent unhandled;
+    /**
+     * The amount of handler calls
+     */
+    private long calls;
+
+    @Setup
+    public void setup() throws Exception {
+        simulator = Simulator.inTemporaryDirectory(Noop.CONFIGURATION, 1, 1, 1);
+        SimulatedGuild guild = simulator.getGuild(0);
+        handled = new CustomEvent(guild.getGuild().getJDA());
+        unhandled = guild.message(0, "hello", 1);
+
+        for(int i = 0; i < handlers; i++)
+            simulator.getBot().registerEventHandler(CustomEvent.class, (b, event) -> calls++);
+    }
+
+    @TearDown
+    public void tearDown(){ simulator.shutdown(); }
+
+    /**
+     * An event with handlers
+     * @return The amount of handler calls, so the calls are not removed
+     */
+    @Benchmark
+    public long handled(){
+        simulator.fire(handled);
+        return calls;
+    }
+
+    /**
+     * A message that no handler handles and that is not a command, the most common event of a bot
+     * @return The amount of handler calls
+     */
+    @Benchmark
+    public long unhandled(){
+        simulator.fire(unhandled);
+        return calls;
+    }
+}
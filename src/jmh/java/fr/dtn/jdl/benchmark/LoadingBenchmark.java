@@ -0,0 +1,82 @@
+package fr.dtn.jdl.benchmark;
+
+import fr.dtn.jdl.command.Command;
+import fr.dtn.jdl.slashcommand.SlashCommand;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the loading of commands, from their TOML files and from the snapshot format
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoadingBenchmark {
+    /**
+     * The command files
+     */
+    private File command, slashCommand;
+    /**
+     * The snapshot definitions of the commands
+     */
+    private byte[] commandDefinition, slashCommandDefinition;
+
+    @Setup
+    public void setup() throws IOException {
+        File directory = Files.createTempDirectory("jdl-benchmark").toFile();
+
+        command = new File(directory, "ping.toml");
+        Files.writeString(command.toPath(), "description = 'A command to test the bot'\n"
+                + "calls = [ 'ping', 'p' ]\n"
+                + "permissions = [ 'MESSAGE_SEND', 'UNKNOWN' ]\n"
+                + "cooldown = 2\n"
+                + "executor = '" + Noop.Command.class.getName() + "'\n");
+
+        slashCommand = new File(directory, "cook.toml");
+        Files.writeString(slashCommand.toPath(), "description = 'Cook a dish by putting an ingredient into a container.'\n"
+                + "permissions = []\n"
+                + "executor = '" + Noop.SlashCommand.class.getName() + "'\n\n"
+                + "[parameters]\n"
+                + "name = [ 'ingredient', 'container' ]\n"
+                + "description = [ 'The ingredient to cook.', 'The container to cook the ingredient in.' ]\n"
+                + "required = [ true, true ]\n"
+                + "autoComplete = [ false, false ]\n"
+                + "choice = [ ['apple','chocolate','rice'], ['bowl','plate'] ]\n"
+                + "type = [ 'STRING', 'STRING' ]\n");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new Command(command).write(new DataOutputStream(bytes));
+        commandDefinition = bytes.toByteArray();
+
+        bytes = new ByteArrayOutputStream();
+        new SlashCommand(slashCommand).write(new DataOutputStream(bytes));
+        slashCommandDefinition = bytes.toByteArray();
+    }
+
+    @Benchmark
+    public Command commandFromFile(){ return new Command(command); }
+
+    @Benchmark
+    public SlashCommand slashCommandFromFile(){ return new SlashCommand(slashCommand); }
+
+    @Benchmark
+    public Command commandFromSnapshot() throws IOException {
+        return new Command(new DataInputStream(new ByteArrayInputStream(commandDefinition)));
+    }
+
+    @Benchmark
+    public SlashCommand slashCommandFromSnapshot() throws IOException {
+        return new SlashCommand(new DataInputStream(new ByteArrayInputStream(slashCommandDefinition)));
+    }
+}
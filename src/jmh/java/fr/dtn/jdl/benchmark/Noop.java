@@ -0,0 +1,53 @@
+package fr.dtn.jdl.benchmark;
+
+import fr.dtn.jdl.Bot;
+import fr.dtn.jdl.command.CommandExecutor;
+import fr.dtn.jdl.slashcommand.SlashCommandExecutor;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.events.Event;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+
+/**
+ * Executors and events that do nothing, so the benchmarks only measure the library
+ */
+public final class Noop {
+    /**
+     * The configuration of the benchmarked bots, logging warnings only
+     */
+    public static final String CONFIGURATION = "[bot]\ntoken = 'benchmark'\nprefix = '!'\nintents = []\n\n[log]\nlevel = 'WARN'\n";
+
+    // Utility class
+    private Noop(){}
+
+    /**
+     * Executor of raw text commands that does nothing
+     */
+    public static final class Command implements CommandExecutor {
+        @Override
+        public void execute(Bot bot, Guild guild, TextChannel channel, Message message, User author, Member member, String[] args){}
+    }
+
+    /**
+     * Executor of slash commands that does nothing
+     */
+    public static final class SlashCommand implements SlashCommandExecutor {
+        @Override
+        public void execute(Bot bot, Guild guild, TextChannel channel, User user, Member member, SlashCommandInteractionEvent event){}
+    }
+
+    /**
+     * Event only handled by event handlers, to measure dispatching alone
+     */
+    public static final class CustomEvent extends Event {
+        /**
+         * Constructor
+         * @param jda The JDA instance
+         */
+        public CustomEvent(JDA jda){ super(jda, 0); }
+    }
+}
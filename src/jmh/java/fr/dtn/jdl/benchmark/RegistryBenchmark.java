@@ -0,0 +1,64 @@
+package fr.dtn.jdl.benchmark;
+
+import fr.dtn.jdl.command.Command;
+import fr.dtn.jdl.command.CommandRegistry;
+import net.dv8tion.jda.api.Permission;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the lookups of commands in the registry, by call and by display name
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegistryBenchmark {
+    /**
+     * The amount of registered commands
+     */
+    @Param({"10", "1000"})
+    public int commands;
+
+    /**
+     * If calls are matched without considering the case of their letters
+     */
+    @Param({"false", "true"})
+    public boolean ignoreCase;
+
+    /**
+     * The registry and the looked up texts
+     */
+    private CommandRegistry registry;
+    private String hit, miss, sharedPrefix;
+
+    @Setup
+    public void setup(){
+        List<Command> added = new ArrayList<>();
+        for(int i = 0; i < commands; i++)
+            added.add(new Command("command" + i, "", new String[]{ "command" + i, "c" + i }, new Permission[0], null, new Noop.Command()));
+
+        registry = new CommandRegistry(ignoreCase).with(added, Collections.emptyList());
+        hit = "!command" + (commands / 2) + " some arguments";
+        miss = "!unknown some arguments";
+        sharedPrefix = "!command" + commands + "0 some arguments";
+    }
+
+    @Benchmark
+    public Command findHit(){ return registry.find(hit, 1, hit.indexOf(' ')); }
+
+    @Benchmark
+    public Command findMiss(){ return registry.find(miss, 1, miss.indexOf(' ')); }
+
+    @Benchmark
+    public Command findSharedPrefix(){ return registry.find(sharedPrefix, 1, sharedPrefix.indexOf(' ')); }
+
+    @Benchmark
+    public Command getByDisplayName(){ return registry.get("command" + 0); }
+}
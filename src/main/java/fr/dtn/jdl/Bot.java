@@ -1,72 +1,266 @@
 package fr.dtn.jdl;
 
 import com.moandjiezana.toml.Toml;
+import fr.dtn.jdl.annotation.CommandIndex;
+import fr.dtn.jdl.autocomplete.AutoCompleter;
 import fr.dtn.jdl.command.Command;
+import fr.dtn.jdl.command.CommandParser;
+import fr.dtn.jdl.command.CommandRegistry;
+import fr.dtn.jdl.embed.EmbedTemplates;
+import fr.dtn.jdl.event.BatchEventHandler;
+import fr.dtn.jdl.event.EventBatcher;
+import fr.dtn.jdl.event.EventDispatcher;
 import fr.dtn.jdl.event.EventHandler;
+import fr.dtn.jdl.execution.DispatchExecutor;
+import fr.dtn.jdl.execution.ExecutionMode;
+import fr.dtn.jdl.execution.Priority;
+import fr.dtn.jdl.execution.QueueStatistics;
+import fr.dtn.jdl.gateway.GatewayProfile;
+import fr.dtn.jdl.gateway.ShardDistribution;
+import fr.dtn.jdl.loader.CommandLoader;
+import fr.dtn.jdl.loader.CommandWatcher;
+import fr.dtn.jdl.log.AsyncLog;
+import fr.dtn.jdl.log.Level;
+import fr.dtn.jdl.loader.DefinitionSnapshot;
+import fr.dtn.jdl.metrics.InvocationMetrics;
+import fr.dtn.jdl.metrics.Metrics;
+import fr.dtn.jdl.outbound.OutboundPipeline;
+import fr.dtn.jdl.permission.PermissionCache;
+import fr.dtn.jdl.prefix.PrefixStore;
+import fr.dtn.jdl.ratelimit.RateLimit;
+import fr.dtn.jdl.ratelimit.RateLimiter;
 import fr.dtn.jdl.slashcommand.Parameter;
 import fr.dtn.jdl.slashcommand.SlashCommand;
+import fr.dtn.jdl.slashcommand.SlashCommandPublisher;
+import fr.dtn.jdl.store.KeyValueStore;
 import fr.dtn.jll.Log;
-import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.OnlineStatus;
+import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.*;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
 import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.guild.GenericGuildEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRemoveEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRoleAddEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRoleRemoveEvent;
+import net.dv8tion.jda.api.events.guild.member.update.GuildMemberUpdateTimeOutEvent;
+import net.dv8tion.jda.api.events.guild.override.GenericPermissionOverrideEvent;
+import net.dv8tion.jda.api.events.guild.update.GuildUpdateOwnerEvent;
+import net.dv8tion.jda.api.events.interaction.GenericInteractionCreateEvent;
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.events.message.GenericMessageEvent;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.events.role.RoleDeleteEvent;
+import net.dv8tion.jda.api.events.role.update.RoleUpdatePermissionsEvent;
 import net.dv8tion.jda.api.events.session.ReadyEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
-import net.dv8tion.jda.api.interactions.commands.build.Commands;
-import net.dv8tion.jda.api.interactions.commands.build.OptionData;
-import net.dv8tion.jda.api.interactions.commands.build.SlashCommandData;
-import net.dv8tion.jda.api.requests.GatewayIntent;
+import net.dv8tion.jda.api.interactions.callbacks.IReplyCallback;
 import net.dv8tion.jda.api.sharding.DefaultShardManagerBuilder;
 import net.dv8tion.jda.api.sharding.ShardManager;
+import net.dv8tion.jda.api.utils.messages.MessageCreateData;
 import org.jetbrains.annotations.NotNull;
 
-import java.awt.*;
 import java.io.*;
-import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Class that represents a Discord bot
  */
 public class Bot {
     /**
-     * Contains all the embeds that are prebuilt and used for generic messages such as NO_PERMISSION one
+     * Bot itself, or null until the bot is started
      */
-    static final HashMap<DefaultEmbed, MessageEmbed> embeds;
+    private volatile ShardManager bot;
 
     /**
-     * Bot itself
+     * The intents and caches of the connection to Discord
      */
-    private final ShardManager bot;
+    private final GatewayProfile gateway;
 
     /**
-     * Contains all the event handlers
+     * The shards run by this process
      */
-    private final List<EventHandler<?>> eventHandlers;
+    private final ShardDistribution sharding;
 
     /**
-     * Contains all the raw text commands
+     * Creates the shard manager from the builder configured by the bot
      */
-    private final HashMap<String, Command> commands;
+    private final Function<DefaultShardManagerBuilder, ShardManager> shardManagerFactory;
 
     /**
-     * Contains all the slash commands
+     * The token of the bot
      */
-    private final HashMap<String, SlashCommand> slashCommands;
+    private final String token;
 
     /**
-     * The prefix before each raw text command
+     * The status of the bot
      */
-    private final String prefix;
+    private final OnlineStatus status;
+
+    /**
+     * The activity of the bot, or null if it does not have any
+     */
+    private final Activity activity;
+
+    /**
+     * Contains all the event handlers, indexed by the event classes they handle
+     */
+    private final EventDispatcher eventHandlers;
+    /**
+     * The batchers of the batch event handlers, by handler
+     */
+    private final Map<BatchEventHandler<?>, EventBatcher<?>> batchers;
+    /**
+     * Who acknowledged the running slash commands the bot may defer, by interaction id : the bot deferring them or their
+     * executor replying, whichever claimed them first
+     */
+    private final Map<Long, AtomicBoolean> replyClaims;
+
+    /**
+     * Contains all the raw text commands, indexed by their calls. The registry is immutable and replaced as a whole on changes
+     */
+    private volatile CommandRegistry commands;
+
+    /**
+     * Contains all the slash commands. The map is immutable and replaced as a whole on changes
+     */
+    private volatile Map<String, SlashCommand> slashCommands;
+
+    /**
+     * Watches the command directories to reload changed files, or null if hot reload is disabled
+     */
+    private final CommandWatcher watcher;
+
+    /**
+     * Loads the command files, possibly from a snapshot of their parsed definitions
+     */
+    private final CommandLoader loader;
+
+    /**
+     * Sends all the slash commands to Discord in a single bulk update
+     */
+    private final SlashCommandPublisher slashCommandPublisher;
+
+    /**
+     * If an update of the slash commands is already scheduled
+     */
+    private final AtomicBoolean slashCommandsUpdatePending;
+    /**
+     * The amount of stages of asynchronous commands that did not complete yet, shutdown() waits for them before closing
+     * the store they may write to
+     */
+    private final AtomicInteger runningStages;
+
+    /**
+     * The prefix before each raw text command, by guild
+     */
+    private final PrefixStore prefixes;
+
+    /**
+     * The directory of the key-value store, and the intervals in seconds between two syncs and two compactions of it
+     */
+    private final File storeDirectory;
+    private final long storeSync, storeCompaction;
+
+    /**
+     * The key-value store of the guilds and users, opened the first time it is used
+     */
+    private volatile KeyValueStore store;
+
+    /**
+     * Runs the event handlers and command executors, keeping the order of the events of each guild
+     */
+    private final DispatchExecutor executor;
+
+    /**
+     * The priorities of the event types and of the commands in the execution queues, by short name and by lower case name
+     */
+    private final Map<String, Priority> eventPriorities, commandPriorities;
+
+    /**
+     * The short names of the event types that are logged when they happen, such as 'messagereceived'
+     */
+    private final Set<String> loggedEvents;
+
+    /**
+     * If all the event types are logged when they happen
+     */
+    private final boolean logAllEvents;
+
+    /**
+     * Counts the invocations of commands and event handlers and records their latencies
+     */
+    private final Metrics metrics;
+
+    /**
+     * Runs the periodic maintenance tasks of the bot, such as statistics reports
+     */
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Holds the buckets of the rate limits of commands, by user and by guild
+     */
+    private final RateLimiter rateLimiter;
+
+    /**
+     * The rate limit of all the commands of a guild together, or null if it is not limited
+     */
+    private final RateLimit guildRateLimit;
+
+    /**
+     * Caches the effective permissions of members in channels, or null if they are computed for every command
+     */
+    private final PermissionCache permissionCache;
+
+    /**
+     * The time after which a running slash command is deferred, or a typing indicator is shown for a raw text command, in milliseconds
+     */
+    private final long deferAfter;
+
+    /**
+     * The time commands can run before they are timed out, in milliseconds, 0 if they are never timed out
+     */
+    private final long timeout;
+    /**
+     * The pipeline grouping the messages sent to a same channel
+     */
+    private final OutboundPipeline outbound;
+    /**
+     * The embed templates, including the ones used for generic messages such as 'no_permission'
+     */
+    private final EmbedTemplates embeds;
+
+    /**
+     * The salt of the buckets of guilds
+     */
+    private static final long GUILD_SALT = 0x6775696C64L;
 
     /**
      * Utility method to load activity from configuration file string
@@ -80,32 +274,27 @@ public class Bot {
         );
     }
 
-    // To load all the default embeds
-    static{
-        embeds = new HashMap<>();
-
-        EmbedBuilder noPermission = new EmbedBuilder()
-                .setColor(Color.red)
-                .setTitle("[ERROR]")
-                .addField("Permission refused", "You cannot use this command because of missing permission(s).", true);
-
-        EmbedBuilder slashCommandMissingExecutor = new EmbedBuilder()
-                .setColor(Color.red)
-                .setTitle("[ERROR]")
-                .addField("No executor", "I'm sorry, but it seems that this command is not handled by the bot, please report this to bot developer.", true);
-
-        embeds.put(DefaultEmbed.NO_PERMISSION, noPermission.build());
-        embeds.put(DefaultEmbed.SLASH_COMMAND_MISSING_EXECUTOR, slashCommandMissingExecutor.build());
-    }
-
     /**
      * Constructor
      * @param directory The directory which the bot information are stored in
      */
     public Bot(File directory) {
-        this.eventHandlers = new ArrayList<>();
-        this.commands = new HashMap<>();
-        this.slashCommands = new HashMap<>();
+        this(directory, DefaultShardManagerBuilder::build);
+    }
+
+    /**
+     * Constructor, creating the shard manager with a factory, such as a local stand-in that does not connect to Discord
+     * for load tests and benchmarks
+     * @param directory The directory which the bot information are stored in
+     * @param shardManagerFactory The factory creating the shard manager from the builder configured by the bot
+     */
+    public Bot(File directory, Function<DefaultShardManagerBuilder, ShardManager> shardManagerFactory) {
+        this.eventHandlers = new EventDispatcher();
+        this.batchers = new ConcurrentHashMap<>();
+        this.replyClaims = new ConcurrentHashMap<>();
+        this.slashCommands = Collections.emptyMap();
+        this.slashCommandsUpdatePending = new AtomicBoolean();
+        this.runningStages = new AtomicInteger();
 
         Log.setDirectory(new File(directory, "logs"));
         Log.info("Instantiating bot on directory : '" + directory.getPath() + "'");
@@ -145,133 +334,688 @@ public class Bot {
             throw new RuntimeException("Failed to load '" + config.getPath() + "' configuration file : creating default one");
         }
 
-        Log.info("Creating Discord Bot");
-        List<GatewayIntent> intents = new ArrayList<>();
-
-        for(Object o : configuration.getList("bot.intents")) {
-            String intent = o.toString().toUpperCase();
+        Level level = Level.valueOf(configuration.getString("log.level", "INFO").toUpperCase());
+        AsyncLog.configure(level, configuration.getLong("log.buffer", 8192L).intValue());
+
+        Set<String> loggedEvents = new HashSet<>();
+        for(Object o : configuration.getList("log.events", Collections.emptyList()))
+            loggedEvents.add(o.toString().toLowerCase().replace("event", ""));
+        this.logAllEvents = loggedEvents.remove("*");
+        this.loggedEvents = Collections.unmodifiableSet(loggedEvents);
+
+        ExecutionMode mode = configuration.getString("execution.mode") == null || configuration.getString("execution.mode").equals("")
+                ? ExecutionMode.INLINE
+                : ExecutionMode.valueOf(configuration.getString("execution.mode").toUpperCase());
+        int threads = configuration.getLong("execution.threads", (long) Runtime.getRuntime().availableProcessors()).intValue();
+        Log.info("Running handlers and executors in " + mode + " mode");
+        this.executor = DispatchExecutor.of(mode, threads,
+                configuration.getLong("execution.capacity", 10000L).intValue(),
+                configuration.getLong("execution.queueCapacity", 1000L).intValue(),
+                configuration.getLong("execution.backpressure", 100L));
+
+        this.eventPriorities = new HashMap<>();
+        this.commandPriorities = new HashMap<>();
+        for(Priority priority : Priority.values()){
+            for(Object o : configuration.getList("priorities.events." + priority.name().toLowerCase(), Collections.emptyList()))
+                eventPriorities.put(o.toString().toLowerCase().replace("event", ""), priority);
+            for(Object o : configuration.getList("priorities.commands." + priority.name().toLowerCase(), Collections.emptyList()))
+                commandPriorities.put(o.toString().toLowerCase(), priority);
+        }
 
-            try {
-                intents.add(GatewayIntent.valueOf(intent));
-            }catch(IllegalArgumentException e){
-                Log.error("Unable to add enable intent '" + intent + "' : Intent does not exist");
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jdl-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long report = configuration.getLong("execution.report", 0L);
+        if(report > 0 && mode != ExecutionMode.INLINE)
+            this.scheduler.scheduleAtFixedRate(() -> getExecutionStatistics().forEach(statistics -> Log.info("Execution " + statistics)), report, report, TimeUnit.SECONDS);
+
+        long evictAfter = TimeUnit.SECONDS.toMillis(configuration.getLong("execution.evictAfter", 600L));
+        if(evictAfter > 0 && mode != ExecutionMode.INLINE)
+            this.scheduler.scheduleWithFixedDelay(() -> executor.evictIdle(evictAfter), evictAfter, evictAfter, TimeUnit.MILLISECONDS);
+
+        this.deferAfter = configuration.getLong("execution.deferAfter", 2000L);
+        this.timeout = configuration.getLong("execution.timeout", 0L) * 1000;
+
+        this.metrics = new Metrics(configuration.getBoolean("metrics.jmx", false));
+        this.outbound = new OutboundPipeline(scheduler, this::claimReply,
+                configuration.getLong("outbound.window", 250L),
+                configuration.getLong("outbound.concurrency", 4L).intValue(),
+                metrics.get(Metrics.Kind.OUTBOUND, "messages"),
+                metrics.get(Metrics.Kind.OUTBOUND, "replies"));
+        long metricsReport = configuration.getLong("metrics.report", 0L);
+        if(metricsReport > 0)
+            this.scheduler.scheduleAtFixedRate(() -> Log.info("Metrics :\n" + metrics.dump() + "Outbound : " + outbound), metricsReport, metricsReport, TimeUnit.SECONDS);
+
+        this.embeds = EmbedTemplates.load(new File(directory, "embeds.toml"), configuration.getLong("embeds.cache", 256L).intValue());
+
+        this.rateLimiter = new RateLimiter(configuration.getLong("ratelimit.capacity", 65536L).intValue());
+        String guildRate = configuration.getString("ratelimit.guild", "");
+        this.guildRateLimit = guildRate.equals("") ? null : RateLimit.parse(guildRate);
+        if(guildRateLimit != null)
+            Log.info("Limiting the commands of each guild to " + guildRateLimit);
+
+        int permissionCacheCapacity = configuration.getLong("permissions.cache", 16384L).intValue();
+        long permissionCacheLifetime = configuration.getLong("permissions.lifetime", 60L);
+        this.permissionCache = permissionCacheCapacity > 0 ? new PermissionCache(permissionCacheCapacity, TimeUnit.SECONDS.toNanos(permissionCacheLifetime)) : null;
+
+        this.commands = new CommandRegistry(configuration.getBoolean("bot.ignoreCase", false));
+        this.prefixes = new PrefixStore(new File(directory, "prefixes.toml"), configuration.getString("bot.prefix"), scheduler);
+        this.storeDirectory = new File(directory, "store");
+        this.storeSync = configuration.getLong("store.sync", 5L);
+        this.storeCompaction = configuration.getLong("store.compaction", 600L);
+
+        this.loader = new CommandLoader(configuration.getBoolean("bot.snapshot", false) ? new DefinitionSnapshot(new File(directory, "commands.snapshot")) : null);
+
+        CommandWatcher watcher = null;
+        if(configuration.getBoolean("bot.hotReload", false)){
+            try{
+                watcher = new CommandWatcher();
+            }catch(IOException e){
+                Log.error("Unable to enable hot reload of commands : " + e.getMessage());
             }
         }
+        this.watcher = watcher;
+
+        String developmentGuild = configuration.getString("bot.developmentGuild", "");
+        if(!developmentGuild.equals(""))
+            Log.info("Registering slash commands on development guild " + developmentGuild + " only");
+        this.slashCommandPublisher = new SlashCommandPublisher(new File(directory, "slash_commands.hash"), developmentGuild.equals("") ? 0 : Long.parseLong(developmentGuild));
 
-        DefaultShardManagerBuilder builder = DefaultShardManagerBuilder.createDefault(configuration.getString("bot.token"), intents);
+        this.token = configuration.getString("bot.token");
+        this.gateway = GatewayProfile.of(configuration);
+        this.sharding = ShardDistribution.of(configuration);
+        this.shardManagerFactory = shardManagerFactory;
 
         if(configuration.getString("bot.status") == null || configuration.getString("bot.status").equals("")) {
             Log.warn("Bot status not set in 'configuration.toml', loading default 'ONLINE' status");
-            builder.setStatus(OnlineStatus.ONLINE);
+            this.status = OnlineStatus.ONLINE;
         }else{
-            OnlineStatus status = OnlineStatus.valueOf(configuration.getString("bot.status"));
+            this.status = OnlineStatus.valueOf(configuration.getString("bot.status"));
             Log.info("Set status to " + status);
-            builder.setStatus(status);
         }
 
         if(configuration.getString("bot.activity") == null || configuration.getString("bot.activity").equals("")){
             Log.warn("Bot activity not set in 'configuration.toml', loading default empty activity");
-            builder.setActivity(null);
+            this.activity = null;
         }else{
-            Activity activity = getActivity(configuration.getString("bot.activity"));
+            this.activity = getActivity(configuration.getString("bot.activity"));
             Log.info("Loading activity " + activity);
-            builder.setActivity(activity);
         }
 
-        this.bot = builder.build();
+        if(gateway.isAutomatic())
+            Log.info("Intents are worked out from the registered handlers : call start() once they are registered to connect the bot");
+        else
+            start();
+    }
+
+    /**
+     * To create the Discord bot and connect it. It is called by the constructor, unless the 'bot.intents' field of
+     * 'configuration.toml' contains 'AUTO' : the intents and cache flags are then worked out from the event handlers and
+     * commands registered before this call. Calling it again does nothing
+     */
+    public synchronized void start(){
+        if(this.bot != null)
+            return;
+
+        Log.info("Creating Discord Bot");
+        boolean permissions = false;
+        for(Command command : getCommands())
+            permissions |= command.getPermissionMask() != 0;
+        for(SlashCommand command : this.slashCommands.values())
+            permissions |= command.getPermissionMask() != 0;
+
+        DefaultShardManagerBuilder builder = gateway.createBuilder(token, eventHandlers.getEventTypes(), !getCommands().isEmpty(), permissions);
+        builder.setStatus(status);
+        builder.setActivity(activity);
+        sharding.configure(builder);
+
+        ShardManager bot = shardManagerFactory.apply(builder);
+        sharding.attach(bot);
 
         Log.info("Adding events listener");
-        this.bot.addEventListener(new EventsListener(this));
+        bot.addEventListener(new EventsListener(this));
+        this.bot = bot;
 
         Log.info("Created bot successfully");
-        this.prefix = configuration.getString("bot.prefix");
     }
 
     /**
-     * To add an EventHandler
+     * To get the statistics of the execution queues, one per guild that received events
+     * @return The statistics of each queue, empty in INLINE mode
+     */
+    public List<QueueStatistics> getExecutionStatistics(){ return executor.getStatistics(); }
+
+    /**
+     * To get the metrics of the commands and event handlers, such as invocation counts and latencies.
+     * Use getMetrics().dump() to get them as a plain text table
+     * @return The metrics
+     */
+    public Metrics getMetrics(){ return metrics; }
+
+    /**
+     * To get the pipeline sending messages to channels, grouping the messages sent to a same channel within the
+     * 'outbound.window' of 'configuration.toml' into a single message
+     * @return The pipeline
+     */
+    public OutboundPipeline getOutbound(){ return outbound; }
+
+    /**
+     * To get the embed templates, from the 'embeds.toml' file of the bot directory and the ones of the library
+     * @return The templates
+     */
+    public EmbedTemplates getEmbeds(){ return embeds; }
+
+    /**
+     * To claim the acknowledgement of an interaction before replying to it. The bot may defer asynchronous and response
+     * slash commands, and only one of the bot and the executor can acknowledge the interaction
+     * @param event The interaction, such as a slash command
+     * @return True if the caller must acknowledge the interaction with event.reply(...), false if it is already
+     * acknowledged and the reply must be sent with event.getHook()
+     */
+    public boolean claimReply(IReplyCallback event){
+        AtomicBoolean claim = replyClaims.get(event.getIdLong());
+        return claim == null ? !event.isAcknowledged() : claim.compareAndSet(false, true);
+    }
+
+    /**
+     * To get the key-value store of the guilds and users, saved in the 'store' directory of the bot directory. It is
+     * opened the first time this method is called, and closed by shutdown() once the stages of the asynchronous commands
+     * completed or timed out : writing to it afterwards throws an IllegalStateException
+     * @return The store
+     */
+    public KeyValueStore getStore(){
+        KeyValueStore store = this.store;
+
+        if(store != null)
+            return store;
+
+        synchronized(this){
+            if(this.store == null){
+                KeyValueStore created = new KeyValueStore(storeDirectory);
+
+                if(storeSync > 0)
+                    scheduler.scheduleWithFixedDelay(created::sync, storeSync, storeSync, TimeUnit.SECONDS);
+                if(storeCompaction > 0)
+                    scheduler.scheduleWithFixedDelay(() -> {
+                        try{
+                            created.compactIfNeeded();
+                        }catch(RuntimeException e){
+                            Log.error("Failed to compact the store : " + e.getMessage());
+                        }
+                    }, storeCompaction, storeCompaction, TimeUnit.SECONDS);
+
+                this.store = created;
+            }
+
+            return this.store;
+        }
+    }
+
+    /**
+     * To disconnect the bot and wait for the running handlers and executors to finish
+     */
+    public void shutdown(){
+        Log.info("Shutting down bot");
+        this.outbound.flush();
+        this.sharding.close();
+        if(this.bot != null)
+            this.bot.shutdown();
+        this.scheduler.shutdown();
+        this.executor.shutdown();
+
+        // The events buffered by the last handlers are handled on this thread
+        this.batchers.values().forEach(EventBatcher::close);
+
+        if(this.watcher != null)
+            this.watcher.close();
+
+        AsyncLog.flush();
+
+        this.prefixes.flush();
+
+        if(this.store != null){
+            awaitRunningStages();
+            this.store.close();
+        }
+    }
+
+    // Utility method, asynchronous commands can still write to the store after their executor returned
+    private void awaitRunningStages(){
+        long deadline = System.currentTimeMillis() + (timeout > 0 ? timeout : 10_000);
+
+        try{
+            while(runningStages.get() > 0 && System.currentTimeMillis() < deadline)
+                Thread.sleep(10);
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+
+        if(runningStages.get() > 0)
+            Log.warn("Closing the store while " + runningStages.get() + " asynchronous command(s) are still running, their writes will fail");
+    }
+
+    /**
+     * To get the prefix of the raw text commands in a guild
+     * @param guild The guild
+     * @return The prefix of the guild, or the default one from 'configuration.toml' if the guild does not have its own
+     */
+    public String getPrefix(Guild guild){ return prefixes.get(guild.getIdLong()); }
+
+    /**
+     * To get the prefix of the raw text commands from 'configuration.toml', used outside of guilds
+     * @return The default prefix
+     */
+    public String getDefaultPrefix(){ return prefixes.getDefaultPrefix(); }
+
+    /**
+     * To set the prefix of the raw text commands in a guild, saved in 'prefixes.toml' in the bot directory
+     * @param guild The guild
+     * @param prefix The new prefix, or null to use the default one again
+     */
+    public void setPrefix(Guild guild, String prefix){ prefixes.set(guild.getIdLong(), prefix); }
+
+    /**
+     * To add an EventHandler, its event type is resolved once from its generic declaration
      * @param handler The EventHandler to add
      */
-    public void registerEventHandler(EventHandler<?> handler){ this.eventHandlers.add(handler); }
+    public void registerEventHandler(EventHandler<?> handler){ this.eventHandlers.register(handler); }
 
     /**
-     * To add a raw text command from its configuration file
-     * @param file The raw text command configuration file
+     * To add an EventHandler with an explicit event type, for handlers whose event type cannot be resolved such as lambdas
+     * @param type The type of the handled event
+     * @param handler The EventHandler to add
+     * @param <T> The type of the handled event
      */
-    public void registerCommand(File file){
-        Command command = new Command(file);
+    public <T extends GenericEvent> void registerEventHandler(Class<T> type, EventHandler<? super T> handler){ this.eventHandlers.register(type, handler); }
 
-        for(String call : command.getCalls())
-            this.commands.put(call, command);
+    /**
+     * To remove an EventHandler
+     * @param handler The EventHandler to remove
+     * @return If the EventHandler was registered
+     */
+    public boolean unregisterEventHandler(EventHandler<?> handler){ return this.eventHandlers.unregister(handler); }
+
+    /**
+     * To add a batch event handler, resolving its event type from its generic declaration
+     * @param handler The batch event handler to add
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void registerBatchEventHandler(BatchEventHandler<?> handler){
+        registerBatchEventHandler((Class) EventDispatcher.resolveEventType(handler.getClass()), handler);
     }
 
     /**
-     * To register all the commands of a directory and possibly its children directories
+     * To add a batch event handler with an explicit event type, useful for lambdas whose event type cannot be resolved
+     * @param type The type of the handled event
+     * @param handler The batch event handler to add
+     * @param <T> The type of the handled event
+     */
+    public <T extends GenericEvent> void registerBatchEventHandler(Class<T> type, BatchEventHandler<T> handler){
+        EventBatcher<T> batcher = new EventBatcher<>(this, handler, executor, scheduler, metrics.get(Metrics.Kind.BATCH, handler.getClass().getSimpleName()));
+
+        if(batchers.putIfAbsent(handler, batcher) != null){
+            batcher.close();
+            throw new IllegalArgumentException("Batch event handler '" + handler.getClass().getName() + "' is already registered");
+        }
+
+        this.eventHandlers.register(type, batcher);
+    }
+
+    /**
+     * To remove a batch event handler, after handling its buffered events
+     * @param handler The batch event handler to remove
+     * @return If the batch event handler was registered
+     */
+    public boolean unregisterBatchEventHandler(BatchEventHandler<?> handler){
+        EventBatcher<?> batcher = batchers.remove(handler);
+
+        if(batcher == null)
+            return false;
+
+        this.eventHandlers.unregister(batcher);
+        batcher.close();
+        return true;
+    }
+
+    /**
+     * To add a raw text command from its configuration file
+     * @param file The raw text command configuration file
+     */
+    public void registerCommand(File file){ updateCommands(loadedCommands(Collections.singletonList(loader.loadCommand(file))), Collections.emptyList()); }
+
+    /**
+     * To register all the commands of a directory and possibly its children directories. With hot reload enabled, the
+     * directory is then watched and its changed files are loaded again
      * @param directory The root directory of the raw text commands to load
      * @param loadSubFiles If the method considers or not the files stored in children directories of the root one
      */
     public void registerCommands(File directory, boolean loadSubFiles){
-        if(directory == null || !directory.isDirectory() || !directory.exists() || directory.listFiles() == null)
-            return;
+        updateCommands(loadedCommands(loader.loadCommands(CommandLoader.listFiles(directory, loadSubFiles))), Collections.emptyList());
 
-        for(File file : directory.listFiles()){
-            if(file.isDirectory() && loadSubFiles)
-                registerCommands(file, true);
-            else
-                registerCommand(file);
+        if(this.watcher != null && directory != null && directory.isDirectory())
+            this.watcher.watch(directory, loadSubFiles, this::reloadCommands);
+    }
+
+    /**
+     * To register the raw text commands and slash commands of an index generated from annotated executors
+     * @param index The command index, such as 'new GeneratedCommandIndex()'
+     */
+    public void registerCommandIndex(CommandIndex index){
+        updateCommands(index.commands(), Collections.emptyList());
+        updateSlashCommands(index.slashCommands(), Collections.emptyList());
+    }
+
+    /**
+     * To register the commands of all the indexes generated from annotated executors found on the class path
+     */
+    public void registerCommandIndexes(){
+        for(CommandIndex index : ServiceLoader.load(CommandIndex.class)){
+            Log.info("Registering commands of index '" + index.getClass().getName() + "'");
+            registerCommandIndex(index);
         }
     }
 
     /**
-     * To register a slash command from its configuration file
-     * @param file The slash command configuration file
+     * To remove a raw text command and all its calls
+     * @param displayName The display name of the command, which is the name of its file without '.toml'
+     * @return If the command was registered
      */
-    public void registerSlashCommand(File file){
-        SlashCommand command = new SlashCommand(file);
-        SlashCommandData data = Commands.slash(command.getDisplayName(), command.getDescription());
+    public boolean unregisterCommand(String displayName){
+        if(this.commands.get(displayName) == null)
+            return false;
+
+        updateCommands(Collections.emptyList(), Collections.singletonList(displayName));
+        return true;
+    }
+
+    /**
+     * To get a raw text command
+     * @param displayName The display name of the command
+     * @return The command, or null if there is none
+     */
+    public Command getCommand(String displayName){ return this.commands.get(displayName); }
+
+    /**
+     * To get all the raw text commands
+     * @return The raw text commands, in registration order. The collection does not change with later registrations
+     */
+    public Collection<Command> getCommands(){ return this.commands.getCommands(); }
+
+    // Utility method, publishes a new registry so that dispatching threads never see a half updated one
+    private synchronized void updateCommands(Collection<Command> added, Collection<String> removed){
+        this.commands = this.commands.with(added, removed);
+    }
+
+    // Utility method, a command whose executor failed to load is left out instead of stopping the registration of the others
+    private static List<Command> loadedCommands(Collection<Command> commands){
+        List<Command> loaded = new ArrayList<>(commands.size());
+
+        for(Command command : commands){
+            if(command.isLoaded())
+                loaded.add(command);
+            else
+                Log.error("Command '" + command.getDisplayName() + "' is not registered : Its executor is not loaded");
+        }
+
+        return loaded;
+    }
 
-        for(Parameter parameter : command.getParameters()) {
-            OptionData option = new OptionData(parameter.getType(), parameter.getName(), parameter.getDescription());
-            String[] choices = parameter.getChoices();
+    // Utility method
+    private void reloadCommands(List<File> modified, List<File> deleted){
+        List<Command> added = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
 
-            for(String choice : choices)
-                option.addChoices(new net.dv8tion.jda.api.interactions.commands.Command.Choice(choice, choice));
+        for(File file : modified){
+            try{
+                Command command = loader.loadCommand(file);
 
-            data.addOptions(option);
+                if(command.isLoaded())
+                    added.add(command);
+            }catch(RuntimeException e){
+                Log.error("Failed to reload command file '" + file.getPath() + "', keeping the previous version : " + e.getMessage());
+            }
         }
 
-        this.bot.getShards().forEach(jda -> jda.updateCommands().addCommands(data).queue());
-        this.slashCommands.put(command.getDisplayName(), command);
+        for(File file : deleted)
+            removed.add(file.getName().replace(".toml", ""));
+
+        updateCommands(added, removed);
+        Log.info("Reloaded commands : " + added.size() + " loaded, " + removed.size() + " removed");
     }
 
     /**
-     * To load all the slash commands from a directory and possibly its children directories
+     * To register a slash command from its configuration file
+     * @param file The slash command configuration file
+     */
+    public void registerSlashCommand(File file){ updateSlashCommands(loadedSlashCommands(Collections.singletonList(loader.loadSlashCommand(file))), Collections.emptyList()); }
+
+    /**
+     * To load all the slash commands from a directory and possibly its children directories. With hot reload enabled,
+     * the directory is then watched and its changed files are loaded again
      * @param directory The root directory of the slash commands configuration files
      * @param loadSubFiles If the method considers or not the files stored in children directories of the root one
      */
     public void registerSlashCommands(File directory, boolean loadSubFiles){
-        if(directory == null || !directory.isDirectory() || !directory.exists() || directory.listFiles() == null)
-            return;
+        updateSlashCommands(loadedSlashCommands(loader.loadSlashCommands(CommandLoader.listFiles(directory, loadSubFiles))), Collections.emptyList());
+
+        if(this.watcher != null && directory != null && directory.isDirectory())
+            this.watcher.watch(directory, loadSubFiles, this::reloadSlashCommands);
+    }
+
+    /**
+     * To remove a slash command, Discord is updated shortly after
+     * @param name The name of the slash command, which is the name of its file without '.toml'
+     * @return If the slash command was registered
+     */
+    public boolean unregisterSlashCommand(String name){
+        if(!this.slashCommands.containsKey(name))
+            return false;
+
+        updateSlashCommands(Collections.emptyList(), Collections.singletonList(name));
+        return true;
+    }
+
+    /**
+     * To get a slash command
+     * @param name The name of the slash command
+     * @return The slash command, or null if there is none
+     */
+    public SlashCommand getSlashCommand(String name){ return this.slashCommands.get(name); }
+
+    /**
+     * To get all the slash commands
+     * @return The slash commands. The collection does not change with later registrations
+     */
+    public Collection<SlashCommand> getSlashCommands(){ return this.slashCommands.values(); }
+
+    // Utility method, publishes a new map so that dispatching threads never see a half updated one
+    private synchronized void updateSlashCommands(Collection<SlashCommand> added, Collection<String> removed){
+        Map<String, SlashCommand> next = new HashMap<>(this.slashCommands);
 
-        for(File file : directory.listFiles()){
-            if(file.isDirectory() && loadSubFiles)
-                registerSlashCommands(file, true);
+        for(String name : removed){
+            next.remove(name);
+            this.slashCommandPublisher.remove(name);
+        }
+
+        for(SlashCommand command : added){
+            next.put(command.getDisplayName(), command);
+            this.slashCommandPublisher.put(command.toData());
+
+            // Indexes the candidates in the background, so that the first completion is as fast as the next ones
+            for(Parameter parameter : command.getParameters())
+                if(parameter.isAutoComplete())
+                    this.scheduler.execute(parameter::getCompleter);
+        }
+
+        this.slashCommands = Collections.unmodifiableMap(next);
+        scheduleSlashCommandsUpdate();
+    }
+
+    // Utility method, a slash command whose executor failed to load has no parameters and cannot be sent to Discord
+    private static List<SlashCommand> loadedSlashCommands(Collection<SlashCommand> commands){
+        List<SlashCommand> loaded = new ArrayList<>(commands.size());
+
+        for(SlashCommand command : commands){
+            if(command.isLoaded())
+                loaded.add(command);
             else
-                registerSlashCommand(file);
+                Log.error("Slash command '" + command.getDisplayName() + "' is not registered : Its executor is not loaded");
+        }
+
+        return loaded;
+    }
+
+    // Utility method
+    private void reloadSlashCommands(List<File> modified, List<File> deleted){
+        List<SlashCommand> added = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+
+        for(File file : modified){
+            try{
+                SlashCommand command = loader.loadSlashCommand(file);
+
+                if(command.isLoaded())
+                    added.add(command);
+            }catch(RuntimeException e){
+                Log.error("Failed to reload slash command file '" + file.getPath() + "', keeping the previous version : " + e.getMessage());
+            }
+        }
+
+        for(File file : deleted)
+            removed.add(file.getName().replace(".toml", ""));
+
+        updateSlashCommands(added, removed);
+        Log.info("Reloaded slash commands : " + added.size() + " loaded, " + removed.size() + " removed");
+    }
+
+    /**
+     * To send the slash commands to Discord now, in a single bulk update. Registered slash commands are otherwise sent
+     * automatically, shortly after the last registration
+     * @param force If the slash commands are sent even if they did not change since the last time they were sent
+     */
+    public void updateSlashCommands(boolean force){
+        if(this.bot == null)
+            Log.info("Bot is not started yet, slash commands will be registered when the bot is ready");
+        else if(!this.slashCommandPublisher.publish(this.bot, force))
+            Log.info("Development guild or shards are not available yet, slash commands will be registered when the bot is ready");
+    }
+
+    // Utility method, gathers close registrations into a single update
+    private void scheduleSlashCommandsUpdate(){
+        if(this.slashCommandsUpdatePending.compareAndSet(false, true)){
+            this.scheduler.schedule(() -> {
+                this.slashCommandsUpdatePending.set(false);
+                updateSlashCommands(false);
+            }, 1, TimeUnit.SECONDS);
         }
     }
 
+    /**
+     * To check if a member has permissions in a channel, the permission overrides of the channel included
+     * @param member The member
+     * @param channel The channel
+     * @param mask The raw value of the permissions
+     * @return If the member has all the permissions
+     */
+    private boolean hasPermissions(Member member, GuildChannel channel, long mask){
+        if(permissionCache != null)
+            return permissionCache.hasPermissions(member, channel, mask);
+
+        return mask == 0 || (Permission.getRaw(member.getPermissions(channel)) & mask) == mask;
+    }
+
+    /**
+     * To take a use of a command from the bucket of its user, then from the bucket of its guild
+     * @param guildId The id of the guild the command is used in
+     * @param userId The id of the user using the command
+     * @param salt The salt separating the buckets of the command from the ones of other commands
+     * @param limit The rate limit of the command, or null if it is not limited
+     * @return 0 if the use is allowed, or else the time to wait before it would be, in nanoseconds
+     */
+    private long acquireUse(long guildId, long userId, long salt, RateLimit limit){
+        if(limit != null){
+            long wait = rateLimiter.acquire(RateLimiter.key(userId, salt), limit);
+
+            if(wait > 0)
+                return wait;
+        }
+
+        if(guildRateLimit == null)
+            return 0;
+
+        long wait = rateLimiter.acquire(RateLimiter.key(guildId, GUILD_SALT), guildRateLimit);
+
+        // The user is not charged for a use refused by the limit of the guild
+        if(wait > 0 && limit != null)
+            rateLimiter.release(RateLimiter.key(userId, salt), limit);
+
+        return wait;
+    }
+
+    /**
+     * To give back a use of a command taken by acquireUse(...), when the command is not executed
+     * @param guildId The id of the guild the command is used in
+     * @param userId The id of the user using the command
+     * @param salt The salt separating the buckets of the command from the ones of other commands
+     * @param limit The rate limit of the command, or null if it is not limited
+     */
+    private void releaseUse(long guildId, long userId, long salt, RateLimit limit){
+        if(limit != null)
+            rateLimiter.release(RateLimiter.key(userId, salt), limit);
+
+        if(guildRateLimit != null)
+            rateLimiter.release(RateLimiter.key(guildId, GUILD_SALT), guildRateLimit);
+    }
+
+    /**
+     * To render the embed of a generic message
+     * @param type The type of the message
+     * @return The embed
+     */
+    MessageEmbed embed(DefaultEmbed type){ return embeds.render(type.getTemplate()); }
+
+    /**
+     * To render the embed telling a user to wait before using a command again
+     * @param wait The time to wait, in nanoseconds
+     * @return The embed
+     */
+    MessageEmbed rateLimited(long wait){
+        return embeds.render(DefaultEmbed.RATE_LIMITED.getTemplate(), String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + 999_999_999L))));
+    }
+
     /**
      * Different types of default library messages embeds
      */
     enum DefaultEmbed {
         NO_PERMISSION, // If a member does not have the permission to execute an action
-        SLASH_COMMAND_MISSING_EXECUTOR; // If a registered slash command does not have any executor
+        SLASH_COMMAND_MISSING_EXECUTOR, // If a registered slash command does not have any executor
+        BUSY, // If a command is shed because the execution queues are too full
+        RATE_LIMITED, // If a member uses a command too often
+        COMMAND_FAILED, // If the executor of a command throws an exception or its stage fails
+        COMMAND_TIMED_OUT; // If the executor of a command takes longer than its timeout
+
+        /**
+         * To get the name of the template of the embed, which 'embeds.toml' can override
+         * @return The name of the template, such as 'no_permission'
+         */
+        String getTemplate(){ return name().toLowerCase(); }
     }
 
     /**
      * Class managing event listening
      */
     static class EventsListener extends ListenerAdapter {
+        /**
+         * The short name of each event class, computed once per class
+         */
+        private static final ClassValue<String> eventIds = new ClassValue<String>() {
+            @Override
+            protected String computeValue(Class<?> type){ return type.getSimpleName().toLowerCase().replace("event", ""); }
+        };
+
         /**
          * The current bot instance
          */
@@ -291,29 +1035,127 @@ public class Bot {
          */
         @Override
         public void onGenericEvent(GenericEvent event) {
-            String eventId = event.getClass().getSimpleName().toLowerCase().replace("event", "");
-            Log.info("Event : " + eventId);
-
-            for(EventHandler<?> handler : bot.eventHandlers){
-                try{
-                    for(Type type : handler.getClass().getGenericInterfaces()) {
-                        try {
-                            for (Type arg : ((ParameterizedType) type).getActualTypeArguments()) {
-                                Class<? extends GenericEvent> caster = (Class<? extends GenericEvent>) arg;
-
-                                if (caster.isInstance(event)) {
-                                    happen(handler.getClass().cast(handler), caster.cast(event));
-                                    break;
-                                }
-                            }
-                        }catch(ClassCastException ignored){}
+            String eventId = eventIds.get(event.getClass());
+
+            if(bot.logAllEvents || bot.loggedEvents.contains(eventId))
+                AsyncLog.info("Event : {}", eventId);
+
+            EventHandler<?>[] handlers = bot.eventHandlers.handlersOf(event.getClass());
+
+            if(handlers.length == 0)
+                return;
+
+            InvocationMetrics metrics = bot.metrics.get(Metrics.Kind.EVENT, eventId);
+
+            boolean accepted = bot.executor.offer(guildIdOf(event), bot.eventPriorities.getOrDefault(eventId, Priority.NORMAL), () -> {
+                long start = System.nanoTime();
+                boolean failed = false;
+
+                for(EventHandler<?> handler : handlers){
+                    try{
+                        happen(handler, event);
+                    }catch(Exception e){
+                        failed = true;
+                        AsyncLog.error("Event handler '{}' failed on event '{}' : {}", handler.getClass().getName(), eventId, e);
                     }
-                }catch(Exception ignored){}
+                }
+
+                metrics.record(System.nanoTime() - start, failed);
+            });
+
+            if(!accepted)
+                metrics.shed();
+        }
+
+        // Utility method, runs a command executor and records its latency and failure
+        private static void invoke(InvocationMetrics metrics, Runnable execution){
+            long start = System.nanoTime();
+            boolean failed = false;
+
+            try{
+                execution.run();
+            }catch(RuntimeException e){
+                failed = true;
+                AsyncLog.error("Executor of '{}' failed : {}", metrics.getName(), e);
+            }finally{
+                metrics.record(System.nanoTime() - start, failed);
             }
         }
 
-        // Utility method
-        <T extends GenericEvent> void happen(EventHandler<T> handler, T event){ handler.happen(bot, event); }
+        /**
+         * To run a command executor that may complete later, recording its latency and failure once it completes
+         * @param metrics The metrics of the command
+         * @param timeout The timeout of the command, in milliseconds, 0 to use the one of the bot
+         * @param execution Starts the executor and gives the stage completing when it is done
+         * @param slow Called if the command is still running after the 'execution.deferAfter' delay, or null
+         * @param failure Called with the error embed to send if the command fails or times out
+         * @param done Called once the command is done, after the failure, or null
+         */
+        private void invokeAsync(InvocationMetrics metrics, long timeout, Supplier<CompletionStage<?>> execution, Runnable slow, Consumer<MessageEmbed> failure, Runnable done){
+            long start = System.nanoTime();
+            ScheduledFuture<?> deferral = bot.deferAfter > 0 && slow != null ? bot.scheduler.schedule(slow, bot.deferAfter, TimeUnit.MILLISECONDS) : null;
+            CompletableFuture<?> completion;
+            bot.runningStages.incrementAndGet();
+
+            try{
+                completion = execution.get().toCompletableFuture();
+            }catch(RuntimeException e){
+                completion = CompletableFuture.failedFuture(e);
+            }
+
+            // Completes the stage of the executor with a TimeoutException, so that it can stop its work
+            long limit = timeout > 0 ? timeout : bot.timeout;
+            if(limit > 0)
+                completion.orTimeout(limit, TimeUnit.MILLISECONDS);
+
+            completion.whenComplete((result, error) -> {
+                if(deferral != null)
+                    deferral.cancel(false);
+
+                metrics.record(System.nanoTime() - start, error != null);
+
+                if(error != null){
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+
+                    if(cause instanceof TimeoutException){
+                        AsyncLog.error("Executor of '{}' timed out after {} ms", metrics.getName(), limit);
+                        failure.accept(bot.embed(DefaultEmbed.COMMAND_TIMED_OUT));
+                    }else{
+                        AsyncLog.error("Executor of '{}' failed : {}", metrics.getName(), cause);
+                        failure.accept(bot.embed(DefaultEmbed.COMMAND_FAILED));
+                    }
+                }
+
+                if(done != null)
+                    done.run();
+            }).whenComplete((result, error) -> bot.runningStages.decrementAndGet());
+        }
+
+        /**
+         * To get the id of the guild an event happened in, used to keep the events of a guild in order
+         * @param event The event
+         * @return The id of the guild, or DispatchExecutor.GLOBAL if the event is not related to a guild
+         */
+        static long guildIdOf(GenericEvent event){
+            if(event instanceof GenericGuildEvent)
+                return ((GenericGuildEvent) event).getGuild().getIdLong();
+
+            if(event instanceof GenericMessageEvent){
+                GenericMessageEvent messageEvent = (GenericMessageEvent) event;
+                return messageEvent.isFromGuild() ? messageEvent.getGuild().getIdLong() : DispatchExecutor.GLOBAL;
+            }
+
+            if(event instanceof GenericInteractionCreateEvent){
+                Guild guild = ((GenericInteractionCreateEvent) event).getGuild();
+                return guild == null ? DispatchExecutor.GLOBAL : guild.getIdLong();
+            }
+
+            return DispatchExecutor.GLOBAL;
+        }
+
+        // Utility method, the dispatch table only routes events to handlers of one of their supertypes
+        @SuppressWarnings("unchecked")
+        <T extends GenericEvent> void happen(EventHandler<T> handler, GenericEvent event){ handler.happen(bot, (T) event); }
 
         /**
          * To send a message in the console when the bot is ready
@@ -322,6 +1164,71 @@ public class Bot {
         @Override
         public void onReady(@NotNull ReadyEvent event){
             Log.info("Bot is ready");
+
+            if(bot.slashCommandPublisher.isDirty())
+                bot.scheduleSlashCommandsUpdate();
+        }
+
+        /**
+         * To invalidate the cached permissions of a guild when a permission override of one of its channels changes
+         * @param event The event
+         */
+        @Override
+        public void onGenericPermissionOverride(@NotNull GenericPermissionOverrideEvent event){ invalidatePermissions(event.getGuild()); }
+
+        /**
+         * To invalidate the cached permissions of a guild when the permissions of one of its roles change
+         * @param event The event
+         */
+        @Override
+        public void onRoleUpdatePermissions(@NotNull RoleUpdatePermissionsEvent event){ invalidatePermissions(event.getGuild()); }
+
+        /**
+         * To invalidate the cached permissions of a guild when one of its roles is deleted
+         * @param event The event
+         */
+        @Override
+        public void onRoleDelete(@NotNull RoleDeleteEvent event){ invalidatePermissions(event.getGuild()); }
+
+        /**
+         * To invalidate the cached permissions of a guild when a member gets roles
+         * @param event The event
+         */
+        @Override
+        public void onGuildMemberRoleAdd(@NotNull GuildMemberRoleAddEvent event){ invalidatePermissions(event.getGuild()); }
+
+        /**
+         * To invalidate the cached permissions of a guild when a member loses roles
+         * @param event The event
+         */
+        @Override
+        public void onGuildMemberRoleRemove(@NotNull GuildMemberRoleRemoveEvent event){ invalidatePermissions(event.getGuild()); }
+
+        /**
+         * To invalidate the cached permissions of a guild when a member is timed out or is not anymore
+         * @param event The event
+         */
+        @Override
+        public void onGuildMemberUpdateTimeOut(@NotNull GuildMemberUpdateTimeOutEvent event){ invalidatePermissions(event.getGuild()); }
+
+        /**
+         * To invalidate the cached permissions of a guild when a member leaves it
+         * @param event The event
+         */
+        @Override
+        public void onGuildMemberRemove(@NotNull GuildMemberRemoveEvent event){ invalidatePermissions(event.getGuild()); }
+
+        /**
+         * To invalidate the cached permissions of a guild when its owner changes
+         * @param event The event
+         */
+        @Override
+        public void onGuildUpdateOwner(@NotNull GuildUpdateOwnerEvent event){ invalidatePermissions(event.getGuild()); }
+
+        // Utility method
+        private void invalidatePermissions(Guild guild){
+            if(bot.permissionCache != null)
+                bot.permissionCache.invalidate(guild.getIdLong());
         }
 
         /**
@@ -330,7 +1237,17 @@ public class Bot {
          */
         @Override
         public void onMessageReceived(@NotNull MessageReceivedEvent event) {
-            if(!event.getMessage().getContentRaw().startsWith(bot.prefix) || event.getAuthor().isBot())
+            String raw = event.getMessage().getContentRaw();
+            String prefix = event.isFromGuild() ? bot.prefixes.get(event.getGuild().getIdLong()) : bot.prefixes.getDefaultPrefix();
+
+            if(!raw.startsWith(prefix) || event.getAuthor().isBot())
+                return;
+
+            int callStart = prefix.length();
+            int callEnd = CommandParser.wordEnd(raw, callStart);
+            Command command = bot.commands.find(raw, callStart, callEnd);
+
+            if(command == null)
                 return;
 
             Guild guild = event.getGuild();
@@ -342,27 +1259,56 @@ public class Bot {
             if(member == null)
                 return;
 
-            String raw = message.getContentRaw();
-            while(raw.contains("  ")) raw = raw.replace("  ", " ");
+            InvocationMetrics metrics = bot.metrics.get(Metrics.Kind.COMMAND, command.getDisplayName());
 
-            String[] split = raw.split(" ");
-            String call = split[0].substring(bot.prefix.length());
-            String[] args = new String[split.length - 1];
-            System.arraycopy(split, 1, args, 0, args.length);
+            if(!bot.hasPermissions(member, channel, command.getPermissionMask())){
+                metrics.refuse();
+                AsyncLog.info("@{} ({}) tried to call command '{}' on ({}#{}) -> refused : missing permission(s)", user.getName(), member.getNickname(), command.getDisplayName(), guild.getName(), channel.getName());
+                message.replyEmbeds(bot.embed(DefaultEmbed.NO_PERMISSION)).queue();
+                return;
+            }
 
-            Command command = bot.commands.getOrDefault(call, null);
+            long wait = bot.acquireUse(guild.getIdLong(), user.getIdLong(), command.getDisplayName().hashCode(), command.getRateLimit());
 
-            if(command == null)
+            if(wait > 0){
+                metrics.refuse();
+                AsyncLog.info("@{} ({}) tried to call command '{}' on ({}#{}) -> refused : rate limited", user.getName(), member.getNickname(), command.getDisplayName(), guild.getName(), channel.getName());
+                message.replyEmbeds(bot.rateLimited(wait)).queue();
                 return;
+            }
 
-            if(!member.hasPermission(command.getPermissions())){
-                Log.info("@"+user.getName()+" (" + member.getNickname()+") tried to call command '"+command.getDisplayName()+"' (" + member.getNickname()+") on ("+guild.getName()+"#"+channel.getName()+") -> refused : missing permission(s)");
-                message.replyEmbeds(embeds.get(DefaultEmbed.NO_PERMISSION)).queue();
-                return;
+            String[] args = CommandParser.arguments(raw, callEnd);
+            AsyncLog.info("'{}' called by @{} ({}) on ({}#{})", command.getDisplayName(), user.getName(), member.getNickname(), guild.getName(), channel.getName());
+
+            // Cached replies are found in microseconds, so they are sent without going through the execution queues
+            if(command.getResponseCache() != null){
+                long start = System.nanoTime();
+                MessageCreateData cached = command.getCachedResponse(guild, user, args);
+
+                if(cached != null){
+                    metrics.hit();
+                    message.reply(cached).queue();
+                    metrics.record(System.nanoTime() - start, false);
+                    return;
+                }
+
+                metrics.miss();
             }
 
-            Log.info("'"+command.getDisplayName()+"' called by @"+user.getName()+" (" + member.getNickname()+") on ("+guild.getName()+"#"+channel.getName()+")");
-            command.execute(bot, guild, channel, message, user, member, args);
+            Priority priority = bot.commandPriorities.getOrDefault(command.getDisplayName().toLowerCase(), Priority.NORMAL);
+            boolean accepted = bot.executor.offer(guild.getIdLong(), priority, () -> invokeAsync(metrics, command.getTimeout(),
+                    () -> command.executeAsync(bot, guild, channel, message, user, member, args),
+                    () -> channel.sendTyping().queue(),
+                    embed -> message.replyEmbeds(embed).queue(),
+                    null));
+
+            if(!accepted){
+                // The user is not charged for a command that is not executed
+                bot.releaseUse(guild.getIdLong(), user.getIdLong(), command.getDisplayName().hashCode(), command.getRateLimit());
+                metrics.shed();
+                AsyncLog.warn("'{}' called by @{} on ({}#{}) -> shed : execution queues are full", command.getDisplayName(), user.getName(), guild.getName(), channel.getName());
+                message.replyEmbeds(bot.embed(DefaultEmbed.BUSY)).queue();
+            }
         }
 
         /**
@@ -383,24 +1329,108 @@ public class Bot {
             if(member == null)
                 return;
 
-            SlashCommand command = bot.slashCommands.getOrDefault(event.getName(), null);
+            SlashCommand command = bot.slashCommands.get(event.getName());
 
             if(command == null){
-                Log.warn("No executor for slash command '" + event.getName() + "' : Unable to execute it");
+                AsyncLog.warn("No executor for slash command '{}' : Unable to execute it", event.getName());
                 event.deferReply().queue();
-                event.getHook().setEphemeral(true).sendMessageEmbeds(embeds.get(DefaultEmbed.SLASH_COMMAND_MISSING_EXECUTOR)).queue();
+                event.getHook().setEphemeral(true).sendMessageEmbeds(bot.embed(DefaultEmbed.SLASH_COMMAND_MISSING_EXECUTOR)).queue();
                 return;
             }
 
-            if(!member.hasPermission(command.getPermissions())){
-                Log.info("@"+author.getName()+" (" + member.getNickname()+") tried to call slash command '"+command.getDisplayName()+"' (" + member.getNickname()+") on ("+guild.getName()+"#"+channel.getName()+") -> refused : missing permission(s)");
+            InvocationMetrics metrics = bot.metrics.get(Metrics.Kind.SLASH_COMMAND, command.getDisplayName());
+
+            if(!bot.hasPermissions(member, channel, command.getPermissionMask())){
+                metrics.refuse();
+                AsyncLog.info("@{} ({}) tried to call slash command '{}' on ({}#{}) -> refused : missing permission(s)", author.getName(), member.getNickname(), command.getDisplayName(), guild.getName(), channel.getName());
                 event.deferReply().queue();
-                event.getHook().setEphemeral(true).sendMessageEmbeds(embeds.get(DefaultEmbed.NO_PERMISSION)).queue();
+                event.getHook().setEphemeral(true).sendMessageEmbeds(bot.embed(DefaultEmbed.NO_PERMISSION)).queue();
                 return;
             }
 
-            Log.info(author.getName()+" ("+member.getNickname()+") use slash command '"+command.getDisplayName()+"' in ("+guild.getName()+"/"+channel.getName()+")");
-            command.execute(bot, guild, channel, author, member, event);
+            long wait = bot.acquireUse(guild.getIdLong(), author.getIdLong(), ~(long) command.getDisplayName().hashCode(), command.getRateLimit());
+
+            if(wait > 0){
+                metrics.refuse();
+                AsyncLog.info("@{} ({}) tried to call slash command '{}' on ({}#{}) -> refused : rate limited", author.getName(), member.getNickname(), command.getDisplayName(), guild.getName(), channel.getName());
+                event.replyEmbeds(bot.rateLimited(wait)).setEphemeral(true).queue();
+                return;
+            }
+
+            AsyncLog.info("{} ({}) use slash command '{}' in ({}/{})", author.getName(), member.getNickname(), command.getDisplayName(), guild.getName(), channel.getName());
+
+            if(command.getResponseCache() != null){
+                long start = System.nanoTime();
+                MessageCreateData cached = command.getCachedResponse(guild, author, event);
+
+                if(cached != null){
+                    metrics.hit();
+                    event.reply(cached).queue();
+                    metrics.record(System.nanoTime() - start, false);
+                    return;
+                }
+
+                metrics.miss();
+            }
+
+            // Slash commands are never shed by default, the interaction of the user must be answered
+            Priority priority = bot.commandPriorities.getOrDefault(command.getDisplayName().toLowerCase(), Priority.CRITICAL);
+            // Only the executors replying through claimReply(...) are deferred, the others acknowledge the interaction themselves
+            boolean deferred = command.isDeferred();
+            long interaction = event.getIdLong();
+            boolean accepted = bot.executor.offer(guild.getIdLong(), priority, () -> {
+                if(deferred)
+                    bot.replyClaims.put(interaction, new AtomicBoolean());
+
+                invokeAsync(metrics, command.getTimeout(),
+                        () -> command.executeAsync(bot, guild, channel, author, member, event),
+                        !deferred ? null : () -> {
+                            if(bot.claimReply(event))
+                                event.deferReply().queue();
+                        },
+                        embed -> {
+                            if(bot.claimReply(event))
+                                event.replyEmbeds(embed).setEphemeral(true).queue();
+                            else
+                                event.getHook().sendMessageEmbeds(embed).setEphemeral(true).queue();
+                        },
+                        () -> bot.replyClaims.remove(interaction));
+            });
+
+            if(!accepted){
+                bot.releaseUse(guild.getIdLong(), author.getIdLong(), ~(long) command.getDisplayName().hashCode(), command.getRateLimit());
+                metrics.shed();
+                AsyncLog.warn("{} ({}) use slash command '{}' in ({}/{}) -> shed : execution queues are full", author.getName(), member.getNickname(), command.getDisplayName(), guild.getName(), channel.getName());
+                event.replyEmbeds(bot.embed(DefaultEmbed.BUSY)).setEphemeral(true).queue();
+            }
+        }
+
+        /**
+         * To complete the parameters of slash commands while they are typed
+         * @param event Event that happen when a user types in a parameter with auto complete enabled
+         */
+        @Override
+        public void onCommandAutoCompleteInteraction(@NotNull CommandAutoCompleteInteractionEvent event) {
+            SlashCommand command = bot.slashCommands.get(event.getName());
+            Parameter parameter = command == null ? null : command.getParameter(event.getFocusedOption().getName());
+
+            if(parameter == null || !parameter.isAutoComplete()){
+                event.replyChoices(Collections.emptyList()).queue();
+                return;
+            }
+
+            InvocationMetrics metrics = bot.metrics.get(Metrics.Kind.AUTOCOMPLETE, command.getDisplayName() + "." + parameter.getName());
+            Runnable completion = () -> invoke(metrics, () -> {
+                List<String> candidates = parameter.getCompleter().complete(bot, event.getGuild(), event.getUser(), event.getFocusedOption().getValue(), event);
+                event.replyChoices(AutoCompleter.toChoices(candidates, parameter.getType())).queue();
+            });
+
+            // Indexed candidates are found in microseconds, only providers and candidates still being indexed may be slow
+            // enough to leave the gateway thread
+            if(!parameter.hasCompleter() || parameter.getCompleter().hasProvider())
+                bot.executor.execute(guildIdOf(event), completion);
+            else
+                completion.run();
         }
     }
 }
\ No newline at end of file
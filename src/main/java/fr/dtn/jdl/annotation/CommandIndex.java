@@ -0,0 +1,22 @@
+package fr.dtn.jdl.annotation;
+
+import fr.dtn.jdl.command.Command;
+
+import java.util.List;
+
+/**
+ * Represents the commands declared with annotations in a project, implemented by the class generated by the CommandProcessor
+ */
+public interface CommandIndex {
+    /**
+     * To get the raw text commands, with their executors
+     * @return The raw text commands
+     */
+    List<Command> commands();
+
+    /**
+     * To get the slash commands, with their executors
+     * @return The slash commands
+     */
+    List<fr.dtn.jdl.slashcommand.SlashCommand> slashCommands();
+}
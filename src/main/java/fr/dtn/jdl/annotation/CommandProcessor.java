@@ -0,0 +1,360 @@
+package fr.dtn.jdl.annotation;
+
+import net.dv8tion.jda.api.Permission;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Annotation processor that validates the executors annotated with RawCommand or SlashCommand, and generates a
+ * CommandIndex creating them with direct constructor calls, so the bot can load them without any reflection.
+ * The generated class is 'fr.dtn.jdl.generated.GeneratedCommandIndex', or the one given by the 'jdl.index' option
+ */
+@SupportedAnnotationTypes({"fr.dtn.jdl.annotation.RawCommand", "fr.dtn.jdl.annotation.SlashCommand"})
+@SupportedOptions(CommandProcessor.INDEX_OPTION)
+public class CommandProcessor extends AbstractProcessor {
+    /**
+     * The option giving the name of the generated class
+     */
+    static final String INDEX_OPTION = "jdl.index";
+    /**
+     * The default name of the generated class
+     */
+    static final String DEFAULT_INDEX = "fr.dtn.jdl.generated.GeneratedCommandIndex";
+
+    /**
+     * The source code creating each raw text command, by display name
+     */
+    private final Map<String, String> commands = new TreeMap<>();
+    /**
+     * The source code creating each slash command, by name
+     */
+    private final Map<String, String> slashCommands = new TreeMap<>();
+    /**
+     * The calls already used, to detect calls shared by two commands
+     */
+    private final Map<String, String> calls = new HashMap<>();
+    /**
+     * If the index has already been generated
+     */
+    private boolean generated;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion(){ return SourceVersion.latestSupported(); }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round){
+        if(annotations.isEmpty())
+            return false;
+
+        if(generated){
+            for(TypeElement annotation : annotations)
+                for(Element element : round.getElementsAnnotatedWith(annotation))
+                    error(element, "Executors generated by other annotation processors cannot be indexed");
+            return true;
+        }
+
+        for(Element element : round.getElementsAnnotatedWith(RawCommand.class))
+            processRawCommand((TypeElement) element, element.getAnnotation(RawCommand.class));
+
+        for(Element element : round.getElementsAnnotatedWith(SlashCommand.class))
+            processSlashCommand((TypeElement) element, element.getAnnotation(SlashCommand.class));
+
+        generate();
+        generated = true;
+        return true;
+    }
+
+    // Utility method
+    private void processRawCommand(TypeElement executor, RawCommand command){
+        if(!checkExecutor(executor, "fr.dtn.jdl.command.CommandExecutor"))
+            return;
+
+        if(command.name().isEmpty() || command.name().contains(" ")){
+            error(executor, "Command name '" + command.name() + "' cannot be empty nor contain spaces");
+            return;
+        }
+
+        if(commands.containsKey(command.name())){
+            error(executor, "Command '" + command.name() + "' is declared twice");
+            return;
+        }
+
+        if(command.calls().length == 0)
+            error(executor, "Command '" + command.name() + "' does not have any call");
+
+        for(String call : command.calls()){
+            String previous = calls.put(call, command.name());
+
+            if(call.isEmpty() || call.contains(" "))
+                error(executor, "Call '" + call + "' of command '" + command.name() + "' cannot be empty nor contain spaces");
+            else if(previous != null)
+                error(executor, "Call '" + call + "' is used by both commands '" + previous + "' and '" + command.name() + "'");
+        }
+
+        commands.put(command.name(), "new fr.dtn.jdl.command.Command(" + literal(command.name()) + ", " + literal(command.description())
+                + ", " + stringArray(command.calls()) + ", " + permissions(command.permissions())
+                + ", " + rateLimit(executor, command.rate(), command.cooldown())
+                + ", " + timeout(executor, command.timeout())
+                + ", " + cachePolicy(executor, command.cacheTtl(), command.cacheEntries(), command.cacheScope(), "fr.dtn.jdl.command.ResponseCommandExecutor")
+                + ", new " + executor.getQualifiedName() + "())");
+    }
+
+    // Utility method
+    private void processSlashCommand(TypeElement executor, SlashCommand command){
+        if(!checkExecutor(executor, "fr.dtn.jdl.slashcommand.SlashCommandExecutor"))
+            return;
+
+        if(!command.name().matches("[-_\\p{L}\\p{N}]{1,32}") || !command.name().equals(command.name().toLowerCase())){
+            error(executor, "Slash command name '" + command.name() + "' must be lowercase, without spaces and have 1 to 32 characters");
+            return;
+        }
+
+        if(slashCommands.containsKey(command.name())){
+            error(executor, "Slash command '" + command.name() + "' is declared twice");
+            return;
+        }
+
+        if(command.description().isEmpty() || command.description().length() > 100)
+            error(executor, "Description of slash command '" + command.name() + "' must have 1 to 100 characters");
+
+        StringBuilder parameters = new StringBuilder("java.util.Arrays.asList(");
+        Set<String> names = new HashSet<>();
+        boolean optional = false;
+
+        for(Option option : command.parameters()){
+            if(!names.add(option.name()))
+                error(executor, "Parameter '" + option.name() + "' of slash command '" + command.name() + "' is declared twice");
+            if(option.required() && optional)
+                error(executor, "Required parameter '" + option.name() + "' of slash command '" + command.name() + "' must be declared before optional ones");
+
+            optional |= !option.required();
+
+            TypeElement provider = provider(option);
+            boolean completed = option.candidates().length > 0 || !option.candidatesFile().isEmpty() || provider != null;
+
+            if(provider != null)
+                checkExecutor(provider, "fr.dtn.jdl.autocomplete.AutoCompleteProvider");
+
+            if(completed && !option.autoComplete())
+                error(executor, "Parameter '" + option.name() + "' of slash command '" + command.name() + "' has auto complete candidates but auto complete is not enabled");
+            if(option.autoComplete() && !option.type().canSupportChoices())
+                error(executor, "Parameter '" + option.name() + "' of slash command '" + command.name() + "' cannot be auto completed : Type " + option.type() + " does not support it");
+
+            if(names.size() > 1)
+                parameters.append(", ");
+
+            parameters.append("new fr.dtn.jdl.slashcommand.Parameter(")
+                    .append("net.dv8tion.jda.api.interactions.commands.OptionType.").append(option.type().name())
+                    .append(", ").append(literal(option.name()))
+                    .append(", ").append(literal(option.description()))
+                    .append(", ").append(option.required())
+                    .append(", ").append(option.autoComplete())
+                    .append(", ").append(stringArray(option.choices()))
+                    .append(", ").append(stringArray(option.candidates()))
+                    .append(", ").append(literal(option.candidatesFile()))
+                    .append(", ").append(option.fuzzy())
+                    .append(", ").append(literal(provider == null ? "" : processingEnv.getElementUtils().getBinaryName(provider).toString()))
+                    .append(", ").append(provider == null ? "null" : provider.getQualifiedName() + "::new")
+                    .append(")");
+        }
+
+        parameters.append(")");
+
+        slashCommands.put(command.name(), "new fr.dtn.jdl.slashcommand.SlashCommand(" + literal(command.name()) + ", " + literal(command.description())
+                + ", " + permissions(command.permissions()) + ", " + parameters
+                + ", " + rateLimit(executor, command.rate(), command.cooldown())
+                + ", " + timeout(executor, command.timeout())
+                + ", " + cachePolicy(executor, command.cacheTtl(), command.cacheEntries(), command.cacheScope(), "fr.dtn.jdl.slashcommand.ResponseSlashCommandExecutor")
+                + ", new " + executor.getQualifiedName() + "())");
+    }
+
+    /**
+     * To check that an executor or provider class can be instantiated by the generated index
+     * @param executor The executor or provider class
+     * @param type The name of the interface the class must implement
+     * @return If the class is valid
+     */
+    private boolean checkExecutor(TypeElement executor, String type){
+        TypeMirror expected = processingEnv.getElementUtils().getTypeElement(type).asType();
+
+        if(!processingEnv.getTypeUtils().isAssignable(executor.asType(), expected)){
+            error(executor, "Class '" + executor.getQualifiedName() + "' must implement " + type);
+            return false;
+        }
+
+        Set<Modifier> modifiers = executor.getModifiers();
+        if(executor.getKind() != ElementKind.CLASS || modifiers.contains(Modifier.ABSTRACT) || !modifiers.contains(Modifier.PUBLIC)){
+            error(executor, "Class '" + executor.getQualifiedName() + "' must be a public and non abstract class");
+            return false;
+        }
+
+        if(executor.getNestingKind() == NestingKind.MEMBER && !modifiers.contains(Modifier.STATIC)){
+            error(executor, "Class '" + executor.getQualifiedName() + "' must be static to be instantiated");
+            return false;
+        }
+
+        for(ExecutableElement constructor : ElementFilter.constructorsIn(executor.getEnclosedElements()))
+            if(constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC))
+                return true;
+
+        error(executor, "Class '" + executor.getQualifiedName() + "' does not have a public argument-less constructor");
+        return false;
+    }
+
+    // Utility method
+    private void generate(){
+        String index = processingEnv.getOptions().getOrDefault(INDEX_OPTION, DEFAULT_INDEX);
+        int dot = index.lastIndexOf('.');
+        String packageName = dot < 0 ? null : index.substring(0, dot);
+        String simpleName = index.substring(dot + 1);
+
+        try{
+            JavaFileObject source = processingEnv.getFiler().createSourceFile(index);
+
+            try(Writer writer = source.openWriter()){
+                if(packageName != null)
+                    writer.write("package " + packageName + ";\n\n");
+
+                writer.write("/**\n * Generated by fr.dtn.jdl.annotation.CommandProcessor, do not edit\n */\n");
+                writer.write("public final class " + simpleName + " implements fr.dtn.jdl.annotation.CommandIndex {\n");
+                writer.write("    @Override\n    public java.util.List<fr.dtn.jdl.command.Command> commands(){\n");
+                writer.write("        return java.util.Arrays.asList(\n" + join(commands.values()) + "\n        );\n    }\n\n");
+                writer.write("    @Override\n    public java.util.List<fr.dtn.jdl.slashcommand.SlashCommand> slashCommands(){\n");
+                writer.write("        return java.util.Arrays.asList(\n" + join(slashCommands.values()) + "\n        );\n    }\n}\n");
+            }
+
+            FileObject service = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", "META-INF/services/fr.dtn.jdl.annotation.CommandIndex");
+
+            try(Writer writer = service.openWriter()){
+                writer.write(index + "\n");
+            }
+        }catch(IOException e){
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to generate command index '" + index + "' : " + e.getMessage());
+        }
+    }
+
+    // Utility method
+    private void error(Element element, String message){
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    // Utility method
+    private static String join(Collection<String> expressions){
+        StringJoiner joiner = new StringJoiner(",\n");
+        expressions.forEach(expression -> joiner.add("                " + expression));
+        return joiner.toString();
+    }
+
+    // Utility method, checks the rate at compile time
+    private String rateLimit(TypeElement executor, String rate, double cooldown){
+        if(rate.isEmpty())
+            rate = cooldown > 0 ? "1/" + cooldown : null;
+
+        if(rate == null)
+            return "null";
+
+        try{
+            fr.dtn.jdl.ratelimit.RateLimit.parse(rate);
+        }catch(IllegalArgumentException e){
+            error(executor, "Invalid rate limit '" + rate + "' : " + e.getMessage());
+        }
+
+        return "fr.dtn.jdl.ratelimit.RateLimit.parse(" + literal(rate) + ")";
+    }
+
+    // Utility method, class values of annotations are only available as type mirrors at compile time
+    private TypeElement provider(Option option){
+        TypeElement element;
+
+        try{
+            element = processingEnv.getElementUtils().getTypeElement(option.provider().getCanonicalName());
+        }catch(MirroredTypeException e){
+            element = (TypeElement) processingEnv.getTypeUtils().asElement(e.getTypeMirror());
+        }
+
+        return element == null || element.getQualifiedName().contentEquals("fr.dtn.jdl.autocomplete.AutoCompleteProvider") ? null : element;
+    }
+
+    // Utility method
+    private String timeout(TypeElement executor, double timeout){
+        if(timeout < 0)
+            error(executor, "Timeout " + timeout + " cannot be negative");
+
+        return (long) (timeout * 1000) + "L";
+    }
+
+    // Utility method, only the replies built by response executors can be cached
+    private String cachePolicy(TypeElement executor, double ttl, int entries, fr.dtn.jdl.cache.CachePolicy.Scope scope, String type){
+        if(ttl <= 0)
+            return "null";
+
+        TypeMirror expected = processingEnv.getElementUtils().getTypeElement(type).asType();
+        if(!processingEnv.getTypeUtils().isAssignable(executor.asType(), expected))
+            error(executor, "Class '" + executor.getQualifiedName() + "' must implement " + type + " to cache its replies");
+        if(entries < 1)
+            error(executor, "At least 1 reply must be cached, got " + entries);
+
+        return "new fr.dtn.jdl.cache.CachePolicy(" + (long) (ttl * 1_000_000_000L) + "L, " + entries + ", fr.dtn.jdl.cache.CachePolicy.Scope." + scope.name() + ")";
+    }
+
+    // Utility method
+    private static String permissions(Permission[] permissions){
+        StringJoiner joiner = new StringJoiner(", ", "new net.dv8tion.jda.api.Permission[]{", "}");
+
+        for(Permission permission : permissions)
+            joiner.add("net.dv8tion.jda.api.Permission." + permission.name());
+
+        return joiner.toString();
+    }
+
+    // Utility method
+    private static String stringArray(String[] strings){
+        StringJoiner joiner = new StringJoiner(", ", "new String[]{", "}");
+
+        for(String string : strings)
+            joiner.add(literal(string));
+
+        return joiner.toString();
+    }
+
+    /**
+     * To write a string as a Java string literal
+     * @param string The string
+     * @return The literal
+     */
+    static String literal(String string){
+        StringBuilder literal = new StringBuilder("\"");
+
+        for(char c : string.toCharArray()){
+            switch(c){
+                case '"': literal.append("\\\""); break;
+                case '\\': literal.append("\\\\"); break;
+                case '\n': literal.append("\\n"); break;
+                case '\r': literal.append("\\r"); break;
+                case '\t': literal.append("\\t"); break;
+                default:
+                    if(c < 0x20)
+                        literal.append(String.format("\\u%04x", (int) c));
+                    else
+                        literal.append(c);
+            }
+        }
+
+        return literal.append('"').toString();
+    }
+}
@@ -0,0 +1,75 @@
+package fr.dtn.jdl.annotation;
+
+import fr.dtn.jdl.autocomplete.AutoCompleteProvider;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares a parameter of a slash command declared with the SlashCommand annotation
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target({})
+public @interface Option {
+    /**
+     * The type of the parameter
+     * @return The type
+     */
+    OptionType type() default OptionType.STRING;
+
+    /**
+     * The name of the parameter
+     * @return The name
+     */
+    String name();
+
+    /**
+     * The description of the parameter
+     * @return The description
+     */
+    String description();
+
+    /**
+     * If the parameter is required
+     * @return If the parameter is required
+     */
+    boolean required() default false;
+
+    /**
+     * If auto complete is enabled on the parameter
+     * @return If auto complete is enabled
+     */
+    boolean autoComplete() default false;
+
+    /**
+     * The different choices that can be entered on the parameter
+     * @return The choices
+     */
+    String[] choices() default {};
+
+    /**
+     * The auto complete candidates, on top of the choices
+     * @return The candidates
+     */
+    String[] candidates() default {};
+
+    /**
+     * The path of a file with one auto complete candidate per line
+     * @return The path of the file, or an empty string
+     */
+    String candidatesFile() default "";
+
+    /**
+     * If auto complete also suggests candidates containing the letters typed in order
+     * @return If auto complete is fuzzy
+     */
+    boolean fuzzy() default false;
+
+    /**
+     * The provider computing the auto complete candidates for each input, instead of static candidates
+     * @return The class of the provider, or AutoCompleteProvider itself if the candidates are static
+     */
+    Class<? extends AutoCompleteProvider> provider() default AutoCompleteProvider.class;
+}
@@ -0,0 +1,78 @@
+package fr.dtn.jdl.annotation;
+
+import fr.dtn.jdl.cache.CachePolicy;
+import net.dv8tion.jda.api.Permission;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares a slash command on its executor class, instead of a slash command file. The executor class must implement
+ * SlashCommandExecutor and have a public argument-less constructor, which is checked at compile time
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface SlashCommand {
+    /**
+     * The name of the slash command, lowercase and without spaces
+     * @return The name
+     */
+    String name();
+
+    /**
+     * The description of the slash command
+     * @return The description
+     */
+    String description();
+
+    /**
+     * The permissions required to run the slash command
+     * @return The permissions
+     */
+    Permission[] permissions() default {};
+
+    /**
+     * The minimum time between two uses of the command by a user, in seconds, ignored if a rate is set
+     * @return The cooldown
+     */
+    double cooldown() default 0;
+
+    /**
+     * The maximum uses of the command by a user, written as 'uses/seconds' such as '3/10'
+     * @return The rate
+     */
+    String rate() default "";
+
+    /**
+     * The time the command can run before it is timed out, in seconds, 0 to use the 'execution.timeout' of the bot
+     * @return The timeout
+     */
+    double timeout() default 0;
+
+    /**
+     * The time the replies of the command are cached, in seconds, 0 to not cache them. The executor class must then
+     * implement ResponseSlashCommandExecutor
+     * @return The lifetime of the cached replies
+     */
+    double cacheTtl() default 0;
+
+    /**
+     * The maximum amount of cached replies of the command
+     * @return The maximum amount of replies
+     */
+    int cacheEntries() default 1024;
+
+    /**
+     * Who the cached replies of the command are shared with
+     * @return The scope of the cached replies
+     */
+    CachePolicy.Scope cacheScope() default CachePolicy.Scope.GLOBAL;
+
+    /**
+     * The parameters of the slash command
+     * @return The parameters
+     */
+    Option[] parameters() default {};
+}
@@ -0,0 +1,25 @@
+package fr.dtn.jdl.autocomplete;
+
+import fr.dtn.jdl.Bot;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
+
+import java.util.List;
+
+/**
+ * Interface that represents a source of candidates computed for each input, such as the items of a user, for the
+ * parameters whose candidates cannot be listed in advance
+ */
+public interface AutoCompleteProvider {
+    /**
+     * To find the candidates of a parameter matching what the user is typing. Discord drops the answer after 3 seconds
+     * @param bot The current bot
+     * @param guild The guild where the slash command is typed, or null outside of guilds
+     * @param author The user typing the slash command
+     * @param input What the user typed in the parameter so far
+     * @param event The event, to read the other parameters
+     * @return The candidates, only the 25 first ones are shown
+     */
+    List<String> complete(Bot bot, Guild guild, User author, String input, CommandAutoCompleteInteractionEvent event);
+}
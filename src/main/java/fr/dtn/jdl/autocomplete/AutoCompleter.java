@@ -0,0 +1,137 @@
+package fr.dtn.jdl.autocomplete;
+
+import fr.dtn.jdl.Bot;
+import fr.dtn.jdl.slashcommand.Parameter;
+import fr.dtn.jll.Log;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.Command;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Class that completes a parameter of a slash command, either from its static candidates or from its provider
+ */
+public class AutoCompleter {
+    /**
+     * The index of the static candidates, or null if the parameter has a provider
+     */
+    private final CandidateIndex index;
+    /**
+     * The provider of the candidates, or null if the parameter has static candidates
+     */
+    private final AutoCompleteProvider provider;
+
+    /**
+     * Constructor
+     * @param index The index of the static candidates, or null if the parameter has a provider
+     * @param provider The provider of the candidates, or null if the parameter has static candidates
+     */
+    public AutoCompleter(CandidateIndex index, AutoCompleteProvider provider){
+        this.index = index;
+        this.provider = provider;
+    }
+
+    /**
+     * To create the completer of a parameter, reading its candidates file or instantiating its provider
+     * @param parameter The parameter
+     * @return The completer, without any candidate if they cannot be loaded
+     */
+    public static AutoCompleter of(Parameter parameter){
+        // Annotated commands create their provider directly, the class name is only loaded for slash command files
+        if(parameter.getProviderFactory() != null){
+            try{
+                return new AutoCompleter(null, parameter.getProviderFactory().get());
+            }catch(RuntimeException e){
+                Log.error("Impossible to create auto complete provider '" + parameter.getProvider() + "' of parameter '" + parameter.getName() + "' : " + e);
+                return new AutoCompleter(new CandidateIndex(Collections.emptyList(), false), null);
+            }
+        }
+
+        if(!parameter.getProvider().isEmpty()){
+            try{
+                return new AutoCompleter(null, (AutoCompleteProvider) Class.forName(parameter.getProvider()).getConstructor().newInstance());
+            }catch(ReflectiveOperationException | ClassCastException e){
+                Log.error("Impossible to load auto complete provider '" + parameter.getProvider() + "' of parameter '" + parameter.getName() + "' : " + e);
+                return new AutoCompleter(new CandidateIndex(Collections.emptyList(), false), null);
+            }
+        }
+
+        Set<String> candidates = new LinkedHashSet<>(Arrays.asList(parameter.getChoices()));
+        candidates.addAll(Arrays.asList(parameter.getCandidates()));
+
+        if(!parameter.getCandidatesFile().isEmpty()){
+            File file = new File(parameter.getCandidatesFile());
+
+            try{
+                candidates.addAll(CandidateIndex.readCandidates(file));
+            }catch(IOException e){
+                Log.error("Impossible to read auto complete candidates of parameter '" + parameter.getName() + "' from '" + file.getPath() + "' : " + e.getMessage());
+            }
+        }
+
+        CandidateIndex index = new CandidateIndex(candidates, parameter.isFuzzy());
+        Log.info("Indexed " + index.size() + " auto complete candidate(s) of parameter '" + parameter.getName() + "'");
+        return new AutoCompleter(index, null);
+    }
+
+    /**
+     * To find the candidates matching what the user is typing
+     * @param bot The current bot
+     * @param guild The guild where the slash command is typed, or null outside of guilds
+     * @param author The user typing the slash command
+     * @param input What the user typed in the parameter so far
+     * @param event The event
+     * @return At most 25 candidates
+     */
+    public List<String> complete(Bot bot, Guild guild, User author, String input, CommandAutoCompleteInteractionEvent event){
+        if(provider == null)
+            return index.complete(input);
+
+        List<String> candidates = provider.complete(bot, guild, author, input, event);
+        return candidates.size() > CandidateIndex.MAX_CHOICES ? candidates.subList(0, CandidateIndex.MAX_CHOICES) : candidates;
+    }
+
+    /**
+     * To get if the candidates are computed by a provider, which may be slow, instead of found in an index
+     * @return If the parameter has a provider
+     */
+    public boolean hasProvider(){ return provider != null; }
+
+    /**
+     * To convert candidates to the choices of an option type, candidates that are not valid numbers for number options
+     * are ignored
+     * @param candidates The candidates
+     * @param type The type of the option
+     * @return The choices
+     */
+    public static List<Command.Choice> toChoices(List<String> candidates, OptionType type){
+        List<Command.Choice> choices = new ArrayList<>(candidates.size());
+
+        for(String candidate : candidates){
+            if(candidate.isEmpty() || candidate.length() > CandidateIndex.MAX_LENGTH)
+                continue;
+
+            try{
+                switch(type){
+                    case INTEGER: choices.add(new Command.Choice(candidate, Long.parseLong(candidate))); break;
+                    case NUMBER: choices.add(new Command.Choice(candidate, Double.parseDouble(candidate))); break;
+                    default: choices.add(new Command.Choice(candidate, candidate));
+                }
+            }catch(NumberFormatException ignored){
+                // Not a valid choice for this option type
+            }
+        }
+
+        return choices;
+    }
+}
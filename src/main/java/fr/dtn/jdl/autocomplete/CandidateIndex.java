@@ -0,0 +1,240 @@
+package fr.dtn.jdl.autocomplete;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+/**
+ * Class that finds the candidates of a parameter starting with an input, from a sorted array of their lowercase keys :
+ * the matching candidates are contiguous and found with a binary search. In fuzzy mode, when fewer candidates start with
+ * the input, candidates containing its letters in order are added, the best matching first. The results of the last
+ * inputs are cached, since each typed letter asks again with a longer input
+ */
+public class CandidateIndex {
+    /**
+     * The maximum amount of choices Discord shows, and the maximum length of a choice
+     */
+    public static final int MAX_CHOICES = 25, MAX_LENGTH = 100;
+    /**
+     * The maximum amount of inputs whose results are cached
+     */
+    private static final int CACHE_CAPACITY = 1024;
+    /**
+     * The score of a candidate that does not match the input
+     */
+    private static final int NO_MATCH = Integer.MIN_VALUE;
+
+    /**
+     * The lowercase keys of the candidates, sorted
+     */
+    private final String[] keys;
+    /**
+     * The candidates, in the order of their keys
+     */
+    private final String[] values;
+    /**
+     * The characters of each key as a bit set, to skip the keys missing a character of the input without reading them
+     */
+    private final long[] characters;
+    /**
+     * If candidates containing the letters of the input in order are also found
+     */
+    private final boolean fuzzy;
+    /**
+     * The results of the last inputs, the least recently used is removed first
+     */
+    private final Map<String, List<String>> cache;
+
+    /**
+     * Constructor
+     * @param candidates The candidates, duplicates and candidates longer than 100 characters are ignored
+     * @param fuzzy If candidates containing the letters of the input in order are also found
+     */
+    public CandidateIndex(Collection<String> candidates, boolean fuzzy){
+        TreeMap<String, String> sorted = new TreeMap<>();
+
+        for(String candidate : candidates)
+            if(!candidate.isEmpty() && candidate.length() <= MAX_LENGTH)
+                sorted.putIfAbsent(key(candidate), candidate);
+
+        this.keys = sorted.keySet().toArray(new String[0]);
+        this.values = sorted.values().toArray(new String[0]);
+        this.characters = new long[keys.length];
+
+        for(int i = 0; i < keys.length; i++)
+            characters[i] = characters(keys[i]);
+        this.fuzzy = fuzzy;
+        this.cache = new LinkedHashMap<String, List<String>>(64, 0.75f, true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<String>> eldest){ return size() > CACHE_CAPACITY; }
+        };
+    }
+
+    /**
+     * To read the candidates of a file with one candidate per line, blank lines are ignored
+     * @param file The file, in UTF-8
+     * @return The candidates
+     * @throws IOException If the file cannot be read
+     */
+    public static List<String> readCandidates(File file) throws IOException {
+        List<String> candidates = new ArrayList<>();
+
+        for(String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8))
+            if(!line.isBlank())
+                candidates.add(line.strip());
+
+        return candidates;
+    }
+
+    /**
+     * To find the candidates matching an input, ignoring case
+     * @param input What the user typed
+     * @return At most 25 candidates, those starting with the input first
+     */
+    public List<String> complete(String input){
+        String key = key(input);
+
+        synchronized(cache){
+            List<String> cached = cache.get(key);
+
+            if(cached != null)
+                return cached;
+        }
+
+        List<String> results = Collections.unmodifiableList(search(key));
+
+        synchronized(cache){
+            cache.put(key, results);
+        }
+
+        return results;
+    }
+
+    /**
+     * To get the amount of candidates
+     * @return The amount of candidates
+     */
+    public int size(){ return keys.length; }
+
+    // Utility method
+    private List<String> search(String key){
+        List<String> results = new ArrayList<>(MAX_CHOICES);
+        int first = lowerBound(key);
+
+        for(int i = first; i < keys.length && results.size() < MAX_CHOICES && keys[i].startsWith(key); i++)
+            results.add(values[i]);
+
+        if(fuzzy && results.size() < MAX_CHOICES && !key.isEmpty())
+            fuzzySearch(key, results);
+
+        return results;
+    }
+
+    // Utility method, keeps the best scores in a small sorted array instead of sorting all the matches
+    private void fuzzySearch(String key, List<String> results){
+        int limit = MAX_CHOICES - results.size();
+        int[] best = new int[limit];
+        int[] scores = new int[limit];
+        int found = 0;
+        long required = characters(key);
+
+        for(int i = 0; i < keys.length; i++){
+            if((characters[i] & required) != required)
+                continue;
+
+            String candidate = keys[i];
+
+            if(candidate.startsWith(key))
+                continue;
+
+            int score = score(key, candidate);
+
+            if(score == NO_MATCH || (found == limit && score <= scores[found - 1]))
+                continue;
+
+            int position = found < limit ? found++ : found - 1;
+
+            while(position > 0 && scores[position - 1] < score){
+                best[position] = best[position - 1];
+                scores[position] = scores[position - 1];
+                position--;
+            }
+
+            best[position] = i;
+            scores[position] = score;
+        }
+
+        for(int i = 0; i < found; i++)
+            results.add(values[best[i]]);
+    }
+
+    /**
+     * To score how well a candidate matches an input, letters following each other and letters starting words score more
+     * @param input The lowercase input
+     * @param candidate The lowercase candidate
+     * @return The score, or NO_MATCH if the candidate does not contain the letters of the input in order
+     */
+    static int score(String input, String candidate){
+        int score = 0, previous = -1;
+        int position = 0;
+
+        for(int i = 0; i < input.length(); i++){
+            char c = input.charAt(i);
+
+            while(position < candidate.length() && candidate.charAt(position) != c)
+                position++;
+
+            if(position == candidate.length())
+                return NO_MATCH;
+
+            if(i > 0 && position == previous + 1)
+                score += 3;
+            if(position == 0 || !Character.isLetterOrDigit(candidate.charAt(position - 1)))
+                score += 2;
+
+            score -= Math.min(position - previous - 1, 3);
+            previous = position++;
+        }
+
+        return score * 128 - Math.min(candidate.length(), 127);
+    }
+
+    // Utility method
+    private int lowerBound(String key){
+        int low = 0, high = keys.length;
+
+        while(low < high){
+            int middle = (low + high) >>> 1;
+
+            if(keys[middle].compareTo(key) < 0)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+
+        return low;
+    }
+
+    // Utility method, letters and digits have their own bit, other characters share the remaining ones
+    private static long characters(String key){
+        long characters = 0;
+
+        for(int i = 0; i < key.length(); i++){
+            char c = key.charAt(i);
+
+            if(c >= 'a' && c <= 'z')
+                characters |= 1L << (c - 'a');
+            else if(c >= '0' && c <= '9')
+                characters |= 1L << (26 + c - '0');
+            else
+                characters |= 1L << (36 + c % 28);
+        }
+
+        return characters;
+    }
+
+    // Utility method
+    private static String key(String candidate){ return candidate.toLowerCase(Locale.ROOT); }
+}
@@ -0,0 +1,138 @@
+package fr.dtn.jdl.cache;
+
+import com.moandjiezana.toml.Toml;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class that represents how the responses of a command are cached : for how long, how many of them, and if they are
+ * shared by everyone, by the members of a guild, or kept for each user
+ */
+public class CachePolicy {
+    /**
+     * Who the cached responses are shared with
+     */
+    public enum Scope {
+        GLOBAL, // Everyone using the same arguments
+        GUILD, // The members of a guild using the same arguments
+        USER; // A user using the same arguments
+    }
+
+    /**
+     * The time responses are kept, in nanoseconds
+     */
+    private final long lifetime;
+    /**
+     * The maximum amount of responses kept
+     */
+    private final int maxEntries;
+    /**
+     * Who the cached responses are shared with
+     */
+    private final Scope scope;
+
+    /**
+     * Constructor
+     * @param lifetime The time responses are kept, in nanoseconds
+     * @param maxEntries The maximum amount of responses kept
+     * @param scope Who the cached responses are shared with
+     */
+    public CachePolicy(long lifetime, int maxEntries, Scope scope){
+        if(lifetime < 1 || maxEntries < 1)
+            throw new IllegalArgumentException("Cached responses must be kept for some time, and at least one of them");
+
+        this.lifetime = lifetime;
+        this.maxEntries = maxEntries;
+        this.scope = scope;
+    }
+
+    /**
+     * To read the cache policy of a command file, from its 'cache' section
+     * @param toml The command file
+     * @return The cache policy, or null if the responses of the command are not cached
+     */
+    public static CachePolicy of(Toml toml){
+        // Integer lifetimes are read as longs by toml4j
+        Object ttl = toml.containsTable("cache") ? toml.getTable("cache").toMap().get("ttl") : null;
+
+        if(!(ttl instanceof Number) || ((Number) ttl).doubleValue() <= 0)
+            return null;
+
+        return new CachePolicy(
+                (long) (((Number) ttl).doubleValue() * TimeUnit.SECONDS.toNanos(1)),
+                toml.getLong("cache.maxEntries", 1024L).intValue(),
+                Scope.valueOf(toml.getString("cache.scope", "GLOBAL").toUpperCase())
+        );
+    }
+
+    /**
+     * To read a cache policy written by write(DataOutput)
+     * @param in The input
+     * @return The cache policy, or null if there is none
+     * @throws IOException If the input cannot be read
+     */
+    public static CachePolicy read(DataInput in) throws IOException {
+        long lifetime = in.readLong();
+        int maxEntries = in.readInt();
+        Scope scope = Scope.values()[in.readByte()];
+        return lifetime == 0 ? null : new CachePolicy(lifetime, maxEntries, scope);
+    }
+
+    /**
+     * To write a cache policy
+     * @param out The output
+     * @param policy The cache policy, or null if there is none
+     * @throws IOException If the output cannot be written
+     */
+    public static void write(DataOutput out, CachePolicy policy) throws IOException {
+        out.writeLong(policy == null ? 0 : policy.lifetime);
+        out.writeInt(policy == null ? 0 : policy.maxEntries);
+        out.writeByte(policy == null ? 0 : policy.scope.ordinal());
+    }
+
+    /**
+     * To create an empty cache following this policy
+     * @param <V> The type of the responses
+     * @return The cache, whose keys are given by key(long, long, String)
+     */
+    public <V> TinyLfuCache<String, V> newCache(){ return new TinyLfuCache<>(maxEntries, lifetime); }
+
+    /**
+     * To get the key of a response in the cache, from the arguments of the command and its scope
+     * @param guildId The id of the guild the command is used in
+     * @param userId The id of the user of the command
+     * @param arguments The arguments of the command
+     * @return The key
+     */
+    public String key(long guildId, long userId, String arguments){
+        switch(scope){
+            case GUILD: return guildId + "\0" + arguments;
+            case USER: return userId + "\0" + arguments;
+            default: return arguments;
+        }
+    }
+
+    /**
+     * To get lifetime
+     * @return Lifetime, in nanoseconds
+     */
+    public long getLifetime() { return lifetime; }
+
+    /**
+     * To get maxEntries
+     * @return maxEntries
+     */
+    public int getMaxEntries() { return maxEntries; }
+
+    /**
+     * To get scope
+     * @return Scope
+     */
+    public Scope getScope() { return scope; }
+
+    @Override
+    public String toString(){ return scope + " " + maxEntries + " entries for " + TimeUnit.NANOSECONDS.toMillis(lifetime) / 1000.0 + "s"; }
+}
@@ -0,0 +1,100 @@
+package fr.dtn.jdl.cache;
+
+/**
+ * Class that estimates how often keys were used recently, with 4 bit counters in a count-min sketch : each key has one
+ * counter in 4 quarters of a long, and its frequency is the smallest of them. All the counters are halved once enough
+ * keys have been counted, so old uses count less than recent ones
+ */
+final class FrequencySketch {
+    /**
+     * The seeds of the 4 hash functions
+     */
+    private static final long[] SEEDS = { 0x97CB3127L, 0xB7BF5B6BL, 0x75E12E4DL, 0x3A8F0F9BL };
+    /**
+     * Clears the high bit of each counter after a shift
+     */
+    private static final long HALF_MASK = 0x7777777777777777L;
+
+    /**
+     * The counters, 16 per long
+     */
+    private final long[] table;
+    /**
+     * The amount of counted keys after which the counters are halved
+     */
+    private final int sampleSize;
+    /**
+     * The amount of counted keys since the counters were last halved
+     */
+    private int size;
+
+    /**
+     * Constructor
+     * @param capacity The maximum amount of entries of the cache
+     */
+    FrequencySketch(int capacity){
+        int length = Integer.highestOneBit(Math.max(capacity, 16) - 1) << 1;
+
+        this.table = new long[length];
+        this.sampleSize = 10 * Math.max(capacity, 16);
+    }
+
+    /**
+     * To estimate how often a key was used recently
+     * @param key The key
+     * @return The estimation, from 0 to 15
+     */
+    int frequency(Object key){
+        int hash = key.hashCode();
+        int frequency = 15;
+
+        for(int i = 0; i < 4; i++){
+            long slot = slot(hash, i);
+            frequency = Math.min(frequency, (int) ((table[index(slot)] >>> offset(slot, i)) & 15));
+        }
+
+        return frequency;
+    }
+
+    /**
+     * To count a use of a key
+     * @param key The key
+     */
+    void increment(Object key){
+        int hash = key.hashCode();
+        boolean incremented = false;
+
+        for(int i = 0; i < 4; i++){
+            long slot = slot(hash, i);
+            int index = index(slot), offset = offset(slot, i);
+
+            if(((table[index] >>> offset) & 15) != 15){
+                table[index] += 1L << offset;
+                incremented = true;
+            }
+        }
+
+        if(incremented && ++size >= sampleSize)
+            reset();
+    }
+
+    // Utility method, halves all the counters
+    private void reset(){
+        for(int i = 0; i < table.length; i++)
+            table[i] = (table[i] >>> 1) & HALF_MASK;
+
+        size /= 2;
+    }
+
+    // Utility method
+    private static long slot(int hash, int i){
+        long slot = (hash + SEEDS[i]) * 0x9E3779B97F4A7C15L;
+        return slot ^ (slot >>> 29);
+    }
+
+    // Utility method
+    private int index(long slot){ return (int) slot & (table.length - 1); }
+
+    // Utility method, each hash function uses its own quarter of the long
+    private static int offset(long slot, int i){ return (int) (((slot >>> 40) & 3) + (i << 2)) << 2; }
+}
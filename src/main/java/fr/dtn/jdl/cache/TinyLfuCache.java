@@ -0,0 +1,272 @@
+package fr.dtn.jdl.cache;
+
+import java.util.HashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class that represents a size bounded cache whose entries expire, evicting entries the way W-TinyLFU does : new entries
+ * go to a small LRU window, and the ones leaving it only enter the main space if they were used more often recently than
+ * the entry they would evict. The main space keeps the entries used again in a protected segment, so bursts of keys used
+ * once do not flush the entries used all the time
+ * @param <K> The type of the keys
+ * @param <V> The type of the values
+ */
+public class TinyLfuCache<K, V> {
+    /**
+     * The segments of the cache
+     */
+    private static final int WINDOW = 0, PROBATION = 1, PROTECTED = 2;
+
+    /**
+     * The maximum amount of entries, of the window and of the protected segment
+     */
+    private final int capacity, windowCapacity, protectedCapacity;
+    /**
+     * The time entries are kept, in nanoseconds
+     */
+    private final long lifetime;
+    /**
+     * The entries, by key
+     */
+    private final HashMap<K, Node<K, V>> nodes;
+    /**
+     * The sentinel of the list of each segment, from the least to the most recently used
+     */
+    private final Node<K, V>[] segments;
+    /**
+     * The amount of entries of each segment
+     */
+    private final int[] sizes;
+    /**
+     * The recent frequency of the keys
+     */
+    private final FrequencySketch sketch;
+    /**
+     * The amounts of hits, misses and evictions
+     */
+    private final LongAdder hits, misses, evictions;
+
+    /**
+     * Constructor
+     * @param capacity The maximum amount of entries
+     * @param lifetime The time entries are kept, in nanoseconds
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public TinyLfuCache(int capacity, long lifetime){
+        if(capacity < 1 || lifetime < 1)
+            throw new IllegalArgumentException("A cache must keep at least 1 entry for some time");
+
+        this.capacity = capacity;
+        this.windowCapacity = Math.max(1, capacity / 100);
+        this.protectedCapacity = (int) ((capacity - windowCapacity) * 0.8);
+        this.lifetime = lifetime;
+        this.nodes = new HashMap<>();
+        this.segments = new Node[3];
+        this.sizes = new int[3];
+        this.sketch = new FrequencySketch(capacity);
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+
+        for(int i = 0; i < 3; i++){
+            Node<K, V> sentinel = new Node<>(null, null, 0);
+            sentinel.previous = sentinel;
+            sentinel.next = sentinel;
+            segments[i] = sentinel;
+        }
+    }
+
+    /**
+     * To get the value of a key
+     * @param key The key
+     * @return The value, or null if the key is not in the cache or expired
+     */
+    public synchronized V get(K key){
+        sketch.increment(key);
+        Node<K, V> node = nodes.get(key);
+
+        if(node == null || node.expiration - System.nanoTime() <= 0){
+            if(node != null)
+                remove(node);
+
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        touch(node);
+        return node.value;
+    }
+
+    /**
+     * To add or replace the value of a key, evicting an entry if the cache is full
+     * @param key The key
+     * @param value The value
+     */
+    public synchronized void put(K key, V value){
+        long expiration = System.nanoTime() + lifetime;
+        Node<K, V> node = nodes.get(key);
+
+        if(node != null){
+            node.value = value;
+            node.expiration = expiration;
+            touch(node);
+            return;
+        }
+
+        node = new Node<>(key, value, expiration);
+        nodes.put(key, node);
+        append(WINDOW, node);
+        Node<K, V> candidate = null;
+
+        if(sizes[WINDOW] > windowCapacity){
+            candidate = segments[WINDOW].next;
+            unlink(candidate);
+            append(PROBATION, candidate);
+        }
+
+        // Expired entries removed by get() leave room in the window, so the cache can be full while the window is not
+        while(nodes.size() > capacity){
+            evict(candidate);
+            candidate = null;
+        }
+    }
+
+    /**
+     * To remove all the entries
+     */
+    public synchronized void clear(){
+        nodes.clear();
+
+        for(int i = 0; i < 3; i++){
+            segments[i].previous = segments[i];
+            segments[i].next = segments[i];
+            sizes[i] = 0;
+        }
+    }
+
+    /**
+     * To get the amount of entries, including expired entries not removed yet
+     * @return The amount of entries
+     */
+    public synchronized int size(){ return nodes.size(); }
+
+    /**
+     * To get the amount of values found
+     * @return The amount of hits
+     */
+    public long getHits(){ return hits.sum(); }
+
+    /**
+     * To get the amount of keys not found or expired
+     * @return The amount of misses
+     */
+    public long getMisses(){ return misses.sum(); }
+
+    /**
+     * To get the amount of entries removed to make room for other ones
+     * @return The amount of evictions
+     */
+    public long getEvictions(){ return evictions.sum(); }
+
+    // Utility method, the candidate leaving the window replaces the least recently used entry of the probation segment
+    // only if its key was used more often recently. Without candidate, the least recently used entry of the first non
+    // empty segment among probation, protected and window is removed
+    private void evict(Node<K, V> candidate){
+        Node<K, V> victim = segments[PROBATION].next;
+
+        if(victim == segments[PROBATION])
+            victim = segments[PROTECTED].next != segments[PROTECTED] ? segments[PROTECTED].next : segments[WINDOW].next;
+
+        if(candidate != null && victim != candidate && victim.expiration - System.nanoTime() > 0 && sketch.frequency(candidate.key) <= sketch.frequency(victim.key))
+            victim = candidate;
+
+        remove(victim);
+        evictions.increment();
+    }
+
+    // Utility method, an entry used again in the probation segment is protected, pushing the least recently used
+    // protected entry back to the probation segment
+    private void touch(Node<K, V> node){
+        unlink(node);
+
+        if(node.segment == PROBATION){
+            append(PROTECTED, node);
+
+            if(sizes[PROTECTED] > protectedCapacity){
+                Node<K, V> demoted = segments[PROTECTED].next;
+                unlink(demoted);
+                append(PROBATION, demoted);
+            }
+        }else{
+            append(node.segment, node);
+        }
+    }
+
+    // Utility method
+    private void remove(Node<K, V> node){
+        unlink(node);
+        nodes.remove(node.key);
+    }
+
+    // Utility method
+    private void append(int segment, Node<K, V> node){
+        Node<K, V> sentinel = segments[segment];
+
+        node.segment = segment;
+        node.previous = sentinel.previous;
+        node.next = sentinel;
+        sentinel.previous.next = node;
+        sentinel.previous = node;
+        sizes[segment]++;
+    }
+
+    // Utility method
+    private void unlink(Node<K, V> node){
+        node.previous.next = node.next;
+        node.next.previous = node.previous;
+        node.previous = null;
+        node.next = null;
+        sizes[node.segment]--;
+    }
+
+    /**
+     * Class that represents an entry of the cache
+     * @param <K> The type of the key
+     * @param <V> The type of the value
+     */
+    static final class Node<K, V> {
+        /**
+         * The key
+         */
+        final K key;
+        /**
+         * The value
+         */
+        V value;
+        /**
+         * The time the entry expires at, from System.nanoTime()
+         */
+        long expiration;
+        /**
+         * The segment of the entry
+         */
+        int segment;
+        /**
+         * The neighbours of the entry in the list of its segment
+         */
+        Node<K, V> previous, next;
+
+        /**
+         * Constructor
+         * @param key The key
+         * @param value The value
+         * @param expiration The time the entry expires at, from System.nanoTime()
+         */
+        Node(K key, V value, long expiration){
+            this.key = key;
+            this.value = value;
+            this.expiration = expiration;
+        }
+    }
+}
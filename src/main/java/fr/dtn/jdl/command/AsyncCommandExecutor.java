@@ -0,0 +1,35 @@
+package fr.dtn.jdl.command;
+
+import fr.dtn.jdl.Bot;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Represent the function that will be called when a command is used, for commands doing slow work such as requests to
+ * other services : the work runs in the background, and the command is done when the returned stage completes
+ */
+public interface AsyncCommandExecutor extends CommandExecutor {
+    /**
+     * To start the command, without waiting for its slow work. A typing indicator is shown if it is still running after
+     * the 'execution.deferAfter' delay, and an error embed is sent if the stage fails or times out
+     * @param bot The current bot
+     * @param guild The guild where the command is used
+     * @param channel The text channel where the command is used
+     * @param message The message that called the command
+     * @param author The author of the message
+     * @param member The author of the message as a member of the guild
+     * @param args The arguments given by the author of the command
+     * @return The stage completing when the command is done
+     */
+    CompletionStage<?> executeAsync(Bot bot, Guild guild, TextChannel channel, Message message, User author, Member member, String[] args);
+
+    @Override
+    default void execute(Bot bot, Guild guild, TextChannel channel, Message message, User author, Member member, String[] args){
+        executeAsync(bot, guild, channel, message, author, member, args);
+    }
+}
@@ -2,6 +2,9 @@ package fr.dtn.jdl.command;
 
 import com.moandjiezana.toml.Toml;
 import fr.dtn.jdl.Bot;
+import fr.dtn.jdl.cache.CachePolicy;
+import fr.dtn.jdl.cache.TinyLfuCache;
+import fr.dtn.jdl.ratelimit.RateLimit;
 import fr.dtn.jll.Log;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.Guild;
@@ -9,11 +12,17 @@ import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.utils.messages.MessageCreateData;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 /**
  * Class that represents a raw text command
@@ -31,10 +40,34 @@ public class Command{
      * Permissions required to use the command
      */
     private final Permission[] permissions;
+    /**
+     * The raw value of the permissions, checked against the effective permissions of members
+     */
+    private final long permissionMask;
+    /**
+     * How often a user can use the command, or null if it is not limited
+     */
+    private final RateLimit rateLimit;
+    /**
+     * The time the command can run before it is timed out, in milliseconds, 0 to use the one of the bot
+     */
+    private final long timeout;
+    /**
+     * How the replies of the command are cached, or null if they are not
+     */
+    private final CachePolicy cachePolicy;
+    /**
+     * The name of the class of the executor
+     */
+    private final String executorClass;
     /**
      * Executor of the command
      */
     private CommandExecutor executor;
+    /**
+     * The cached replies, or null if they are not cached
+     */
+    private TinyLfuCache<String, MessageCreateData> responses;
 
     /**
      * Constructor
@@ -53,21 +86,108 @@ public class Command{
         toml.getList("calls").forEach(call -> calls.add(call.toString()));
         this.calls = calls.toArray(new String[0]);
 
-        List<Object> perms = toml.getList("permissions");
-        this.permissions = new Permission[perms.size()];
+        List<Permission> permissions = new ArrayList<>();
 
-        for(int i = 0; i < permissions.length; i++){
-            String permission = perms.get(i).toString().toUpperCase();
+        for(Object o : toml.getList("permissions")){
+            String permission = o.toString().toUpperCase();
 
             try{
-                permissions[i] = Permission.valueOf(permission);
+                permissions.add(Permission.valueOf(permission));
             }catch(IllegalArgumentException e){
                 Log.error("Loading command '" + displayName + "' : Failed to load permission '" + permission + "' : Permission does not exist");
             }
         }
 
+        this.permissions = permissions.toArray(new Permission[0]);
+        this.permissionMask = Permission.getRaw(this.permissions);
+        this.rateLimit = RateLimit.of(toml);
+        // Integer timeouts are read as longs by toml4j
+        Object timeout = toml.toMap().get("timeout");
+        this.timeout = timeout instanceof Number ? (long) (((Number) timeout).doubleValue() * 1000) : 0;
+        this.cachePolicy = CachePolicy.of(toml);
+        this.executorClass = toml.getString("executor");
+        loadExecutor();
+    }
+
+    /**
+     * Constructor, used by the command indexes generated from annotated executors
+     * @param displayName The display name of the command
+     * @param description The description of the command
+     * @param calls The calls of the command
+     * @param permissions The permissions required to use the command
+     * @param rateLimit How often a user can use the command, or null if it is not limited
+     * @param executor The executor of the command
+     */
+    public Command(String displayName, String description, String[] calls, Permission[] permissions, RateLimit rateLimit, CommandExecutor executor){
+        this(displayName, description, calls, permissions, rateLimit, 0, executor);
+    }
+
+    /**
+     * Constructor, used by the command indexes generated from annotated executors
+     * @param displayName The display name of the command
+     * @param description The description of the command
+     * @param calls The calls of the command
+     * @param permissions The permissions required to use the command
+     * @param rateLimit How often a user can use the command, or null if it is not limited
+     * @param timeout The time the command can run before it is timed out, in milliseconds, 0 to use the one of the bot
+     * @param executor The executor of the command
+     */
+    public Command(String displayName, String description, String[] calls, Permission[] permissions, RateLimit rateLimit, long timeout, CommandExecutor executor){
+        this(displayName, description, calls, permissions, rateLimit, timeout, null, executor);
+    }
+
+    /**
+     * Constructor, used by the command indexes generated from annotated executors
+     * @param displayName The display name of the command
+     * @param description The description of the command
+     * @param calls The calls of the command
+     * @param permissions The permissions required to use the command
+     * @param rateLimit How often a user can use the command, or null if it is not limited
+     * @param timeout The time the command can run before it is timed out, in milliseconds, 0 to use the one of the bot
+     * @param cachePolicy How the replies of the command are cached, or null if they are not
+     * @param executor The executor of the command
+     */
+    public Command(String displayName, String description, String[] calls, Permission[] permissions, RateLimit rateLimit, long timeout, CachePolicy cachePolicy, CommandExecutor executor){
+        this.displayName = displayName;
+        this.description = description;
+        this.calls = calls;
+        this.permissions = permissions;
+        this.permissionMask = Permission.getRaw(permissions);
+        this.rateLimit = rateLimit;
+        this.timeout = timeout;
+        this.cachePolicy = cachePolicy;
+        this.executorClass = executor.getClass().getName();
+        this.executor = executor;
+        createCache();
+    }
+
+    /**
+     * Constructor
+     * @param in The input to read the command from, written by write(DataOutput)
+     * @throws IOException If the input cannot be read
+     */
+    public Command(DataInput in) throws IOException {
+        this.displayName = in.readUTF();
+        Log.info("Loading command '" + displayName + "' from snapshot");
+        this.description = in.readUTF();
+        this.calls = new String[in.readInt()];
+
+        for(int i = 0; i < calls.length; i++)
+            calls[i] = in.readUTF();
+
+        this.permissionMask = in.readLong();
+        this.permissions = Permission.getPermissions(permissionMask).toArray(new Permission[0]);
+
+        this.rateLimit = RateLimit.read(in);
+        this.timeout = in.readLong();
+        this.cachePolicy = CachePolicy.read(in);
+        this.executorClass = in.readUTF();
+        loadExecutor();
+    }
 
-        String className = toml.getString("executor");
+    // Utility method
+    private void loadExecutor(){
+        String className = executorClass;
         try {
             this.executor = (CommandExecutor) Class.forName(className).getConstructor().newInstance();
         }catch(ClassNotFoundException e){
@@ -84,9 +204,42 @@ public class Command{
             return;
         }
 
+        createCache();
         Log.info("Command '" + displayName + "' loaded successfully");
     }
 
+    // Utility method, only the replies built by response executors can be cached
+    private void createCache(){
+        if(cachePolicy == null)
+            return;
+
+        if(executor instanceof ResponseCommandExecutor)
+            this.responses = cachePolicy.newCache();
+        else
+            Log.warn("Replies of command '" + displayName + "' are not cached : Executor '" + executorClass + "' does not implement ResponseCommandExecutor");
+    }
+
+    /**
+     * To write the definition of the command
+     * @param out The output to write the command to
+     * @throws IOException If the output cannot be written
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeUTF(displayName);
+        out.writeUTF(description == null ? "" : description);
+        out.writeInt(calls.length);
+
+        for(String call : calls)
+            out.writeUTF(call);
+
+        out.writeLong(permissionMask);
+
+        RateLimit.write(out, rateLimit);
+        out.writeLong(timeout);
+        CachePolicy.write(out, cachePolicy);
+        out.writeUTF(executorClass);
+    }
+
     /**
      * To execute the command
      * @param bot The current bot
@@ -101,6 +254,52 @@ public class Command{
         executor.execute(bot, guild, channel, message, author, member, args);
     }
 
+    /**
+     * To execute the command, without waiting for the slow work of asynchronous executors
+     * @param bot The current bot
+     * @param guild The guild where the command is used
+     * @param channel The text channel where the command is used
+     * @param message The message sent detected as this command call
+     * @param author The author of the command
+     * @param member The author of the command as member of the guild
+     * @param args The arguments entered with the command
+     * @return The stage completing when the command is done, already completed for executors that are not asynchronous
+     */
+    public CompletionStage<?> executeAsync(Bot bot, Guild guild, TextChannel channel, Message message, User author, Member member, String[] args) {
+        if(executor instanceof AsyncCommandExecutor)
+            return ((AsyncCommandExecutor) executor).executeAsync(bot, guild, channel, message, author, member, args);
+
+        if(responses != null){
+            MessageCreateData response = ((ResponseCommandExecutor) executor).respond(bot, guild, channel, message, author, member, args);
+
+            // Files are read once when they are sent
+            if(response.getFiles().isEmpty())
+                responses.put(cacheKey(guild, author, args), response);
+
+            message.reply(response).queue();
+            return CompletableFuture.completedFuture(null);
+        }
+
+        executor.execute(bot, guild, channel, message, author, member, args);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * To get the cached reply of a use of the command
+     * @param guild The guild where the command is used
+     * @param author The author of the command
+     * @param args The arguments entered with the command
+     * @return The reply, or null if it is not cached or the replies of the command are not cached
+     */
+    public MessageCreateData getCachedResponse(Guild guild, User author, String[] args){
+        return responses == null ? null : responses.get(cacheKey(guild, author, args));
+    }
+
+    // Utility method
+    private String cacheKey(Guild guild, User author, String[] args){
+        return cachePolicy.key(guild.getIdLong(), author.getIdLong(), String.join("\0", args));
+    }
+
     /**
      * To get display name
      * @return Display name
@@ -124,4 +323,46 @@ public class Command{
      * @return Permissions
      */
     public Permission[] getPermissions() { return permissions; }
+
+    /**
+     * To get permissionMask
+     * @return permissionMask
+     */
+    public long getPermissionMask() { return permissionMask; }
+
+    /**
+     * To get rateLimit
+     * @return rateLimit, or null if the command is not limited
+     */
+    public RateLimit getRateLimit() { return rateLimit; }
+
+    /**
+     * To get timeout
+     * @return timeout, in milliseconds, 0 to use the one of the bot
+     */
+    public long getTimeout() { return timeout; }
+
+    /**
+     * To get cachePolicy
+     * @return cachePolicy, or null if the replies of the command are not cached
+     */
+    public CachePolicy getCachePolicy() { return cachePolicy; }
+
+    /**
+     * To get the cached replies, with their hit and miss counts
+     * @return The cached replies, or null if they are not cached
+     */
+    public TinyLfuCache<String, MessageCreateData> getResponseCache() { return responses; }
+
+    /**
+     * To get executorClass
+     * @return executorClass
+     */
+    public String getExecutorClass() { return executorClass; }
+
+    /**
+     * To get if the command loaded successfully, with its executor
+     * @return If the command is loaded
+     */
+    public boolean isLoaded() { return executor != null; }
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+package fr.dtn.jdl.command;
+
+/**
+ * Utility class to split raw text command messages in a single pass, words are separated by one or more spaces
+ */
+public final class CommandParser {
+    /**
+     * The arguments of a command called without any
+     */
+    private static final String[] NO_ARGUMENTS = new String[0];
+
+    // Utility class
+    private CommandParser(){}
+
+    /**
+     * To find the end of the word starting at an index
+     * @param text The text
+     * @param start The index of the first character of the word
+     * @return The index after the last character of the word
+     */
+    public static int wordEnd(String text, int start){
+        int end = text.indexOf(' ', start);
+        return end < 0 ? text.length() : end;
+    }
+
+    /**
+     * To split the end of a text into arguments, empty words are ignored
+     * @param text The text
+     * @param start The index where the arguments start
+     * @return The arguments
+     */
+    public static String[] arguments(String text, int start){
+        int length = text.length();
+        int count = 0;
+
+        for(int i = start; i < length; i++)
+            if(text.charAt(i) != ' ' && (i == start || text.charAt(i - 1) == ' '))
+                count++;
+
+        if(count == 0)
+            return NO_ARGUMENTS;
+
+        String[] arguments = new String[count];
+        int index = 0;
+        int i = start;
+
+        while(index < count){
+            while(text.charAt(i) == ' ')
+                i++;
+
+            int end = wordEnd(text, i);
+            arguments[index++] = text.substring(i, end);
+            i = end;
+        }
+
+        return arguments;
+    }
+}
@@ -0,0 +1,77 @@
+package fr.dtn.jdl.command;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Class that represents an immutable set of raw text commands and the trie of their calls. Changes create a new registry,
+ * so a registry can be read from any thread while another one is being built
+ */
+public final class CommandRegistry {
+    /**
+     * The commands, by display name, in registration order
+     */
+    private final Map<String, Command> commands;
+    /**
+     * The commands, indexed by their calls
+     */
+    private final CommandTrie calls;
+
+    /**
+     * Constructor of an empty registry
+     * @param ignoreCase If calls are matched without considering the case of their letters
+     */
+    public CommandRegistry(boolean ignoreCase){
+        this(Collections.emptyMap(), ignoreCase);
+    }
+
+    // Utility constructor
+    private CommandRegistry(Map<String, Command> commands, boolean ignoreCase){
+        this.commands = commands;
+        this.calls = new CommandTrie(ignoreCase);
+
+        for(Command command : commands.values())
+            for(String call : command.getCalls())
+                this.calls.put(call, command);
+    }
+
+    /**
+     * To create a registry with some commands added and others removed, this registry does not change
+     * @param added The commands to add, replacing the commands with the same display names
+     * @param removed The display names of the commands to remove
+     * @return The new registry
+     */
+    public CommandRegistry with(Collection<Command> added, Collection<String> removed){
+        Map<String, Command> next = new LinkedHashMap<>(commands);
+        next.keySet().removeAll(removed);
+
+        for(Command command : added)
+            next.put(command.getDisplayName(), command);
+
+        return new CommandRegistry(Collections.unmodifiableMap(next), calls.isIgnoreCase());
+    }
+
+    /**
+     * To find the command whose call is exactly a part of a text
+     * @param text The text that contains the call
+     * @param start The index of the first character of the call
+     * @param end The index after the last character of the call
+     * @return The command, or null if no command has this call
+     */
+    public Command find(CharSequence text, int start, int end){ return calls.find(text, start, end); }
+
+    /**
+     * To get a command by its display name
+     * @param displayName The display name of the command
+     * @return The command, or null if there is none
+     */
+    public Command get(String displayName){ return commands.get(displayName); }
+
+    /**
+     * To get the commands
+     * @return The commands, in registration order
+     */
+    public Collection<Command> getCommands(){ return commands.values(); }
+}
@@ -0,0 +1,128 @@
+package fr.dtn.jdl.command;
+
+import java.util.Arrays;
+
+/**
+ * Class that indexes the raw text commands by their calls in a character trie, so a call can be matched directly inside a message
+ */
+public class CommandTrie {
+    /**
+     * If calls are matched without considering the case of their letters
+     */
+    private final boolean ignoreCase;
+    /**
+     * The root node, that corresponds to the empty call
+     */
+    private final Node root;
+
+    /**
+     * Constructor
+     * @param ignoreCase If calls are matched without considering the case of their letters
+     */
+    public CommandTrie(boolean ignoreCase){
+        this.ignoreCase = ignoreCase;
+        this.root = new Node();
+    }
+
+    /**
+     * To associate a call to a command, replacing the command previously associated to the call
+     * @param call The call
+     * @param command The command
+     */
+    public void put(String call, Command command){
+        Node node = root;
+
+        for(int i = 0; i < call.length(); i++)
+            node = node.childOrCreate(normalize(call.charAt(i)));
+
+        node.command = command;
+    }
+
+    /**
+     * To find the command of a call
+     * @param call The call
+     * @return The command, or null if no command has this call
+     */
+    public Command get(String call){ return find(call, 0, call.length()); }
+
+    /**
+     * To find the command whose call is exactly a part of a text, without creating any string
+     * @param text The text that contains the call
+     * @param start The index of the first character of the call
+     * @param end The index after the last character of the call
+     * @return The command, or null if no command has this call
+     */
+    public Command find(CharSequence text, int start, int end){
+        Node node = root;
+
+        for(int i = start; i < end && node != null; i++)
+            node = node.child(normalize(text.charAt(i)));
+
+        return node == null ? null : node.command;
+    }
+
+    /**
+     * To get if calls are matched without considering the case of their letters
+     * @return ignoreCase
+     */
+    public boolean isIgnoreCase() { return ignoreCase; }
+
+    // Utility method
+    private char normalize(char c){ return ignoreCase ? Character.toLowerCase(c) : c; }
+
+    /**
+     * Class that represents a node of the trie, its children are stored in parallel arrays since most nodes have very few of them
+     */
+    static final class Node {
+        /**
+         * The characters leading to the children
+         */
+        private char[] keys = new char[0];
+        /**
+         * The children
+         */
+        private Node[] children = new Node[0];
+        /**
+         * The command whose call ends on this node, if any
+         */
+        private Command command;
+
+        /**
+         * To get the child of a character
+         * @param c The character
+         * @return The child, or null if there is none
+         */
+        Node child(char c){
+            char[] keys = this.keys;
+
+            for(int i = 0; i < keys.length; i++)
+                if(keys[i] == c)
+                    return children[i];
+
+            return null;
+        }
+
+        /**
+         * To get the child of a character, creating it if there is none
+         * @param c The character
+         * @return The child
+         */
+        Node childOrCreate(char c){
+            Node child = child(c);
+
+            if(child != null)
+                return child;
+
+            child = new Node();
+            int length = keys.length;
+            char[] keys = Arrays.copyOf(this.keys, length + 1);
+            Node[] children = Arrays.copyOf(this.children, length + 1);
+            keys[length] = c;
+            children[length] = child;
+
+            this.children = children;
+            this.keys = keys;
+            return child;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package fr.dtn.jdl.command;
+
+import fr.dtn.jdl.Bot;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.utils.messages.MessageCreateData;
+
+/**
+ * Represent the function that will be called when a command is used, for commands answering with a single reply built
+ * from their arguments : the bot sends the reply, and can cache it if the command file has a 'cache' section
+ */
+public interface ResponseCommandExecutor extends CommandExecutor {
+    /**
+     * To build the reply of the command, the cached reply is sent instead while it is kept
+     * @param bot The current bot
+     * @param guild The guild where the command is used
+     * @param channel The text channel where the command is used
+     * @param message The message that called the command
+     * @param author The author of the message
+     * @param member The author of the message as a member of the guild
+     * @param args The arguments given by the author of the command
+     * @return The reply, replies with files are not cached
+     */
+    MessageCreateData respond(Bot bot, Guild guild, TextChannel channel, Message message, User author, Member member, String[] args);
+
+    @Override
+    default void execute(Bot bot, Guild guild, TextChannel channel, Message message, User author, Member member, String[] args){
+        message.reply(respond(bot, guild, channel, message, author, member, args)).queue();
+    }
+}
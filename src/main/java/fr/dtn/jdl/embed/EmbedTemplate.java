@@ -0,0 +1,317 @@
+package fr.dtn.jdl.embed;
+
+import com.moandjiezana.toml.Toml;
+import net.dv8tion.jda.api.entities.EmbedType;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.Role;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class that represents an embed whose texts contain placeholders such as '{user}', parsed once and rendered with the
+ * values of its parameters. Templates without placeholders are built once, and the embeds rendered from the same values
+ * are cached, unless the template shows the current time
+ */
+public class EmbedTemplate {
+    /**
+     * The name of the template
+     */
+    private final String name;
+    /**
+     * The names of the parameters, in the order of the values given to render
+     */
+    private final String[] parameters;
+    /**
+     * The texts of the embed, null for the missing ones
+     */
+    private final Text title, url, description, author, authorUrl, authorIcon, footer, footerIcon, thumbnail, image;
+    /**
+     * The names and values of the fields
+     */
+    private final Text[] fieldNames, fieldValues;
+    /**
+     * If the fields are shown side by side
+     */
+    private final boolean[] fieldInline;
+    /**
+     * The color of the embed
+     */
+    private final int color;
+    /**
+     * If the embed shows the time it was rendered at
+     */
+    private final boolean timestamp;
+
+    /**
+     * The embed, if it does not depend on its parameters or the time
+     */
+    private final MessageEmbed constant;
+    /**
+     * The embeds rendered from the last values, the least recently used is removed first, or null if they are not cached
+     */
+    private final Map<List<String>, MessageEmbed> cache;
+
+    /**
+     * Constructor
+     * @param name The name of the template
+     * @param template The table of the template, such as a section of 'embeds.toml'
+     * @param cacheCapacity The maximum amount of rendered embeds kept for same values, 0 to disable the cache
+     */
+    public EmbedTemplate(String name, Toml template, int cacheCapacity){
+        List<String> parameters = new ArrayList<>();
+
+        for(Object parameter : template.getList("parameters", Collections.emptyList()))
+            parameters.add(parameter.toString());
+
+        this.name = name;
+        this.title = text(template.getString("title"), parameters);
+        this.url = text(template.getString("url"), parameters);
+        this.description = text(template.getString("description"), parameters);
+        this.author = text(template.getString("author.name"), parameters);
+        this.authorUrl = text(template.getString("author.url"), parameters);
+        this.authorIcon = text(template.getString("author.icon"), parameters);
+
+        List<Toml> fields = template.getTables("fields");
+        if(fields == null)
+            fields = Collections.emptyList();
+
+        this.fieldNames = new Text[fields.size()];
+        this.fieldValues = new Text[fields.size()];
+        this.fieldInline = new boolean[fields.size()];
+        for(int i = 0; i < fields.size(); i++){
+            fieldNames[i] = text(fields.get(i).getString("name", ""), parameters);
+            fieldValues[i] = text(fields.get(i).getString("value", ""), parameters);
+            fieldInline[i] = fields.get(i).getBoolean("inline", true);
+        }
+
+        this.footer = text(template.getString("footer.text"), parameters);
+        this.footerIcon = text(template.getString("footer.icon"), parameters);
+        this.thumbnail = text(template.getString("thumbnail"), parameters);
+        this.image = text(template.getString("image"), parameters);
+        this.color = color(template.contains("color") ? template.toMap().get("color") : null);
+        this.timestamp = template.getBoolean("timestamp", false);
+        this.parameters = parameters.toArray(new String[0]);
+
+        this.constant = this.parameters.length == 0 && !timestamp ? build(new String[0]) : null;
+        this.cache = constant == null && !timestamp && cacheCapacity > 0 ? new LinkedHashMap<List<String>, MessageEmbed>(16, 0.75f, true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<String>, MessageEmbed> eldest){ return size() > cacheCapacity; }
+        } : null;
+    }
+
+    /**
+     * To render the embed
+     * @param values The values of the parameters, in the order given by getParameters()
+     * @return The embed
+     * @throws IllegalArgumentException If values are missing or the rendered embed is too long for Discord
+     */
+    public MessageEmbed render(String... values){
+        if(constant != null)
+            return constant;
+
+        if(values.length < parameters.length)
+            throw new IllegalArgumentException("Embed template '" + name + "' needs the values of " + Arrays.toString(parameters) + ", got " + values.length + " value(s)");
+
+        if(cache == null)
+            return build(values);
+
+        List<String> key = Arrays.asList(values.clone());
+        MessageEmbed embed;
+
+        synchronized(cache){
+            embed = cache.get(key);
+        }
+
+        if(embed == null){
+            embed = build(values);
+
+            synchronized(cache){
+                cache.put(key, embed);
+            }
+        }
+
+        return embed;
+    }
+
+    /**
+     * To get name
+     * @return Name
+     */
+    public String getName(){ return name; }
+
+    /**
+     * To get the names of the parameters
+     * @return The names, in the order of the values given to render
+     */
+    public String[] getParameters(){ return parameters.clone(); }
+
+    // Utility method, builds the embed directly instead of through an EmbedBuilder, the fields are still checked by JDA
+    private MessageEmbed build(String[] values){
+        List<MessageEmbed.Field> fields = new ArrayList<>(fieldNames.length);
+
+        for(int i = 0; i < fieldNames.length; i++)
+            fields.add(new MessageEmbed.Field(fieldNames[i].render(values), fieldValues[i].render(values), fieldInline[i]));
+
+        MessageEmbed embed = new MessageEmbed(
+                render(url, values),
+                render(title, values),
+                render(description, values),
+                EmbedType.RICH,
+                timestamp ? OffsetDateTime.now() : null,
+                color,
+                thumbnail == null ? null : new MessageEmbed.Thumbnail(thumbnail.render(values), null, 0, 0),
+                null,
+                author == null ? null : new MessageEmbed.AuthorInfo(author.render(values), render(authorUrl, values), render(authorIcon, values), null),
+                null,
+                footer == null ? null : new MessageEmbed.Footer(footer.render(values), render(footerIcon, values), null),
+                image == null ? null : new MessageEmbed.ImageInfo(image.render(values), null, 0, 0),
+                fields
+        );
+
+        if(embed.getLength() > MessageEmbed.EMBED_MAX_LENGTH_BOT)
+            throw new IllegalArgumentException("Embed template '" + name + "' rendered an embed longer than " + MessageEmbed.EMBED_MAX_LENGTH_BOT + " characters");
+
+        return embed;
+    }
+
+    // Utility method
+    private static String render(Text text, String[] values){ return text == null ? null : text.render(values); }
+
+    // Utility method, the colors are written as '#FF0000' or as numbers
+    private static int color(Object value){
+        if(value == null)
+            return Role.DEFAULT_COLOR_RAW;
+        if(value instanceof Number)
+            return ((Number) value).intValue();
+
+        String color = value.toString().trim();
+        return color.isEmpty() ? Role.DEFAULT_COLOR_RAW : Integer.parseInt(color.startsWith("#") ? color.substring(1) : color, 16);
+    }
+
+    // Utility method, the placeholders missing from the parameters are added to them in the order they appear
+    private static Text text(String raw, List<String> parameters){
+        if(raw == null)
+            return null;
+
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        int start = 0, open;
+
+        while((open = raw.indexOf('{', start)) >= 0){
+            int close = raw.indexOf('}', open);
+
+            if(close < 0)
+                break;
+
+            String parameter = raw.substring(open + 1, close);
+
+            if(!isPlaceholder(parameter)){
+                literals.add(raw.substring(start, open + 1));
+                slots.add(-1);
+                start = open + 1;
+                continue;
+            }
+
+            int slot = parameters.indexOf(parameter);
+            if(slot < 0){
+                slot = parameters.size();
+                parameters.add(parameter);
+            }
+
+            literals.add(raw.substring(start, open));
+            slots.add(slot);
+            start = close + 1;
+        }
+
+        literals.add(raw.substring(start));
+        return new Text(literals, slots);
+    }
+
+    // Utility method
+    private static boolean isPlaceholder(String parameter){
+        if(parameter.isEmpty())
+            return false;
+
+        for(int i = 0; i < parameter.length(); i++)
+            if(!Character.isLetterOrDigit(parameter.charAt(i)) && parameter.charAt(i) != '_')
+                return false;
+
+        return true;
+    }
+
+    /**
+     * Class that represents a text with placeholders, as the literal parts around the indexes of the parameters
+     */
+    static final class Text {
+        /**
+         * The literal parts, one more than the slots
+         */
+        private final String[] literals;
+        /**
+         * The index of the parameter following each literal part, -1 if there is none
+         */
+        private final int[] slots;
+        /**
+         * The total length of the literal parts
+         */
+        private final int length;
+
+        /**
+         * Constructor
+         * @param literals The literal parts, one more than the slots
+         * @param slots The index of the parameter following each literal part, -1 if there is none
+         */
+        Text(List<String> literals, List<Integer> slots){
+            int length = 0;
+            boolean placeholders = false;
+
+            for(int slot : slots)
+                placeholders |= slot >= 0;
+
+            // Texts without placeholders are kept as a single literal part
+            if(!placeholders){
+                this.literals = new String[]{ String.join("", literals) };
+                this.slots = new int[0];
+            }else{
+                this.literals = literals.toArray(new String[0]);
+                this.slots = slots.stream().mapToInt(Integer::intValue).toArray();
+            }
+
+            for(String literal : this.literals)
+                length += literal.length();
+            this.length = length;
+        }
+
+        /**
+         * To replace the placeholders of the text
+         * @param values The values of the parameters
+         * @return The text
+         */
+        String render(String[] values){
+            if(slots.length == 0)
+                return literals[0];
+
+            int capacity = length;
+            for(int slot : slots)
+                if(slot >= 0)
+                    capacity += values[slot] == null ? 4 : values[slot].length();
+
+            StringBuilder text = new StringBuilder(capacity);
+
+            for(int i = 0; i < slots.length; i++){
+                text.append(literals[i]);
+
+                if(slots[i] >= 0)
+                    text.append(values[slots[i]]);
+            }
+
+            return text.append(literals[slots.length]).toString();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package fr.dtn.jdl.embed;
+
+import com.moandjiezana.toml.Toml;
+import fr.dtn.jll.Log;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class that holds the embed templates of a bot : the ones of the library, from the 'default_embeds.toml' resource, and
+ * the ones of the 'embeds.toml' file of the bot directory, which can override them. Each section of these files is a
+ * template named after the section
+ */
+public class EmbedTemplates {
+    /**
+     * The templates, by name
+     */
+    private final ConcurrentHashMap<String, EmbedTemplate> templates;
+    /**
+     * The templates of the library, by name, which the library renders with a fixed amount of values
+     */
+    private final Map<String, EmbedTemplate> defaults;
+    /**
+     * The maximum amount of rendered embeds kept by each template for same values
+     */
+    private final int cacheCapacity;
+
+    /**
+     * Constructor
+     * @param cacheCapacity The maximum amount of rendered embeds kept by each template for same values, 0 to disable it
+     */
+    public EmbedTemplates(int cacheCapacity){
+        this.templates = new ConcurrentHashMap<>();
+        this.defaults = new HashMap<>();
+        this.cacheCapacity = cacheCapacity;
+    }
+
+    /**
+     * To load the templates of the library, then the ones of a file overriding them
+     * @param file The file of the templates, such as 'embeds.toml' of the bot directory, ignored if it does not exist
+     * @param cacheCapacity The maximum amount of rendered embeds kept by each template for same values, 0 to disable it
+     * @return The templates
+     */
+    public static EmbedTemplates load(File file, int cacheCapacity){
+        EmbedTemplates templates = new EmbedTemplates(cacheCapacity);
+
+        try(InputStream defaults = EmbedTemplates.class.getClassLoader().getResourceAsStream("default_embeds.toml")){
+            if(defaults == null)
+                throw new IOException("resource not found");
+
+            templates.register(new Toml().read(defaults));
+            templates.defaults.putAll(templates.templates);
+        }catch(IOException e){
+            throw new RuntimeException("Unable to load default embed templates : " + e.getMessage(), e);
+        }
+
+        if(file.isFile()){
+            Log.info("Loading embed templates from : '" + file.getPath() + "'");
+
+            try{
+                templates.register(new Toml().read(file));
+            }catch(RuntimeException e){
+                Log.error("Unable to load embed templates from '" + file.getPath() + "' : " + e.getMessage());
+            }
+        }
+
+        return templates;
+    }
+
+    /**
+     * To add or replace the templates of each section of a file
+     * @param file The content of the file
+     */
+    public void register(Toml file){
+        for(Map.Entry<String, Object> entry : file.entrySet())
+            if(entry.getValue() instanceof Toml)
+                register(new EmbedTemplate(entry.getKey(), (Toml) entry.getValue(), cacheCapacity));
+    }
+
+    /**
+     * To add or replace a template. A template of the library is only replaced by one with as many parameters, since the
+     * library renders it with a fixed amount of values
+     * @param template The template
+     */
+    public void register(EmbedTemplate template){
+        EmbedTemplate builtIn = defaults.get(template.getName());
+
+        if(builtIn != null && builtIn.getParameters().length != template.getParameters().length){
+            Log.error("Embed template '" + template.getName() + "' is not overridden : It must have the parameters " + Arrays.toString(builtIn.getParameters()) + ", got " + Arrays.toString(template.getParameters()));
+            return;
+        }
+
+        templates.put(template.getName(), template);
+    }
+
+    /**
+     * To get a template
+     * @param name The name of the template
+     * @return The template, or null if there is none with this name
+     */
+    public EmbedTemplate get(String name){ return templates.get(name); }
+
+    /**
+     * To get the names of the templates
+     * @return The names
+     */
+    public Set<String> getNames(){ return Collections.unmodifiableSet(templates.keySet()); }
+
+    /**
+     * To render a template
+     * @param name The name of the template
+     * @param values The values of its parameters
+     * @return The embed
+     * @throws IllegalArgumentException If there is no template with this name, or values are missing
+     */
+    public MessageEmbed render(String name, String... values){
+        EmbedTemplate template = templates.get(name);
+
+        if(template == null)
+            throw new IllegalArgumentException("There is no embed template named '" + name + "'");
+
+        return template.render(values);
+    }
+}
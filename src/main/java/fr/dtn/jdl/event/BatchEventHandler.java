@@ -0,0 +1,60 @@
+package fr.dtn.jdl.event;
+
+import fr.dtn.jdl.Bot;
+import net.dv8tion.jda.api.events.GenericEvent;
+
+import java.util.List;
+
+/**
+ * Represents the code that will be run with the events of a certain type in batches, for handlers writing each event
+ * to a database or a file, such as message counters or audit logs : the events are buffered, and given to the handler
+ * once the buffer has enough of them or the window ends
+ * @param <T> The type of the handled event
+ */
+public interface BatchEventHandler<T extends GenericEvent> {
+    /**
+     * What happens to the events of a full buffer
+     */
+    enum Overflow {
+        BLOCK, // The thread dispatching the event waits for a batch to be handled
+        DROP_OLDEST, // The oldest buffered event is dropped
+        SAMPLE; // Once the buffer is half full, only one event out of sampleRate() is kept, the others are dropped
+    }
+
+    /**
+     * To execute the handler
+     * @param bot The current bot
+     * @param events The events that happened since the last batch, in order, at most batchSize() of them
+     */
+    void happen(Bot bot, List<T> events);
+
+    /**
+     * The maximum amount of events of a batch, a batch is handled as soon as there are that many buffered events
+     * @return The batch size
+     */
+    default int batchSize(){ return 256; }
+
+    /**
+     * The maximum time events wait in the buffer, in milliseconds
+     * @return The window
+     */
+    default long window(){ return 1000; }
+
+    /**
+     * The maximum amount of buffered events, rounded up to a power of two
+     * @return The capacity
+     */
+    default int capacity(){ return 8192; }
+
+    /**
+     * What happens to the events of a full buffer
+     * @return The overflow policy
+     */
+    default Overflow overflow(){ return Overflow.BLOCK; }
+
+    /**
+     * The amount of events out of which only one is kept by the SAMPLE overflow policy once the buffer is half full
+     * @return The sample rate
+     */
+    default int sampleRate(){ return 10; }
+}
@@ -0,0 +1,242 @@
+package fr.dtn.jdl.event;
+
+import fr.dtn.jdl.Bot;
+import fr.dtn.jdl.execution.DispatchExecutor;
+import fr.dtn.jdl.log.AsyncLog;
+import fr.dtn.jdl.metrics.InvocationMetrics;
+import fr.dtn.jdl.util.RingBuffer;
+import net.dv8tion.jda.api.events.GenericEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Event handler that buffers the events of a batch event handler in a ring buffer, and gives them to it in batches on
+ * the execution queues, once there are enough of them or the window of the handler ends. At most one batch of a handler
+ * is handled at a time, so batches keep the order of the events
+ * @param <T> The type of the handled event
+ */
+public class EventBatcher<T extends GenericEvent> implements EventHandler<T> {
+    /**
+     * The last key of the execution queues of the batches, negative so that they never are guild ids
+     */
+    private static final AtomicLong keys = new AtomicLong();
+
+    /**
+     * The current bot
+     */
+    private final Bot bot;
+    /**
+     * The batch event handler
+     */
+    private final BatchEventHandler<T> handler;
+    /**
+     * The executor running the batches, and the key of their queue
+     */
+    private final DispatchExecutor executor;
+    private final long key;
+    /**
+     * The buffered events
+     */
+    private final RingBuffer<T> buffer;
+    /**
+     * The settings of the handler, read once
+     */
+    private final int batchSize, sampleRate;
+    private final BatchEventHandler.Overflow overflow;
+    /**
+     * The metrics of the batches, whose refusals are the dropped events
+     */
+    private final InvocationMetrics metrics;
+    /**
+     * If a flush is waiting in the execution queue, and if a batch is being handled
+     */
+    private final AtomicBoolean scheduled, handling;
+    /**
+     * The amount of events seen by the SAMPLE policy while the buffer was half full
+     */
+    private final AtomicLong sampled;
+    /**
+     * The task ending the windows
+     */
+    private final ScheduledFuture<?> window;
+
+    /**
+     * If the batcher is closed, the events are then dropped
+     */
+    private volatile boolean closed;
+
+    /**
+     * Constructor
+     * @param bot The current bot
+     * @param handler The batch event handler
+     * @param executor The executor running the batches
+     * @param scheduler The scheduler ending the windows
+     * @param metrics The metrics of the batches, whose refusals are the dropped events
+     */
+    public EventBatcher(Bot bot, BatchEventHandler<T> handler, DispatchExecutor executor, ScheduledExecutorService scheduler, InvocationMetrics metrics){
+        if(handler.batchSize() < 1 || handler.window() < 1 || handler.sampleRate() < 1)
+            throw new IllegalArgumentException("Batch size, window and sample rate of batch event handler '" + handler.getClass().getName() + "' must be positive");
+
+        this.bot = bot;
+        this.handler = handler;
+        this.executor = executor;
+        this.key = -keys.incrementAndGet();
+        this.buffer = new RingBuffer<>(Math.max(handler.capacity(), handler.batchSize()));
+        this.batchSize = handler.batchSize();
+        this.sampleRate = handler.sampleRate();
+        this.overflow = handler.overflow();
+        this.metrics = metrics;
+        this.scheduled = new AtomicBoolean();
+        this.handling = new AtomicBoolean();
+        this.sampled = new AtomicLong();
+        this.window = scheduler.scheduleWithFixedDelay(() -> {
+            if(buffer.size() > 0)
+                requestFlush();
+        }, handler.window(), handler.window(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * To buffer an event, following the overflow policy of the handler if the buffer is full
+     * @param bot The current bot
+     * @param event The event that happened
+     */
+    @Override
+    public void happen(Bot bot, T event){
+        if(closed){
+            metrics.refuse();
+            return;
+        }
+
+        switch(overflow){
+            case SAMPLE:
+                if((buffer.size() >= buffer.capacity() / 2 && sampled.getAndIncrement() % sampleRate != 0) || !buffer.offer(event)){
+                    metrics.refuse();
+                    return;
+                }
+                break;
+            case DROP_OLDEST:
+                while(!buffer.offer(event))
+                    if(buffer.poll() != null)
+                        metrics.refuse();
+                break;
+            default:
+                // The waiting thread handles a batch itself if none is being handled, so it never waits for a flush queued
+                // behind it
+                while(!buffer.offer(event)){
+                    if(handling.compareAndSet(false, true)){
+                        try{
+                            handle();
+                        }finally{
+                            handling.set(false);
+                        }
+                    }else{
+                        LockSupport.parkNanos(100_000);
+                    }
+                }
+        }
+
+        // The batcher was closed while the event was offered, close() may have drained the buffer before it
+        if(closed){
+            drain();
+            return;
+        }
+
+        if(buffer.size() >= batchSize)
+            requestFlush();
+    }
+
+    /**
+     * To stop ending the windows and handle all the buffered events, waiting for the batch being handled if there is one
+     */
+    public void close(){
+        this.closed = true;
+        window.cancel(false);
+        drain();
+    }
+
+    /**
+     * To get the batch event handler
+     * @return The handler
+     */
+    public BatchEventHandler<T> getHandler(){ return handler; }
+
+    /**
+     * To get the amount of buffered events
+     * @return The amount of events
+     */
+    public int size(){ return buffer.size(); }
+
+    // Utility method, handles all the buffered events
+    private void drain(){
+        while(!handling.compareAndSet(false, true))
+            LockSupport.parkNanos(100_000);
+
+        try{
+            while(buffer.size() > 0)
+                handle();
+        }finally{
+            handling.set(false);
+        }
+    }
+
+    // Utility method
+    private void requestFlush(){
+        if(!scheduled.compareAndSet(false, true))
+            return;
+
+        try{
+            executor.execute(key, this::flush);
+        }catch(RejectedExecutionException e){
+            // The bot is shutting down, close() handles the remaining events
+            scheduled.set(false);
+        }
+    }
+
+    // Utility method, handles batches while there are enough buffered events
+    private void flush(){
+        scheduled.set(false);
+
+        if(!handling.compareAndSet(false, true))
+            return;
+
+        try{
+            do{
+                handle();
+            }while(buffer.size() >= batchSize);
+        }finally{
+            handling.set(false);
+        }
+
+        if(buffer.size() >= batchSize)
+            requestFlush();
+    }
+
+    // Utility method
+    private void handle(){
+        List<T> batch = new ArrayList<>(Math.min(batchSize, buffer.size()));
+        buffer.drain(batch::add, batchSize);
+
+        if(batch.isEmpty())
+            return;
+
+        long start = System.nanoTime();
+        boolean failed = false;
+
+        try{
+            handler.happen(bot, batch);
+        }catch(RuntimeException e){
+            failed = true;
+            AsyncLog.error("Batch event handler '{}' failed on {} event(s) : {}", handler.getClass().getName(), batch.size(), e);
+        }
+
+        metrics.record(System.nanoTime() - start, failed);
+    }
+}
@@ -0,0 +1,221 @@
+package fr.dtn.jdl.event;
+
+import net.dv8tion.jda.api.events.GenericEvent;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class that routes events to the event handlers that handle them, using a table indexed by concrete event class.
+ * Registrations replace the whole table, so dispatching threads never lock and never see a partial registration
+ */
+public class EventDispatcher {
+    /**
+     * The routes of an event class that no handler handles
+     */
+    private static final EventHandler<?>[] NONE = new EventHandler<?>[0];
+
+    /**
+     * The current registrations and their routes, replaced as a whole when a handler is registered
+     */
+    private volatile Table table;
+
+    /**
+     * Constructor
+     */
+    public EventDispatcher(){
+        this.table = new Table(new Registration[0]);
+    }
+
+    /**
+     * To add an event handler, resolving its event type from its generic declaration
+     * @param handler The event handler to add
+     */
+    public void register(EventHandler<?> handler){
+        register(resolveEventType(handler.getClass()), handler);
+    }
+
+    /**
+     * To add an event handler with an explicit event type, useful for lambdas whose event type cannot be resolved
+     * @param type The type of the handled event
+     * @param handler The event handler to add
+     */
+    public synchronized void register(Class<? extends GenericEvent> type, EventHandler<?> handler){
+        Registration[] current = table.registrations;
+        Registration[] next = new Registration[current.length + 1];
+        System.arraycopy(current, 0, next, 0, current.length);
+        next[current.length] = new Registration(type, handler);
+
+        this.table = new Table(next);
+    }
+
+    /**
+     * To remove an event handler, the events being dispatched to it still complete
+     * @param handler The event handler to remove
+     * @return If the event handler was registered
+     */
+    public synchronized boolean unregister(EventHandler<?> handler){
+        Registration[] current = table.registrations;
+        List<Registration> next = new ArrayList<>(current.length);
+
+        for(Registration registration : current)
+            if(registration.handler != handler)
+                next.add(registration);
+
+        if(next.size() == current.length)
+            return false;
+
+        this.table = new Table(next.toArray(new Registration[0]));
+        return true;
+    }
+
+    /**
+     * To get the handlers of an event class, compiling its route on first sight
+     * @param eventClass The concrete class of the event
+     * @return The handlers to call, in registration order
+     */
+    public EventHandler<?>[] handlersOf(Class<? extends GenericEvent> eventClass){
+        Table current = table;
+        EventHandler<?>[] handlers = current.routes.get(eventClass);
+
+        if(handlers == null)
+            handlers = current.routes.computeIfAbsent(eventClass, current::compile);
+
+        return handlers;
+    }
+
+    /**
+     * To get the amount of registered handlers
+     * @return The amount of registered handlers
+     */
+    public int size(){ return table.registrations.length; }
+
+    /**
+     * To get the event types handled by the registered handlers
+     * @return The handled event types, without duplicates
+     */
+    public Set<Class<? extends GenericEvent>> getEventTypes(){
+        Set<Class<? extends GenericEvent>> types = new LinkedHashSet<>();
+
+        for(Registration registration : table.registrations)
+            types.add(registration.type);
+
+        return types;
+    }
+
+    /**
+     * To find the event type handled by an event handler or batch event handler class, walking its superclasses and
+     * interfaces
+     * @param handlerClass The class of the event handler
+     * @return The type of the handled event
+     */
+    @SuppressWarnings("unchecked")
+    public static Class<? extends GenericEvent> resolveEventType(Class<?> handlerClass){
+        for(Class<?> current = handlerClass; current != null && current != Object.class; current = current.getSuperclass()){
+            for(Type type : current.getGenericInterfaces()){
+                Class<?> resolved = resolveFromInterface(type);
+
+                if(resolved != null && GenericEvent.class.isAssignableFrom(resolved))
+                    return (Class<? extends GenericEvent>) resolved;
+            }
+        }
+
+        throw new IllegalArgumentException("Unable to resolve the event type of handler '" + handlerClass.getName() + "' : Register it with an explicit event type");
+    }
+
+    // Utility method
+    private static Class<?> resolveFromInterface(Type type){
+        if(type instanceof ParameterizedType){
+            ParameterizedType parameterized = (ParameterizedType) type;
+
+            if(parameterized.getRawType() == EventHandler.class || parameterized.getRawType() == BatchEventHandler.class){
+                Type argument = parameterized.getActualTypeArguments()[0];
+
+                if(argument instanceof ParameterizedType)
+                    argument = ((ParameterizedType) argument).getRawType();
+
+                return argument instanceof Class ? (Class<?>) argument : null;
+            }
+
+            type = parameterized.getRawType();
+        }
+
+        if(type instanceof Class && (EventHandler.class.isAssignableFrom((Class<?>) type) || BatchEventHandler.class.isAssignableFrom((Class<?>) type))){
+            for(Type parent : ((Class<?>) type).getGenericInterfaces()){
+                Class<?> resolved = resolveFromInterface(parent);
+
+                if(resolved != null)
+                    return resolved;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Class that represents an event handler with its resolved event type
+     */
+    static final class Registration {
+        /**
+         * The type of the handled event
+         */
+        final Class<? extends GenericEvent> type;
+        /**
+         * The event handler
+         */
+        final EventHandler<?> handler;
+
+        /**
+         * Constructor
+         * @param type The type of the handled event
+         * @param handler The event handler
+         */
+        Registration(Class<? extends GenericEvent> type, EventHandler<?> handler){
+            this.type = type;
+            this.handler = handler;
+        }
+    }
+
+    /**
+     * Class that represents an immutable set of registrations and the routes compiled from it
+     */
+    static final class Table {
+        /**
+         * The registrations, in registration order
+         */
+        final Registration[] registrations;
+        /**
+         * The handlers of each concrete event class seen so far
+         */
+        final ConcurrentHashMap<Class<?>, EventHandler<?>[]> routes;
+
+        /**
+         * Constructor
+         * @param registrations The registrations
+         */
+        Table(Registration[] registrations){
+            this.registrations = registrations;
+            this.routes = new ConcurrentHashMap<>();
+        }
+
+        /**
+         * To compile the route of an event class, including handlers of its supertypes
+         * @param eventClass The concrete class of the event
+         * @return The handlers of the event class
+         */
+        EventHandler<?>[] compile(Class<?> eventClass){
+            List<EventHandler<?>> handlers = new ArrayList<>();
+
+            for(Registration registration : registrations)
+                if(registration.type.isAssignableFrom(eventClass))
+                    handlers.add(registration.handler);
+
+            return handlers.isEmpty() ? NONE : handlers.toArray(NONE);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package fr.dtn.jdl.execution;
+
+import fr.dtn.jll.Log;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Represents the way event handlers and command executors are run, tasks with the same key are run in submission order
+ */
+public interface DispatchExecutor {
+    /**
+     * The key of the tasks that are not related to a guild
+     */
+    long GLOBAL = 0L;
+
+    /**
+     * To run a task after all the previously submitted tasks with the same key
+     * @param key The key of the task, usually a guild id
+     * @param task The task to run
+     */
+    void execute(long key, Runnable task);
+
+    /**
+     * To run a task after all the previously submitted tasks with the same key, unless the queues are too full for its
+     * priority
+     * @param key The key of the task, usually a guild id
+     * @param priority The priority of the task
+     * @param task The task to run
+     * @return If the task was accepted, false if it was shed
+     */
+    default boolean offer(long key, Priority priority, Runnable task){
+        execute(key, task);
+        return true;
+    }
+
+    /**
+     * To get the statistics of the queues of the executor
+     * @return The statistics of each queue
+     */
+    List<QueueStatistics> getStatistics();
+
+    /**
+     * To remove the queues that have no waiting task and did not run any for a while, along with their statistics
+     * @param idle The time in milliseconds a queue must have been idle to be removed
+     * @return The amount of removed queues
+     */
+    default int evictIdle(long idle){ return 0; }
+
+    /**
+     * To stop accepting tasks and wait for the submitted ones to finish
+     */
+    void shutdown();
+
+    /**
+     * To create the executor corresponding to an execution mode
+     * @param mode The execution mode
+     * @param threads The amount of threads of the pool, only used by the POOL mode
+     * @return The created executor
+     */
+    static DispatchExecutor of(ExecutionMode mode, int threads){ return of(mode, threads, 0, 0, 0); }
+
+    /**
+     * To create the executor corresponding to an execution mode, with bounded queues
+     * @param mode The execution mode
+     * @param threads The amount of threads of the pool, only used by the POOL mode
+     * @param capacity The maximum amount of waiting tasks of all the queues together, 0 for no limit
+     * @param queueCapacity The maximum amount of waiting tasks of one queue, 0 for no limit
+     * @param backpressure The maximum time in milliseconds the thread submitting a CRITICAL task waits for room in the queues
+     * @return The created executor
+     */
+    static DispatchExecutor of(ExecutionMode mode, int threads, int capacity, int queueCapacity, long backpressure){
+        switch(mode){
+            case POOL:
+                return new OrderedExecutor(Executors.newFixedThreadPool(threads, threadFactory("jdl-worker-")), capacity, queueCapacity, backpressure);
+            case VIRTUAL:
+                try{
+                    ExecutorService virtual = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+                    return new OrderedExecutor(virtual, capacity, queueCapacity, backpressure);
+                }catch(ReflectiveOperationException e){
+                    Log.warn("Virtual threads are not supported by this JVM, using a pool of " + threads + " threads instead");
+                    return of(ExecutionMode.POOL, threads, capacity, queueCapacity, backpressure);
+                }
+            default:
+                return new InlineExecutor();
+        }
+    }
+
+    // Utility method
+    private static ThreadFactory threadFactory(String prefix){
+        AtomicInteger count = new AtomicInteger();
+
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
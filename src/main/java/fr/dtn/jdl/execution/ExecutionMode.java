@@ -0,0 +1,10 @@
+package fr.dtn.jdl.execution;
+
+/**
+ * Different ways of running event handlers and command executors
+ */
+public enum ExecutionMode {
+    INLINE, // On the JDA gateway thread that received the event
+    POOL, // On a fixed pool of platform threads
+    VIRTUAL; // On virtual threads, when the running JVM supports them
+}
@@ -0,0 +1,18 @@
+package fr.dtn.jdl.execution;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Executor that runs tasks directly on the calling thread
+ */
+public class InlineExecutor implements DispatchExecutor {
+    @Override
+    public void execute(long key, Runnable task){ task.run(); }
+
+    @Override
+    public List<QueueStatistics> getStatistics(){ return Collections.emptyList(); }
+
+    @Override
+    public void shutdown(){}
+}
@@ -0,0 +1,305 @@
+package fr.dtn.jdl.execution;
+
+import fr.dtn.jll.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Executor that runs tasks on a thread pool, with one serial queue per key so that tasks of a same key keep their order
+ * while tasks of different keys run in parallel. The queues can be bounded, tasks offered to full queues are then shed
+ * depending on their priority, so that bursts of events do not pile up in memory. Queues idle for a while are removed by
+ * evictIdle(...), so the keys of guilds the bot left do not stay in memory
+ */
+public class OrderedExecutor implements DispatchExecutor {
+    /**
+     * The maximum amount of tasks a queue runs before giving its thread back to other queues
+     */
+    private static final int BATCH = 32;
+
+    /**
+     * The threads running the queues
+     */
+    private final ExecutorService workers;
+    /**
+     * The serial queues, by key
+     */
+    private final ConcurrentHashMap<Long, SerialQueue> queues;
+    /**
+     * The maximum amount of waiting tasks of all the queues together and of one queue, 0 for no limit
+     */
+    private final int capacity, queueCapacity;
+    /**
+     * The maximum time the thread submitting a CRITICAL task waits for room in the queues, in nanoseconds
+     */
+    private final long backpressure;
+    /**
+     * The amount of waiting tasks of all the queues together
+     */
+    private final AtomicInteger pending;
+
+    /**
+     * Constructor
+     * @param workers The threads running the queues
+     */
+    public OrderedExecutor(ExecutorService workers){ this(workers, 0, 0, 0); }
+
+    /**
+     * Constructor
+     * @param workers The threads running the queues
+     * @param capacity The maximum amount of waiting tasks of all the queues together, 0 for no limit
+     * @param queueCapacity The maximum amount of waiting tasks of one queue, 0 for no limit
+     * @param backpressure The maximum time in milliseconds the thread submitting a CRITICAL task waits for room in the queues
+     */
+    public OrderedExecutor(ExecutorService workers, int capacity, int queueCapacity, long backpressure){
+        if(capacity < 0 || queueCapacity < 0 || backpressure < 0)
+            throw new IllegalArgumentException("Capacities and backpressure of the execution queues cannot be negative");
+
+        this.workers = workers;
+        this.queues = new ConcurrentHashMap<>();
+        this.capacity = capacity;
+        this.queueCapacity = queueCapacity;
+        this.backpressure = TimeUnit.MILLISECONDS.toNanos(backpressure);
+        this.pending = new AtomicInteger();
+    }
+
+    @Override
+    public void execute(long key, Runnable task){ submit(key, task); }
+
+    @Override
+    public boolean offer(long key, Priority priority, Runnable task){
+        // The bounds are checked before the task is added, so concurrent submissions can go slightly above them
+        if(priority == Priority.CRITICAL){
+            if(isFull(key)){
+                SerialQueue queue = queues.computeIfAbsent(key, SerialQueue::new);
+
+                // A burst on a queue only slows the submitting thread down once, until the queue has room again
+                if(!queue.saturated){
+                    long deadline = System.nanoTime() + backpressure;
+
+                    // Slowing the thread down slows JDA reading events from Discord, instead of letting them pile up
+                    while(isFull(key) && deadline - System.nanoTime() > 0)
+                        LockSupport.parkNanos(100_000);
+
+                    queue.saturated = isFull(key);
+                }
+            }else{
+                SerialQueue queue = queues.get(key);
+
+                if(queue != null && queue.saturated)
+                    queue.saturated = false;
+            }
+        }else if(priority.isShed(pending.get(), capacity) || priority.isShed(depthOf(key), queueCapacity)){
+            return false;
+        }
+
+        submit(key, task);
+        return true;
+    }
+
+    /**
+     * To get the amount of waiting tasks of all the queues together
+     * @return The amount of waiting tasks
+     */
+    public int getPending(){ return pending.get(); }
+
+    @Override
+    public List<QueueStatistics> getStatistics(){
+        List<QueueStatistics> statistics = new ArrayList<>(queues.size());
+        queues.values().forEach(queue -> statistics.add(queue.statistics()));
+        return statistics;
+    }
+
+    @Override
+    public int evictIdle(long idle){
+        long now = System.nanoTime();
+        long limit = TimeUnit.MILLISECONDS.toNanos(idle);
+        int before = queues.size();
+
+        // The queue is removed within the map, so a task cannot be added to it meanwhile
+        for(Long key : queues.keySet())
+            queues.computeIfPresent(key, (k, queue) -> queue.tasks.isEmpty() && !queue.scheduled.get() && now - queue.lastActive > limit ? null : queue);
+
+        return Math.max(0, before - queues.size());
+    }
+
+    // Utility method, the task is added within the map so that the queue cannot be removed meanwhile
+    private void submit(long key, Runnable task){
+        Task entry = new Task(task, System.nanoTime());
+        SerialQueue queue = queues.compute(key, (k, current) -> {
+            SerialQueue target = current == null ? new SerialQueue(k) : current;
+            target.tasks.add(entry);
+            return target;
+        });
+
+        queue.depth.incrementAndGet();
+        pending.incrementAndGet();
+        queue.schedule();
+    }
+
+    // Utility method
+    private int depthOf(long key){
+        SerialQueue queue = queues.get(key);
+        return queue == null ? 0 : queue.depth.get();
+    }
+
+    // Utility method
+    private boolean isFull(long key){ return Priority.HIGH.isShed(pending.get(), capacity) || Priority.HIGH.isShed(depthOf(key), queueCapacity); }
+
+    @Override
+    public void shutdown(){
+        workers.shutdown();
+
+        try{
+            if(!workers.awaitTermination(10, TimeUnit.SECONDS))
+                Log.warn("Execution queues did not finish within 10 seconds");
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Class that represents the queue of the tasks of one key, run by at most one thread at a time
+     */
+    final class SerialQueue implements Runnable {
+        /**
+         * The key of the queue
+         */
+        private final long key;
+        /**
+         * The waiting tasks
+         */
+        private final ConcurrentLinkedQueue<Task> tasks;
+        /**
+         * The amount of waiting tasks
+         */
+        private final AtomicInteger depth;
+        /**
+         * If the queue is currently scheduled on a worker
+         */
+        private final AtomicBoolean scheduled;
+        /**
+         * The amount of run tasks and the total time spent waiting and running, in nanoseconds
+         */
+        private final LongAdder executed, waitTime, runTime;
+        /**
+         * The maximum time spent waiting by a task, in nanoseconds
+         */
+        private final AtomicLong maxWait;
+
+        /**
+         * The last moment the queue ran out of tasks, or was created, from System.nanoTime()
+         */
+        private volatile long lastActive;
+        /**
+         * If a CRITICAL task already waited for room in this queue without getting it, the next ones are then queued
+         * right away until the queue has room again
+         */
+        private volatile boolean saturated;
+
+        /**
+         * Constructor
+         * @param key The key of the queue
+         */
+        SerialQueue(long key){
+            this.key = key;
+            this.tasks = new ConcurrentLinkedQueue<>();
+            this.depth = new AtomicInteger();
+            this.scheduled = new AtomicBoolean();
+            this.executed = new LongAdder();
+            this.waitTime = new LongAdder();
+            this.runTime = new LongAdder();
+            this.maxWait = new AtomicLong();
+            this.lastActive = System.nanoTime();
+        }
+
+        // Utility method
+        private void schedule(){
+            if(!scheduled.compareAndSet(false, true))
+                return;
+
+            try{
+                workers.execute(this);
+            }catch(RejectedExecutionException e){
+                scheduled.set(false);
+                Log.error("Execution queue " + key + " rejected " + depth.get() + " task(s) : Executor is shut down");
+            }
+        }
+
+        @Override
+        public void run(){
+            for(int i = 0; i < BATCH; i++){
+                Task task = tasks.poll();
+
+                if(task == null)
+                    break;
+
+                depth.decrementAndGet();
+                pending.decrementAndGet();
+                long start = System.nanoTime();
+                long wait = start - task.submitted;
+                waitTime.add(wait);
+                maxWait.accumulateAndGet(wait, Math::max);
+
+                try{
+                    task.runnable.run();
+                }catch(Throwable t){
+                    Log.error("Task of execution queue " + key + " failed : " + t);
+                }
+
+                runTime.add(System.nanoTime() - start);
+                executed.increment();
+            }
+
+            lastActive = System.nanoTime();
+            scheduled.set(false);
+
+            if(!tasks.isEmpty())
+                schedule();
+        }
+
+        /**
+         * To take a snapshot of the statistics of the queue
+         * @return The statistics of the queue
+         */
+        QueueStatistics statistics(){
+            long count = executed.sum();
+            long divisor = Math.max(1, count);
+            return new QueueStatistics(key, depth.get(), count, waitTime.sum() / divisor, maxWait.get(), runTime.sum() / divisor);
+        }
+    }
+
+    /**
+     * Class that represents a task and the moment it was submitted
+     */
+    static final class Task {
+        /**
+         * The task itself
+         */
+        final Runnable runnable;
+        /**
+         * The moment the task was submitted, from System.nanoTime()
+         */
+        final long submitted;
+
+        /**
+         * Constructor
+         * @param runnable The task itself
+         * @param submitted The moment the task was submitted
+         */
+        Task(Runnable runnable, long submitted){
+            this.runnable = runnable;
+            this.submitted = submitted;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package fr.dtn.jdl.execution;
+
+/**
+ * Different priorities of the tasks of the execution queues, telling how full the queues can be before the tasks are shed
+ */
+public enum Priority {
+    LOW(50), // Shed once the queues are half full, such as typing and presence events
+    NORMAL(80), // Shed once the queues are 80% full, the default of events and raw text commands
+    HIGH(100), // Shed once the queues are full
+    CRITICAL(0); // Never shed, the dispatching thread waits for room for a while once the queues are full, the default of slash commands
+
+    /**
+     * The percentage of the capacity of the queues the tasks can use, 0 for all of it and more
+     */
+    private final int share;
+
+    /**
+     * Constructor
+     * @param share The percentage of the capacity of the queues the tasks can use, 0 for all of it and more
+     */
+    Priority(int share){
+        this.share = share;
+    }
+
+    /**
+     * To know if a task of this priority is shed
+     * @param depth The amount of waiting tasks
+     * @param capacity The capacity of the queues, 0 if they are unbounded
+     * @return If the task is shed
+     */
+    public boolean isShed(int depth, int capacity){ return share > 0 && capacity > 0 && depth >= (long) capacity * share / 100; }
+}
@@ -0,0 +1,83 @@
+package fr.dtn.jdl.execution;
+
+/**
+ * Class that represents a snapshot of the statistics of an execution queue
+ */
+public class QueueStatistics {
+    /**
+     * The key of the queue
+     */
+    private final long key;
+    /**
+     * The amount of tasks waiting in the queue
+     */
+    private final int depth;
+    /**
+     * The amount of tasks that have been run
+     */
+    private final long executed;
+    /**
+     * The average and maximum time spent by tasks waiting in the queue, and the average time spent running them, in nanoseconds
+     */
+    private final long averageWait, maxWait, averageRun;
+
+    /**
+     * Constructor
+     * @param key The key of the queue
+     * @param depth The amount of tasks waiting in the queue
+     * @param executed The amount of tasks that have been run
+     * @param averageWait The average time spent by tasks waiting in the queue, in nanoseconds
+     * @param maxWait The maximum time spent by a task waiting in the queue, in nanoseconds
+     * @param averageRun The average time spent running tasks, in nanoseconds
+     */
+    public QueueStatistics(long key, int depth, long executed, long averageWait, long maxWait, long averageRun){
+        this.key = key;
+        this.depth = depth;
+        this.executed = executed;
+        this.averageWait = averageWait;
+        this.maxWait = maxWait;
+        this.averageRun = averageRun;
+    }
+
+    /**
+     * To get key
+     * @return Key
+     */
+    public long getKey() { return key; }
+
+    /**
+     * To get depth
+     * @return Depth
+     */
+    public int getDepth() { return depth; }
+
+    /**
+     * To get executed
+     * @return Executed
+     */
+    public long getExecuted() { return executed; }
+
+    /**
+     * To get averageWait
+     * @return averageWait, in nanoseconds
+     */
+    public long getAverageWait() { return averageWait; }
+
+    /**
+     * To get maxWait
+     * @return maxWait, in nanoseconds
+     */
+    public long getMaxWait() { return maxWait; }
+
+    /**
+     * To get averageRun
+     * @return averageRun, in nanoseconds
+     */
+    public long getAverageRun() { return averageRun; }
+
+    @Override
+    public String toString(){
+        return "queue " + key + " : depth=" + depth + " executed=" + executed
+                + " wait(avg/max)=" + averageWait / 1000 + "/" + maxWait / 1000 + "us run(avg)=" + averageRun / 1000 + "us";
+    }
+}
@@ -0,0 +1,61 @@
+package fr.dtn.jdl.gateway;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.utils.SessionControllerAdapter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class that makes the shards of this node wait for the turn of the node before they identify, on top of the spacing
+ * of the shards of a same process done by JDA
+ */
+public class CoordinatedSessionController extends SessionControllerAdapter {
+    /**
+     * The coordinator giving the turns to identify
+     */
+    private final ShardCoordinator coordinator;
+    /**
+     * The waiting node of each session, to remove it if the session is closed before it connects
+     */
+    private final Map<SessionConnectNode, SessionConnectNode> waiting;
+
+    /**
+     * Constructor
+     * @param coordinator The coordinator giving the turns to identify
+     */
+    public CoordinatedSessionController(ShardCoordinator coordinator){
+        this.coordinator = coordinator;
+        this.waiting = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void appendSession(SessionConnectNode node){
+        SessionConnectNode coordinated = new SessionConnectNode() {
+            @Override
+            public boolean isReconnect(){ return node.isReconnect(); }
+
+            @Override
+            public JDA getJDA(){ return node.getJDA(); }
+
+            @Override
+            public JDA.ShardInfo getShardInfo(){ return node.getShardInfo(); }
+
+            @Override
+            public void run(boolean isLast) throws InterruptedException {
+                waiting.remove(node);
+                coordinator.awaitIdentify();
+                node.run(isLast);
+            }
+        };
+
+        waiting.put(node, coordinated);
+        super.appendSession(coordinated);
+    }
+
+    @Override
+    public void removeSession(SessionConnectNode node){
+        SessionConnectNode coordinated = waiting.remove(node);
+        super.removeSession(coordinated == null ? node : coordinated);
+    }
+}
@@ -0,0 +1,209 @@
+package fr.dtn.jdl.gateway;
+
+import fr.dtn.jll.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Class that coordinates the nodes of a bot through a shared directory, for nodes running on the same host or sharing a
+ * file system. Each node writes the time of its last heartbeat in 'nodes/[node]', and the nodes whose heartbeat is
+ * older than the timeout are considered dead. Every node sorts the live nodes by name and takes the range of shards of
+ * its index, so that all the nodes agree on the assignment without any leader. The moment of the last identify is kept
+ * in 'identify', locked while a node waits for its turn
+ */
+public class FileShardCoordinator implements ShardCoordinator {
+    /**
+     * The directory shared by the nodes
+     */
+    private final File directory;
+    /**
+     * The heartbeat file of each node
+     */
+    private final File nodes;
+    /**
+     * The name of this node, unique among the nodes
+     */
+    private final String node;
+    /**
+     * The interval between two heartbeats, in milliseconds
+     */
+    private final long heartbeat;
+    /**
+     * The time without heartbeat after which a node is considered dead, in milliseconds
+     */
+    private final long timeout;
+    /**
+     * The minimum time between two identifies of any node, in milliseconds
+     */
+    private final long identifyDelay;
+    /**
+     * Sends the heartbeats and checks the other nodes
+     */
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * The total amount of shards, 0 before joining
+     */
+    private volatile int total;
+    /**
+     * The shards this node currently runs
+     */
+    private volatile int[] shards;
+    /**
+     * The method called with the new shards when they change
+     */
+    private volatile Consumer<int[]> listener;
+
+    /**
+     * Constructor
+     * @param directory The directory shared by the nodes
+     * @param node The name of this node, unique among the nodes
+     * @param heartbeat The interval between two heartbeats, in milliseconds
+     * @param timeout The time without heartbeat after which a node is considered dead, in milliseconds
+     * @param identifyDelay The minimum time between two identifies of any node, in milliseconds
+     */
+    public FileShardCoordinator(File directory, String node, long heartbeat, long timeout, long identifyDelay){
+        if(timeout <= heartbeat)
+            throw new IllegalArgumentException("The timeout of the nodes must be longer than their heartbeat interval");
+
+        this.directory = directory;
+        this.nodes = new File(directory, "nodes");
+        this.node = node.replaceAll("[^A-Za-z0-9._-]", "_");
+        this.heartbeat = heartbeat;
+        this.timeout = timeout;
+        this.identifyDelay = identifyDelay;
+        this.shards = new int[0];
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jdl-coordinator");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public synchronized int[] join(int total) throws IOException {
+        if(total <= 0)
+            throw new IllegalArgumentException("The total amount of shards must be positive");
+        if(!nodes.isDirectory() && !nodes.mkdirs())
+            throw new IOException("Unable to create directory '" + nodes.getPath() + "'");
+
+        this.total = total;
+        beat();
+        this.shards = assign();
+
+        Log.info("Node '" + node + "' joined the coordinator in '" + directory.getPath() + "' with shards " + Arrays.toString(shards) + " of " + total);
+        scheduler.scheduleAtFixedRate(this::tick, heartbeat, heartbeat, TimeUnit.MILLISECONDS);
+
+        return shards.clone();
+    }
+
+    @Override
+    public int[] getShards(){ return shards.clone(); }
+
+    @Override
+    public void onRebalance(Consumer<int[]> listener){ this.listener = listener; }
+
+    @Override
+    public void awaitIdentify() throws InterruptedException {
+        File file = new File(directory, "identify");
+
+        // File locks are held by the whole process : threads of a same process take turns on the class first
+        synchronized(FileShardCoordinator.class){
+            try(RandomAccessFile access = new RandomAccessFile(file, "rw"); FileChannel channel = access.getChannel()){
+                FileLock lock = channel.lock();
+
+                try{
+                    long last = access.length() >= Long.BYTES ? access.readLong() : 0;
+                    long wait = last + identifyDelay - System.currentTimeMillis();
+
+                    if(wait > 0)
+                        Thread.sleep(Math.min(wait, identifyDelay));
+
+                    access.seek(0);
+                    access.writeLong(System.currentTimeMillis());
+                }finally{
+                    lock.release();
+                }
+            }catch(IOException e){
+                Log.error("Unable to reserve the identify slot in '" + file.getPath() + "', identifying anyway : " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close(){
+        scheduler.shutdownNow();
+
+        File file = new File(nodes, node);
+        if(file.exists() && !file.delete())
+            Log.error("Unable to remove the heartbeat of node '" + node + "'");
+    }
+
+    // Utility method, runs on the scheduler
+    private void tick(){
+        try{
+            beat();
+
+            int[] next = assign();
+
+            if(!Arrays.equals(next, shards)){
+                Log.info("Shards of node '" + node + "' rebalanced from " + Arrays.toString(shards) + " to " + Arrays.toString(next));
+                this.shards = next;
+
+                Consumer<int[]> listener = this.listener;
+                if(listener != null)
+                    listener.accept(next.clone());
+            }
+        }catch(IOException | RuntimeException e){
+            Log.error("Coordinator of node '" + node + "' failed to update : " + e.getMessage());
+        }
+    }
+
+    // Utility method, the file is replaced as a whole so that other nodes never read a partial heartbeat
+    private void beat() throws IOException {
+        File temporary = new File(nodes, node + ".tmp");
+        Files.write(temporary.toPath(), Long.toString(System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8));
+        Files.move(temporary.toPath(), new File(nodes, node).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Utility method
+    private int[] assign(){
+        List<String> live = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        File[] files = nodes.listFiles();
+
+        if(files != null){
+            for(File file : files){
+                if(file.getName().endsWith(".tmp"))
+                    continue;
+
+                try{
+                    long last = Long.parseLong(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).trim());
+
+                    if(now - last < timeout || file.getName().equals(node))
+                        live.add(file.getName());
+                }catch(IOException | NumberFormatException ignored){
+                    // Removed or being replaced, the next check sees it again
+                }
+            }
+        }
+
+        Collections.sort(live);
+        return ShardCoordinator.range(total, live.size(), live.indexOf(node));
+    }
+}
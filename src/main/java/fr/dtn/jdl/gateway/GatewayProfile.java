@@ -0,0 +1,311 @@
+package fr.dtn.jdl.gateway;
+
+import com.moandjiezana.toml.Toml;
+import fr.dtn.jll.Log;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.channel.forum.GenericForumTagEvent;
+import net.dv8tion.jda.api.events.channel.update.ChannelUpdateAppliedTagsEvent;
+import net.dv8tion.jda.api.events.emoji.GenericEmojiEvent;
+import net.dv8tion.jda.api.events.guild.override.GenericPermissionOverrideEvent;
+import net.dv8tion.jda.api.events.guild.scheduledevent.GenericScheduledEventGatewayEvent;
+import net.dv8tion.jda.api.events.guild.voice.GenericGuildVoiceEvent;
+import net.dv8tion.jda.api.events.sticker.GenericGuildStickerEvent;
+import net.dv8tion.jda.api.events.user.UserActivityEndEvent;
+import net.dv8tion.jda.api.events.user.UserActivityStartEvent;
+import net.dv8tion.jda.api.events.user.update.UserUpdateActivitiesEvent;
+import net.dv8tion.jda.api.events.user.update.UserUpdateActivityOrderEvent;
+import net.dv8tion.jda.api.events.user.update.UserUpdateOnlineStatusEvent;
+import net.dv8tion.jda.api.requests.GatewayIntent;
+import net.dv8tion.jda.api.sharding.DefaultShardManagerBuilder;
+import net.dv8tion.jda.api.utils.ChunkingFilter;
+import net.dv8tion.jda.api.utils.MemberCachePolicy;
+import net.dv8tion.jda.api.utils.cache.CacheFlag;
+
+import java.util.*;
+
+/**
+ * Class that represents the intents and caches of the connection to Discord, read from the 'bot.intents' field and the
+ * 'cache' section of 'configuration.toml'. With the 'AUTO' intent, the intents and cache flags are worked out from the
+ * event types of the registered handlers, so that the bot only receives and keeps what they read
+ */
+public class GatewayProfile {
+    /**
+     * The intent name that makes the intents worked out from the registered handlers
+     */
+    public static final String AUTO = "AUTO";
+
+    /**
+     * The cache flags needed by each event type, the events of a type only happen if its flag is enabled
+     */
+    private static final Map<Class<? extends GenericEvent>, CacheFlag> CACHE_FLAGS = new LinkedHashMap<>();
+
+    static{
+        CACHE_FLAGS.put(UserUpdateOnlineStatusEvent.class, CacheFlag.ONLINE_STATUS);
+        CACHE_FLAGS.put(UserUpdateActivitiesEvent.class, CacheFlag.ACTIVITY);
+        CACHE_FLAGS.put(UserUpdateActivityOrderEvent.class, CacheFlag.ACTIVITY);
+        CACHE_FLAGS.put(UserActivityStartEvent.class, CacheFlag.ACTIVITY);
+        CACHE_FLAGS.put(UserActivityEndEvent.class, CacheFlag.ACTIVITY);
+        CACHE_FLAGS.put(GenericGuildVoiceEvent.class, CacheFlag.VOICE_STATE);
+        CACHE_FLAGS.put(GenericEmojiEvent.class, CacheFlag.EMOJI);
+        CACHE_FLAGS.put(GenericGuildStickerEvent.class, CacheFlag.STICKER);
+        CACHE_FLAGS.put(GenericScheduledEventGatewayEvent.class, CacheFlag.SCHEDULED_EVENTS);
+        CACHE_FLAGS.put(GenericForumTagEvent.class, CacheFlag.FORUM_TAGS);
+        CACHE_FLAGS.put(ChannelUpdateAppliedTagsEvent.class, CacheFlag.FORUM_TAGS);
+        CACHE_FLAGS.put(GenericPermissionOverrideEvent.class, CacheFlag.MEMBER_OVERRIDES);
+    }
+
+    /**
+     * If the intents and cache flags are worked out from the registered handlers
+     */
+    private final boolean automatic;
+    /**
+     * The intents from the configuration, added to the worked out ones in automatic mode
+     */
+    private final EnumSet<GatewayIntent> intents;
+    /**
+     * If nothing optional is cached by default, neither members nor cache flags
+     */
+    private final boolean compact;
+    /**
+     * The members kept in cache, or null for the default of the preset
+     */
+    private final MemberCachePolicy memberCachePolicy;
+    /**
+     * The names of the member cache policies, to work out the intents they need
+     */
+    private final Set<String> memberCachePolicies;
+    /**
+     * The guilds whose members are all loaded on startup, or null for the default of the preset
+     */
+    private final ChunkingFilter chunkingFilter;
+    /**
+     * The cache flags enabled and disabled by the configuration
+     */
+    private final EnumSet<CacheFlag> enabledFlags, disabledFlags;
+
+    /**
+     * Constructor
+     * @param automatic If the intents and cache flags are worked out from the registered handlers
+     * @param intents The intents from the configuration
+     * @param compact If nothing optional is cached by default
+     * @param memberCachePolicies The names of the member cache policies, empty for the default of the preset
+     * @param chunkingFilter The guilds whose members are all loaded on startup, or null for the default of the preset
+     * @param enabledFlags The cache flags enabled by the configuration
+     * @param disabledFlags The cache flags disabled by the configuration
+     */
+    public GatewayProfile(boolean automatic, Collection<GatewayIntent> intents, boolean compact, Collection<String> memberCachePolicies, ChunkingFilter chunkingFilter, Collection<CacheFlag> enabledFlags, Collection<CacheFlag> disabledFlags){
+        this.automatic = automatic;
+        this.intents = intents.isEmpty() ? EnumSet.noneOf(GatewayIntent.class) : EnumSet.copyOf(intents);
+        this.compact = compact;
+        this.memberCachePolicies = new LinkedHashSet<>(memberCachePolicies);
+        this.memberCachePolicy = memberCachePolicy(this.memberCachePolicies);
+        this.chunkingFilter = chunkingFilter;
+        this.enabledFlags = enabledFlags.isEmpty() ? EnumSet.noneOf(CacheFlag.class) : EnumSet.copyOf(enabledFlags);
+        this.disabledFlags = disabledFlags.isEmpty() ? EnumSet.noneOf(CacheFlag.class) : EnumSet.copyOf(disabledFlags);
+    }
+
+    /**
+     * To read a profile from the configuration
+     * @param configuration The content of 'configuration.toml'
+     * @return The profile
+     */
+    public static GatewayProfile of(Toml configuration){
+        boolean automatic = false;
+        List<GatewayIntent> intents = new ArrayList<>();
+
+        for(Object o : configuration.getList("bot.intents", Collections.emptyList())){
+            String intent = o.toString().toUpperCase();
+
+            if(intent.equals(AUTO)){
+                automatic = true;
+                continue;
+            }
+
+            try{
+                intents.add(GatewayIntent.valueOf(intent));
+            }catch(IllegalArgumentException e){
+                Log.error("Unable to add enable intent '" + intent + "' : Intent does not exist");
+            }
+        }
+
+        Toml cache = configuration.getTable("cache");
+        Map<String, Object> values = cache == null ? Collections.emptyMap() : cache.toMap();
+
+        String preset = values.getOrDefault("preset", "DEFAULT").toString().toUpperCase();
+        if(!preset.equals("") && !preset.equals("DEFAULT") && !preset.equals("COMPACT"))
+            throw new IllegalArgumentException("Unknown cache preset '" + preset + "' : Use DEFAULT or COMPACT");
+
+        List<String> members = new ArrayList<>();
+        for(Object o : list(values.get("members")))
+            members.add(o.toString().toUpperCase());
+
+        return new GatewayProfile(automatic, intents, preset.equals("COMPACT"), members, chunkingFilter(values.get("chunking")),
+                cacheFlags(values.get("flags")), cacheFlags(values.get("disabledFlags")));
+    }
+
+    /**
+     * To create the builder of the shard manager with the intents and caches of the profile
+     * @param token The token of the bot
+     * @param eventTypes The event types of the registered handlers
+     * @param rawCommands If raw text commands are registered, which need the content of guild messages
+     * @param permissions If commands check permissions, which need the permission overrides of members
+     * @return The builder
+     */
+    public DefaultShardManagerBuilder createBuilder(String token, Collection<Class<? extends GenericEvent>> eventTypes, boolean rawCommands, boolean permissions){
+        EnumSet<GatewayIntent> intents = EnumSet.copyOf(this.intents);
+        EnumSet<CacheFlag> flags = EnumSet.copyOf(this.enabledFlags);
+
+        if(automatic){
+            flags.addAll(requiredCacheFlags(eventTypes));
+            if(permissions)
+                flags.add(CacheFlag.MEMBER_OVERRIDES);
+            flags.removeAll(disabledFlags);
+
+            intents.addAll(GatewayIntent.from(eventTypes, flags));
+            if(rawCommands){
+                intents.add(GatewayIntent.GUILD_MESSAGES);
+                intents.add(GatewayIntent.MESSAGE_CONTENT);
+            }
+            if(chunkingFilter != null && chunkingFilter != ChunkingFilter.NONE)
+                intents.add(GatewayIntent.GUILD_MEMBERS);
+            for(String policy : memberCachePolicies){
+                if(policy.equals("ONLINE"))
+                    intents.add(GatewayIntent.GUILD_PRESENCES);
+                if(!policy.equals("NONE") && !policy.equals("OWNER") && !policy.equals("VOICE") && !policy.equals("DEFAULT"))
+                    intents.add(GatewayIntent.GUILD_MEMBERS);
+            }
+
+            Log.info("Intents worked out from the registered handlers : " + intents);
+        }
+
+        DefaultShardManagerBuilder builder = compact
+                ? DefaultShardManagerBuilder.createLight(token, intents)
+                : DefaultShardManagerBuilder.createDefault(token, intents);
+
+        if(automatic){
+            EnumSet<CacheFlag> unused = EnumSet.complementOf(flags);
+
+            if(!flags.isEmpty())
+                builder.enableCache(flags);
+            if(!unused.isEmpty())
+                builder.disableCache(unused);
+
+            Log.info("Cache flags worked out from the registered handlers : " + flags);
+        }else{
+            if(!enabledFlags.isEmpty())
+                builder.enableCache(enabledFlags);
+            if(!disabledFlags.isEmpty())
+                builder.disableCache(disabledFlags);
+        }
+
+        if(memberCachePolicy != null){
+            Log.info("Caching members : " + String.join(" or ", memberCachePolicies));
+            builder.setMemberCachePolicy(memberCachePolicy);
+        }
+        if(chunkingFilter != null)
+            builder.setChunkingFilter(chunkingFilter);
+
+        return builder;
+    }
+
+    /**
+     * To work out the cache flags needed by event types, the events of a type only happen if their cache flags are enabled
+     * @param eventTypes The event types
+     * @return The cache flags
+     */
+    public static EnumSet<CacheFlag> requiredCacheFlags(Collection<Class<? extends GenericEvent>> eventTypes){
+        EnumSet<CacheFlag> flags = EnumSet.noneOf(CacheFlag.class);
+
+        for(Class<? extends GenericEvent> type : eventTypes)
+            for(Map.Entry<Class<? extends GenericEvent>, CacheFlag> entry : CACHE_FLAGS.entrySet())
+                if(entry.getKey().isAssignableFrom(type))
+                    flags.add(entry.getValue());
+
+        return flags;
+    }
+
+    /**
+     * To get if the intents and cache flags are worked out from the registered handlers
+     * @return If the intents and cache flags are worked out from the registered handlers
+     */
+    public boolean isAutomatic(){ return automatic; }
+
+    /**
+     * To get if nothing optional is cached by default
+     * @return If the profile uses the COMPACT preset
+     */
+    public boolean isCompact(){ return compact; }
+
+    // Utility method
+    private static MemberCachePolicy memberCachePolicy(Collection<String> names){
+        MemberCachePolicy policy = null;
+
+        for(String name : names){
+            MemberCachePolicy next;
+
+            switch(name){
+                case "NONE": next = MemberCachePolicy.NONE; break;
+                case "ALL": next = MemberCachePolicy.ALL; break;
+                case "OWNER": next = MemberCachePolicy.OWNER; break;
+                case "ONLINE": next = MemberCachePolicy.ONLINE; break;
+                case "VOICE": next = MemberCachePolicy.VOICE; break;
+                case "PENDING": next = MemberCachePolicy.PENDING; break;
+                case "BOOSTER": next = MemberCachePolicy.BOOSTER; break;
+                case "DEFAULT": next = MemberCachePolicy.DEFAULT; break;
+                default: throw new IllegalArgumentException("Unknown member cache policy '" + name + "' : Use NONE, ALL, OWNER, ONLINE, VOICE, PENDING, BOOSTER or DEFAULT");
+            }
+
+            policy = policy == null ? next : policy.or(next);
+        }
+
+        return policy;
+    }
+
+    // Utility method, the filter is either 'ALL', 'NONE' or a list of guild ids
+    private static ChunkingFilter chunkingFilter(Object value){
+        if(value == null || value.toString().equals(""))
+            return null;
+
+        if(!(value instanceof List)){
+            String name = value.toString().toUpperCase();
+
+            if(name.equals("ALL"))
+                return ChunkingFilter.ALL;
+            if(name.equals("NONE"))
+                return ChunkingFilter.NONE;
+
+            throw new IllegalArgumentException("Unknown chunking filter '" + value + "' : Use ALL, NONE or a list of guild ids");
+        }
+
+        List<?> guilds = (List<?>) value;
+        long[] ids = new long[guilds.size()];
+
+        for(int i = 0; i < ids.length; i++)
+            ids[i] = Long.parseLong(guilds.get(i).toString());
+
+        return ChunkingFilter.include(ids);
+    }
+
+    // Utility method
+    private static List<CacheFlag> cacheFlags(Object value){
+        List<CacheFlag> flags = new ArrayList<>();
+
+        for(Object o : list(value)){
+            try{
+                flags.add(CacheFlag.valueOf(o.toString().toUpperCase()));
+            }catch(IllegalArgumentException e){
+                Log.error("Unable to use cache flag '" + o + "' : Cache flag does not exist");
+            }
+        }
+
+        return flags;
+    }
+
+    // Utility method
+    private static List<?> list(Object value){
+        if(value == null)
+            return Collections.emptyList();
+
+        return value instanceof List ? (List<?>) value : Collections.singletonList(value);
+    }
+}
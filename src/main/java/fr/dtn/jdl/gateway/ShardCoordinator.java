@@ -0,0 +1,62 @@
+package fr.dtn.jdl.gateway;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Interface that represents the coordination of the nodes sharing the shards of a bot. Each node joins with the total
+ * amount of shards and receives the shards it runs, which change when a node joins or dies. The nodes also take turns
+ * to identify their shards, so that the identify rate limit of Discord is respected by all of them together
+ */
+public interface ShardCoordinator extends Closeable {
+    /**
+     * To join the nodes sharing the shards
+     * @param total The total amount of shards
+     * @return The shards this node runs, possibly none if there are more nodes than shards
+     * @throws IOException If the node cannot join
+     */
+    int[] join(int total) throws IOException;
+
+    /**
+     * To get the shards this node currently runs
+     * @return The shards, sorted
+     */
+    int[] getShards();
+
+    /**
+     * To set the method called with the new shards of this node when they change, after a node joined or died
+     * @param listener The method called with the new shards
+     */
+    void onRebalance(Consumer<int[]> listener);
+
+    /**
+     * To wait until this node can identify a shard, then reserve the identify slot
+     * @throws InterruptedException If the thread is interrupted while waiting
+     */
+    void awaitIdentify() throws InterruptedException;
+
+    /**
+     * To leave the nodes sharing the shards, their shards are then given to the other nodes
+     */
+    @Override
+    void close();
+
+    /**
+     * To get the shards of a node, the shards being split into contiguous ranges of nearly the same size
+     * @param total The total amount of shards
+     * @param nodes The amount of nodes
+     * @param index The index of the node, from 0 to nodes - 1
+     * @return The shards of the node
+     */
+    static int[] range(int total, int nodes, int index){
+        int start = (int) ((long) index * total / nodes);
+        int end = (int) ((long) (index + 1) * total / nodes);
+        int[] shards = new int[end - start];
+
+        for(int i = 0; i < shards.length; i++)
+            shards[i] = start + i;
+
+        return shards;
+    }
+}
@@ -0,0 +1,173 @@
+package fr.dtn.jdl.gateway;
+
+import com.moandjiezana.toml.Toml;
+import fr.dtn.jll.Log;
+import net.dv8tion.jda.api.sharding.DefaultShardManagerBuilder;
+import net.dv8tion.jda.api.sharding.ShardManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Class that represents the shards run by this process, read from the 'shards' section of 'configuration.toml'. The
+ * shards are either all of them, a fixed set of shard ids, or the ones given by a coordinator shared with other processes
+ */
+public class ShardDistribution {
+    /**
+     * The total amount of shards, 0 to use the amount recommended by Discord
+     */
+    private final int total;
+    /**
+     * The shards run by this process, empty for all of them
+     */
+    private final int[] ids;
+    /**
+     * The coordinator giving the shards of this process, or null if they are fixed
+     */
+    private final ShardCoordinator coordinator;
+
+    /**
+     * The shards currently run by this process with a coordinator
+     */
+    private int[] running;
+
+    /**
+     * Constructor
+     * @param total The total amount of shards, 0 to use the amount recommended by Discord
+     * @param ids The shards run by this process, empty for all of them
+     * @param coordinator The coordinator giving the shards of this process, or null if they are fixed
+     */
+    public ShardDistribution(int total, int[] ids, ShardCoordinator coordinator){
+        if(total <= 0 && (ids.length > 0 || coordinator != null))
+            throw new IllegalArgumentException("The total amount of shards must be set to run only some of them");
+
+        for(int id : ids)
+            if(id < 0 || id >= total)
+                throw new IllegalArgumentException("Shard " + id + " does not exist, there are " + total + " shards");
+
+        this.total = total;
+        this.ids = ids.clone();
+        this.coordinator = coordinator;
+        this.running = new int[0];
+    }
+
+    /**
+     * To read the distribution from the configuration
+     * @param configuration The content of 'configuration.toml'
+     * @return The distribution
+     */
+    public static ShardDistribution of(Toml configuration){
+        Toml shards = configuration.getTable("shards");
+        Map<String, Object> values = shards == null ? Collections.emptyMap() : shards.toMap();
+
+        int total = configuration.getLong("shards.total", 0L).intValue();
+        String directory = configuration.getString("shards.coordinator", "");
+        ShardCoordinator coordinator = null;
+
+        if(!directory.equals("")){
+            String node = configuration.getString("shards.node", "");
+            coordinator = new FileShardCoordinator(
+                    new File(directory),
+                    node.equals("") ? ManagementFactory.getRuntimeMXBean().getName() : node,
+                    configuration.getLong("shards.heartbeat", 5L) * 1000,
+                    configuration.getLong("shards.timeout", 15L) * 1000,
+                    configuration.getLong("shards.identifyDelay", 5L) * 1000
+            );
+        }
+
+        return new ShardDistribution(total, ids(values.get("ids")), coordinator);
+    }
+
+    /**
+     * To configure the shards of a builder, joining the coordinator if there is one
+     * @param builder The builder of the shard manager
+     */
+    public synchronized void configure(DefaultShardManagerBuilder builder){
+        if(total > 0)
+            builder.setShardsTotal(total);
+
+        if(coordinator != null){
+            try{
+                this.running = coordinator.join(total);
+            }catch(IOException e){
+                throw new RuntimeException("Unable to join the shard coordinator : " + e.getMessage(), e);
+            }
+
+            if(running.length == 0)
+                Log.warn("There are more nodes than shards, this node does not run any shard until a node leaves");
+
+            builder.setShards(running);
+            builder.setSessionController(new CoordinatedSessionController(coordinator));
+        }else if(ids.length > 0){
+            Log.info("Running shards " + Arrays.toString(ids) + " of " + total);
+            builder.setShards(ids);
+        }
+    }
+
+    /**
+     * To start and stop the shards of a shard manager when the coordinator rebalances them
+     * @param shardManager The shard manager created from the configured builder
+     */
+    public void attach(ShardManager shardManager){
+        if(coordinator != null)
+            coordinator.onRebalance(shards -> rebalance(shardManager, shards));
+    }
+
+    /**
+     * To leave the coordinator, if there is one
+     */
+    public void close(){
+        if(coordinator != null)
+            coordinator.close();
+    }
+
+    /**
+     * To get the coordinator
+     * @return The coordinator giving the shards of this process, or null if they are fixed
+     */
+    public ShardCoordinator getCoordinator(){ return coordinator; }
+
+    // Utility method, stops the lost shards before starting the new ones so that two nodes rarely run the same shard
+    private synchronized void rebalance(ShardManager shardManager, int[] shards){
+        for(int id : running)
+            if(Arrays.binarySearch(shards, id) < 0)
+                shardManager.shutdown(id);
+
+        for(int id : shards)
+            if(Arrays.binarySearch(running, id) < 0)
+                shardManager.start(id);
+
+        this.running = shards;
+    }
+
+    // Utility method, the ids are numbers or ranges such as '0-7'
+    private static int[] ids(Object value){
+        if(value == null)
+            return new int[0];
+
+        List<?> list = value instanceof List ? (List<?>) value : Collections.singletonList(value);
+        TreeSet<Integer> ids = new TreeSet<>();
+
+        for(Object o : list){
+            String id = o.toString().trim();
+            int dash = id.indexOf('-');
+
+            if(dash > 0){
+                int start = Integer.parseInt(id.substring(0, dash).trim()), end = Integer.parseInt(id.substring(dash + 1).trim());
+
+                for(int i = start; i <= end; i++)
+                    ids.add(i);
+            }else{
+                ids.add(Integer.parseInt(id));
+            }
+        }
+
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,166 @@
+package fr.dtn.jdl.loader;
+
+import fr.dtn.jdl.command.Command;
+import fr.dtn.jdl.slashcommand.SlashCommand;
+import fr.dtn.jll.Log;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Class that loads command files in parallel on the common fork-join pool, reusing the definitions of a snapshot when it is enabled
+ */
+public class CommandLoader {
+    /**
+     * The kinds of definitions stored in the snapshot
+     */
+    private static final byte RAW_TEXT = 0, SLASH = 1;
+
+    /**
+     * The snapshot of the parsed definitions, or null if it is disabled
+     */
+    private final DefinitionSnapshot snapshot;
+
+    /**
+     * Constructor
+     * @param snapshot The snapshot of the parsed definitions, or null to always parse the files
+     */
+    public CommandLoader(DefinitionSnapshot snapshot){
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * To load raw text commands in parallel
+     * @param files The configuration files of the commands
+     * @return The commands, in the order of their files
+     */
+    public List<Command> loadCommands(List<File> files){
+        List<Command> commands = files.parallelStream().map(this::parseCommand).collect(Collectors.toList());
+        saveSnapshot();
+        return commands;
+    }
+
+    /**
+     * To load slash commands in parallel
+     * @param files The configuration files of the slash commands
+     * @return The slash commands, in the order of their files
+     */
+    public List<SlashCommand> loadSlashCommands(List<File> files){
+        List<SlashCommand> commands = files.parallelStream().map(this::parseSlashCommand).collect(Collectors.toList());
+        saveSnapshot();
+        return commands;
+    }
+
+    /**
+     * To load a raw text command
+     * @param file The configuration file of the command
+     * @return The command
+     */
+    public Command loadCommand(File file){
+        Command command = parseCommand(file);
+        saveSnapshot();
+        return command;
+    }
+
+    /**
+     * To load a slash command
+     * @param file The configuration file of the slash command
+     * @return The slash command
+     */
+    public SlashCommand loadSlashCommand(File file){
+        SlashCommand command = parseSlashCommand(file);
+        saveSnapshot();
+        return command;
+    }
+
+    // Utility method
+    private Command parseCommand(File file){
+        byte[] definition = snapshot == null ? null : snapshot.get(file, RAW_TEXT);
+
+        if(definition != null){
+            try{
+                return new Command(new DataInputStream(new ByteArrayInputStream(definition)));
+            }catch(IOException | IllegalArgumentException e){
+                Log.warn("Invalid snapshot of command file '" + file.getPath() + "', parsing it again");
+            }
+        }
+
+        Command command = new Command(file);
+
+        if(snapshot != null && command.isLoaded()){
+            try{
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                command.write(new DataOutputStream(bytes));
+                snapshot.put(file, RAW_TEXT, bytes.toByteArray());
+            }catch(IOException e){
+                Log.warn("Failed to snapshot command file '" + file.getPath() + "' : " + e.getMessage());
+            }
+        }
+
+        return command;
+    }
+
+    // Utility method
+    private SlashCommand parseSlashCommand(File file){
+        byte[] definition = snapshot == null ? null : snapshot.get(file, SLASH);
+
+        if(definition != null){
+            try{
+                return new SlashCommand(new DataInputStream(new ByteArrayInputStream(definition)));
+            }catch(IOException | IllegalArgumentException e){
+                Log.warn("Invalid snapshot of slash command file '" + file.getPath() + "', parsing it again");
+            }
+        }
+
+        SlashCommand command = new SlashCommand(file);
+
+        if(snapshot != null && command.isLoaded()){
+            try{
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                command.write(new DataOutputStream(bytes));
+                snapshot.put(file, SLASH, bytes.toByteArray());
+            }catch(IOException e){
+                Log.warn("Failed to snapshot slash command file '" + file.getPath() + "' : " + e.getMessage());
+            }
+        }
+
+        return command;
+    }
+
+    // Utility method
+    private void saveSnapshot(){
+        if(snapshot != null)
+            snapshot.save();
+    }
+
+    /**
+     * To list the files of a directory and possibly its children directories
+     * @param directory The root directory
+     * @param loadSubFiles If the files stored in children directories of the root one are listed
+     * @return The files, or an empty list if the directory does not exist
+     */
+    public static List<File> listFiles(File directory, boolean loadSubFiles){
+        List<File> files = new ArrayList<>();
+        listFiles(directory, loadSubFiles, files);
+        return files;
+    }
+
+    // Utility method
+    private static void listFiles(File directory, boolean loadSubFiles, List<File> files){
+        File[] children = directory == null ? null : directory.listFiles();
+
+        if(children == null)
+            return;
+
+        for(File file : children){
+            if(file.isDirectory()){
+                if(loadSubFiles)
+                    listFiles(file, true, files);
+            }else{
+                files.add(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package fr.dtn.jdl.loader;
+
+import fr.dtn.jll.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Class that watches command directories and reports the changed command files. Changes happening close together,
+ * such as the several writes of a file save, are reported together once the directories are quiet
+ */
+public class CommandWatcher {
+    /**
+     * The time without changes before changes are reported, in milliseconds
+     */
+    private static final long QUIET_TIME = 300;
+
+    /**
+     * The watch service of the file system
+     */
+    private final WatchService service;
+    /**
+     * The watched directory of each watch key
+     */
+    private final Map<WatchKey, Watched> directories;
+    /**
+     * The thread waiting for changes
+     */
+    private final Thread thread;
+
+    /**
+     * Constructor
+     * @throws IOException If the file system cannot be watched
+     */
+    public CommandWatcher() throws IOException {
+        this.service = FileSystems.getDefault().newWatchService();
+        this.directories = new ConcurrentHashMap<>();
+        this.thread = new Thread(this::run, "jdl-command-watcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * To watch a command directory
+     * @param directory The directory
+     * @param recursive If the children directories are also watched, including the ones created later
+     * @param listener The listener receiving the changes
+     */
+    public void watch(File directory, boolean recursive, Listener listener){
+        try{
+            register(directory.toPath(), recursive, listener);
+            Log.info("Watching command directory '" + directory.getPath() + "'");
+        }catch(IOException e){
+            Log.error("Unable to watch command directory '" + directory.getPath() + "' : " + e.getMessage());
+        }
+    }
+
+    /**
+     * To stop watching all the directories
+     */
+    public void close(){
+        thread.interrupt();
+
+        try{
+            service.close();
+        }catch(IOException ignored){}
+    }
+
+    // Utility method
+    private void register(Path directory, boolean recursive, Listener listener) throws IOException {
+        WatchKey key = directory.register(service, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+        directories.put(key, new Watched(directory, recursive, listener));
+
+        if(!recursive)
+            return;
+
+        File[] children = directory.toFile().listFiles(File::isDirectory);
+        if(children != null)
+            for(File child : children)
+                register(child.toPath(), true, listener);
+    }
+
+    // Utility method, loop of the watching thread
+    private void run(){
+        try{
+            while(!Thread.currentThread().isInterrupted()){
+                Map<Listener, Changes> changes = new LinkedHashMap<>();
+                WatchKey key = service.take();
+
+                while(key != null){
+                    collect(key, changes);
+                    key = service.poll(QUIET_TIME, TimeUnit.MILLISECONDS);
+                }
+
+                changes.forEach((listener, change) -> {
+                    try{
+                        listener.changed(new ArrayList<>(change.modified), new ArrayList<>(change.deleted));
+                    }catch(Exception e){
+                        Log.error("Failed to reload command files : " + e);
+                    }
+                });
+            }
+        }catch(InterruptedException | ClosedWatchServiceException ignored){}
+    }
+
+    // Utility method
+    private void collect(WatchKey key, Map<Listener, Changes> changes){
+        Watched watched = directories.get(key);
+
+        for(WatchEvent<?> event : key.pollEvents()){
+            if(watched == null || event.kind() == OVERFLOW)
+                continue;
+
+            Path path = watched.directory.resolve((Path) event.context());
+            Changes change = changes.computeIfAbsent(watched.listener, listener -> new Changes());
+
+            if(Files.isDirectory(path)){
+                if(event.kind() == ENTRY_CREATE && watched.recursive){
+                    try{
+                        register(path, true, watched.listener);
+                        change.modified.addAll(CommandLoader.listFiles(path.toFile(), true));
+                    }catch(IOException e){
+                        Log.error("Unable to watch command directory '" + path + "' : " + e.getMessage());
+                    }
+                }
+                continue;
+            }
+
+            if(!path.toString().endsWith(".toml"))
+                continue;
+
+            File file = path.toFile();
+            if(event.kind() == ENTRY_DELETE){
+                change.modified.remove(file);
+                change.deleted.add(file);
+            }else{
+                change.deleted.remove(file);
+                change.modified.add(file);
+            }
+        }
+
+        if(!key.reset())
+            directories.remove(key);
+    }
+
+    /**
+     * Represents the code that handles the changes of the command files of a watched directory
+     */
+    public interface Listener {
+        /**
+         * To handle the changes
+         * @param modified The created or modified command files
+         * @param deleted The deleted command files
+         */
+        void changed(List<File> modified, List<File> deleted);
+    }
+
+    /**
+     * Class that represents a watched directory
+     */
+    static final class Watched {
+        /**
+         * The directory
+         */
+        final Path directory;
+        /**
+         * If the children directories are also watched
+         */
+        final boolean recursive;
+        /**
+         * The listener receiving the changes
+         */
+        final Listener listener;
+
+        /**
+         * Constructor
+         * @param directory The directory
+         * @param recursive If the children directories are also watched
+         * @param listener The listener receiving the changes
+         */
+        Watched(Path directory, boolean recursive, Listener listener){
+            this.directory = directory;
+            this.recursive = recursive;
+            this.listener = listener;
+        }
+    }
+
+    /**
+     * Class that gathers the changes of a listener
+     */
+    static final class Changes {
+        /**
+         * The created or modified files, and the deleted files
+         */
+        final Set<File> modified = new LinkedHashSet<>(), deleted = new LinkedHashSet<>();
+    }
+}
@@ -0,0 +1,170 @@
+package fr.dtn.jdl.loader;
+
+import fr.dtn.jll.Log;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class that stores the parsed definitions of the command files in a compact binary file, so that unchanged files do not
+ * need to be parsed again on the next start. A definition is reused only if the size and the last modification time of its file did not change
+ */
+public class DefinitionSnapshot {
+    /**
+     * The first bytes of a snapshot file
+     */
+    private static final int MAGIC = 0x4A444C53;
+    /**
+     * The version of the snapshot format, snapshots of other versions are ignored
+     */
+    private static final int VERSION = 6;
+
+    /**
+     * The file the snapshot is saved to
+     */
+    private final File file;
+    /**
+     * The definitions, by absolute path of their file
+     */
+    private final Map<String, Entry> entries;
+    /**
+     * If definitions changed since the snapshot was loaded or saved
+     */
+    private volatile boolean changed;
+
+    /**
+     * Constructor
+     * @param file The file the snapshot is saved to
+     */
+    public DefinitionSnapshot(File file){
+        this.file = file;
+        this.entries = new ConcurrentHashMap<>();
+        load();
+    }
+
+    /**
+     * To get the definition of a file, if the file did not change since the definition was stored
+     * @param source The file
+     * @param kind The kind of definition, to avoid reading a raw text command as a slash command
+     * @return The binary definition, or null if there is none or if it is outdated
+     */
+    public byte[] get(File source, byte kind){
+        Entry entry = entries.get(source.getAbsolutePath());
+
+        if(entry == null || entry.kind != kind || entry.modified != source.lastModified() || entry.length != source.length())
+            return null;
+
+        return entry.definition;
+    }
+
+    /**
+     * To store the definition of a file
+     * @param source The file
+     * @param kind The kind of definition
+     * @param definition The binary definition
+     */
+    public void put(File source, byte kind, byte[] definition){
+        entries.put(source.getAbsolutePath(), new Entry(kind, source.lastModified(), source.length(), definition));
+        changed = true;
+    }
+
+    /**
+     * To save the snapshot if it changed, definitions of files that do not exist anymore are dropped
+     */
+    public synchronized void save(){
+        if(!changed)
+            return;
+
+        entries.keySet().removeIf(path -> !new File(path).exists());
+        File temporary = new File(file.getPath() + ".tmp");
+
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))){
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(entries.size());
+
+            for(Map.Entry<String, Entry> entry : entries.entrySet()){
+                out.writeUTF(entry.getKey());
+                out.writeByte(entry.getValue().kind);
+                out.writeLong(entry.getValue().modified);
+                out.writeLong(entry.getValue().length);
+                out.writeInt(entry.getValue().definition.length);
+                out.write(entry.getValue().definition);
+            }
+        }catch(IOException e){
+            Log.error("Failed to save command snapshot to '" + file.getPath() + "' : " + e.getMessage());
+            return;
+        }
+
+        try{
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            changed = false;
+        }catch(IOException e){
+            Log.error("Failed to save command snapshot to '" + file.getPath() + "' : " + e.getMessage());
+        }
+    }
+
+    // Utility method
+    private void load(){
+        if(!file.exists())
+            return;
+
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))){
+            if(in.readInt() != MAGIC || in.readInt() != VERSION){
+                Log.warn("Ignoring command snapshot '" + file.getPath() + "' : Unknown format");
+                return;
+            }
+
+            for(int i = in.readInt(); i > 0; i--){
+                String path = in.readUTF();
+                byte kind = in.readByte();
+                long modified = in.readLong();
+                long length = in.readLong();
+                byte[] definition = new byte[in.readInt()];
+                in.readFully(definition);
+
+                entries.put(path, new Entry(kind, modified, length, definition));
+            }
+
+            Log.info("Loaded " + entries.size() + " command definition(s) from snapshot '" + file.getPath() + "'");
+        }catch(IOException e){
+            Log.warn("Ignoring command snapshot '" + file.getPath() + "' : " + e.getMessage());
+            entries.clear();
+        }
+    }
+
+    /**
+     * Class that represents the stored definition of a file
+     */
+    static final class Entry {
+        /**
+         * The kind of definition
+         */
+        final byte kind;
+        /**
+         * The last modification time and the size of the file when the definition was stored
+         */
+        final long modified, length;
+        /**
+         * The binary definition
+         */
+        final byte[] definition;
+
+        /**
+         * Constructor
+         * @param kind The kind of definition
+         * @param modified The last modification time of the file
+         * @param length The size of the file
+         * @param definition The binary definition
+         */
+        Entry(byte kind, long modified, long length, byte[] definition){
+            this.kind = kind;
+            this.modified = modified;
+            this.length = length;
+            this.definition = definition;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package fr.dtn.jdl.log;
+
+import fr.dtn.jdl.util.RingBuffer;
+import fr.dtn.jll.Log;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Logging layer for hot paths such as event dispatching. The level is checked before anything is built, messages are
+ * formatted on a background thread from their pattern and arguments, and records are handed to that thread through a
+ * bounded ring buffer : when it is full, records are dropped instead of blocking the calling thread.
+ * The background thread writes the records through the JLL Log
+ */
+public final class AsyncLog {
+    /**
+     * The minimum level of the written records
+     */
+    private static volatile Level level = Level.INFO;
+    /**
+     * The records waiting to be written
+     */
+    private static volatile RingBuffer<Record> records = new RingBuffer<>(8192);
+    /**
+     * The amount of records dropped because the buffer was full
+     */
+    private static final LongAdder dropped = new LongAdder();
+    /**
+     * The thread writing the records
+     */
+    private static final Thread writer;
+
+    static{
+        writer = new Thread(AsyncLog::write, "jdl-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Utility class
+    private AsyncLog(){}
+
+    /**
+     * To configure the logging layer, records waiting to be written are written first
+     * @param level The minimum level of the written records
+     * @param capacity The maximum amount of records waiting to be written
+     */
+    public static synchronized void configure(Level level, int capacity){
+        RingBuffer<Record> previous = records;
+
+        // The buffer is replaced before being drained, so that records offered meanwhile go to one of them
+        if(capacity != previous.capacity())
+            AsyncLog.records = new RingBuffer<>(capacity);
+
+        while(previous.drain(AsyncLog::write, Integer.MAX_VALUE) > 0);
+        AsyncLog.level = level;
+    }
+
+    /**
+     * To get if records of a level are written
+     * @param level The level
+     * @return If the records are written
+     */
+    public static boolean isEnabled(Level level){ return level.compareTo(AsyncLog.level) >= 0 && level != Level.OFF; }
+
+    /**
+     * To log a message at DEBUG level
+     * @param pattern The message, each '{}' is replaced by the next argument
+     * @param arguments The arguments, converted to strings on the writer thread
+     */
+    public static void debug(String pattern, Object... arguments){ log(Level.DEBUG, pattern, arguments); }
+
+    /**
+     * To log a message at INFO level
+     * @param pattern The message, each '{}' is replaced by the next argument
+     * @param arguments The arguments, converted to strings on the writer thread
+     */
+    public static void info(String pattern, Object... arguments){ log(Level.INFO, pattern, arguments); }
+
+    /**
+     * To log a message at WARN level
+     * @param pattern The message, each '{}' is replaced by the next argument
+     * @param arguments The arguments, converted to strings on the writer thread
+     */
+    public static void warn(String pattern, Object... arguments){ log(Level.WARN, pattern, arguments); }
+
+    /**
+     * To log a message at ERROR level
+     * @param pattern The message, each '{}' is replaced by the next argument
+     * @param arguments The arguments, converted to strings on the writer thread
+     */
+    public static void error(String pattern, Object... arguments){ log(Level.ERROR, pattern, arguments); }
+
+    /**
+     * To log a lazily built message at INFO level
+     * @param message The supplier of the message, called on the writer thread only if the level is enabled
+     */
+    public static void info(Supplier<String> message){ log(Level.INFO, message); }
+
+    /**
+     * To log a lazily built message
+     * @param level The level of the message
+     * @param message The supplier of the message, called on the writer thread only if the level is enabled
+     */
+    public static void log(Level level, Supplier<String> message){
+        if(isEnabled(level))
+            enqueue(new Record(level, null, null, message));
+    }
+
+    /**
+     * To log a message
+     * @param level The level of the message
+     * @param pattern The message, each '{}' is replaced by the next argument
+     * @param arguments The arguments, converted to strings on the writer thread
+     */
+    public static void log(Level level, String pattern, Object... arguments){
+        if(isEnabled(level))
+            enqueue(new Record(level, pattern, arguments, null));
+    }
+
+    /**
+     * To get the amount of records dropped because the buffer was full
+     * @return The amount of dropped records
+     */
+    public static long getDropped(){ return dropped.sum(); }
+
+    /**
+     * To write all the waiting records from the calling thread
+     */
+    public static void flush(){
+        RingBuffer<Record> records = AsyncLog.records;
+        while(records.drain(AsyncLog::write, Integer.MAX_VALUE) > 0);
+    }
+
+    // Utility method
+    private static void enqueue(Record record){
+        if(!records.offer(record))
+            dropped.increment();
+    }
+
+    // Utility method, loop of the writer thread
+    private static void write(){
+        long reported = 0;
+
+        while(true){
+            if(records.drain(AsyncLog::write, 1024) == 0){
+                long lost = dropped.sum();
+
+                if(lost != reported){
+                    Log.warn((lost - reported) + " log record(s) dropped : Log buffer is full");
+                    reported = lost;
+                }
+
+                LockSupport.parkNanos(1_000_000);
+            }
+        }
+    }
+
+    // Utility method
+    private static void write(Record record){
+        String message;
+
+        try{
+            message = record.format();
+        }catch(RuntimeException e){
+            message = "Failed to build log message : " + e;
+        }
+
+        switch(record.level){
+            case ERROR: Log.error(message); break;
+            case WARN: Log.warn(message); break;
+            default: Log.info(message);
+        }
+    }
+
+    /**
+     * Class that represents a log record waiting to be written
+     */
+    static final class Record {
+        /**
+         * The level of the record
+         */
+        final Level level;
+        /**
+         * The pattern of the message, or null if the message is supplied
+         */
+        final String pattern;
+        /**
+         * The arguments of the pattern
+         */
+        final Object[] arguments;
+        /**
+         * The supplier of the message, or null if the message has a pattern
+         */
+        final Supplier<String> supplier;
+
+        /**
+         * Constructor
+         * @param level The level of the record
+         * @param pattern The pattern of the message
+         * @param arguments The arguments of the pattern
+         * @param supplier The supplier of the message
+         */
+        Record(Level level, String pattern, Object[] arguments, Supplier<String> supplier){
+            this.level = level;
+            this.pattern = pattern;
+            this.arguments = arguments;
+            this.supplier = supplier;
+        }
+
+        /**
+         * To build the message of the record
+         * @return The message
+         */
+        String format(){
+            if(supplier != null)
+                return supplier.get();
+
+            StringBuilder message = new StringBuilder(pattern.length() + 16 * arguments.length);
+            int argument = 0;
+            int start = 0;
+
+            for(int i = pattern.indexOf("{}"); i >= 0; i = pattern.indexOf("{}", start)){
+                message.append(pattern, start, i);
+                message.append(argument < arguments.length ? String.valueOf(arguments[argument++]) : "{}");
+                start = i + 2;
+            }
+
+            return message.append(pattern, start, pattern.length()).toString();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package fr.dtn.jdl.log;
+
+/**
+ * Different levels of log records, from the most verbose to the least
+ */
+public enum Level {
+    DEBUG, // Details useful to debug the bot
+    INFO, // Normal activity of the bot
+    WARN, // Unexpected situations the bot can recover from
+    ERROR, // Failures
+    OFF; // No record at all
+}
@@ -0,0 +1,122 @@
+package fr.dtn.jdl.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class that counts the invocations of a command or of the handlers of an event type, and records their latencies
+ */
+public class InvocationMetrics implements InvocationMetricsMBean {
+    /**
+     * The name of the command or event type
+     */
+    private final String name;
+    /**
+     * The amounts of invocations, errors and permission refusals
+     */
+    private final LongAdder invocations, errors, refusals;
+    /**
+     * The amounts of invocations answered from the cache of the command, and of lookups that were not
+     */
+    private final LongAdder cacheHits, cacheMisses;
+    /**
+     * The amount of invocations shed because the execution queues were too full
+     */
+    private final LongAdder shed;
+    /**
+     * The latencies of the invocations
+     */
+    private final LatencyHistogram latencies;
+
+    /**
+     * Constructor
+     * @param name The name of the command or event type
+     */
+    public InvocationMetrics(String name){
+        this.name = name;
+        this.invocations = new LongAdder();
+        this.errors = new LongAdder();
+        this.refusals = new LongAdder();
+        this.cacheHits = new LongAdder();
+        this.cacheMisses = new LongAdder();
+        this.shed = new LongAdder();
+        this.latencies = new LatencyHistogram();
+    }
+
+    /**
+     * To record an invocation
+     * @param nanos The latency of the invocation, in nanoseconds
+     * @param failed If the invocation threw an exception
+     */
+    public void record(long nanos, boolean failed){
+        invocations.increment();
+        latencies.record(nanos);
+
+        if(failed)
+            errors.increment();
+    }
+
+    /**
+     * To record an invocation refused because of missing permissions
+     */
+    public void refuse(){ refusals.increment(); }
+
+    /**
+     * To record an invocation answered with a cached reply, without running the executor
+     */
+    public void hit(){ cacheHits.increment(); }
+
+    /**
+     * To record an invocation whose reply was not cached
+     */
+    public void miss(){ cacheMisses.increment(); }
+
+    /**
+     * To record an invocation shed because the execution queues were too full
+     */
+    public void shed(){ shed.increment(); }
+
+    /**
+     * To get name
+     * @return Name
+     */
+    public String getName() { return name; }
+
+    /**
+     * To get latencies
+     * @return Latencies
+     */
+    public LatencyHistogram getLatencies() { return latencies; }
+
+    @Override
+    public long getInvocations() { return invocations.sum(); }
+
+    @Override
+    public long getErrors() { return errors.sum(); }
+
+    @Override
+    public long getRefusals() { return refusals.sum(); }
+
+    @Override
+    public long getCacheHits() { return cacheHits.sum(); }
+
+    @Override
+    public long getCacheMisses() { return cacheMisses.sum(); }
+
+    @Override
+    public long getShed() { return shed.sum(); }
+
+    @Override
+    public long getMeanLatency() { return latencies.snapshot().getMean(); }
+
+    @Override
+    public long getP50Latency() { return latencies.snapshot().getPercentile(50); }
+
+    @Override
+    public long getP90Latency() { return latencies.snapshot().getPercentile(90); }
+
+    @Override
+    public long getP99Latency() { return latencies.snapshot().getPercentile(99); }
+
+    @Override
+    public long getMaxLatency() { return latencies.snapshot().getMax(); }
+}
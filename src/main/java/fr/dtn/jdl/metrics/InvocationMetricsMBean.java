@@ -0,0 +1,72 @@
+package fr.dtn.jdl.metrics;
+
+/**
+ * JMX view of the metrics of a command or an event type, latencies are in microseconds
+ */
+public interface InvocationMetricsMBean {
+    /**
+     * To get the amount of invocations
+     * @return The amount of invocations
+     */
+    long getInvocations();
+
+    /**
+     * To get the amount of invocations that threw an exception
+     * @return The amount of errors
+     */
+    long getErrors();
+
+    /**
+     * To get the amount of invocations refused because of missing permissions
+     * @return The amount of refusals
+     */
+    long getRefusals();
+
+    /**
+     * To get the amount of invocations answered with a cached reply
+     * @return The amount of cache hits
+     */
+    long getCacheHits();
+
+    /**
+     * To get the amount of invocations whose reply was not cached
+     * @return The amount of cache misses
+     */
+    long getCacheMisses();
+
+    /**
+     * To get the amount of invocations shed because the execution queues were too full
+     * @return The amount of shed invocations
+     */
+    long getShed();
+
+    /**
+     * To get the mean latency
+     * @return The mean latency
+     */
+    long getMeanLatency();
+
+    /**
+     * To get the median latency
+     * @return The median latency
+     */
+    long getP50Latency();
+
+    /**
+     * To get the 90th percentile of latency
+     * @return The 90th percentile of latency
+     */
+    long getP90Latency();
+
+    /**
+     * To get the 99th percentile of latency
+     * @return The 99th percentile of latency
+     */
+    long getP99Latency();
+
+    /**
+     * To get the largest latency
+     * @return The largest latency
+     */
+    long getMaxLatency();
+}
@@ -0,0 +1,185 @@
+package fr.dtn.jdl.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of latencies using a fixed amount of log-linear buckets, like HDR histograms : each power of two of
+ * microseconds is split in 8 buckets, so recorded values are precise to 12.5%. Counters are striped by thread so that
+ * concurrent recordings rarely touch the same cache lines, and recording never locks nor allocates
+ */
+public class LatencyHistogram {
+    /**
+     * The amount of bits of precision inside a power of two, and the amount of buckets per power of two
+     */
+    private static final int SUB_BITS = 3, SUB = 1 << SUB_BITS;
+    /**
+     * The highest power of two of microseconds that is tracked, larger values go to the last bucket (about 9 hours)
+     */
+    private static final int MAX_EXPONENT = 35;
+    /**
+     * The amount of buckets
+     */
+    static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 2) * SUB;
+    /**
+     * The amount of stripes, a power of two
+     */
+    private static final int STRIPES = Math.min(8, Integer.highestOneBit(Runtime.getRuntime().availableProcessors()));
+
+    /**
+     * The counts of each bucket of each stripe, stripe after stripe
+     */
+    private final AtomicLongArray counts;
+    /**
+     * The sum of the recorded values, in microseconds
+     */
+    private final LongAdder total;
+    /**
+     * The largest recorded value, in microseconds
+     */
+    private final AtomicLong max;
+
+    /**
+     * Constructor
+     */
+    public LatencyHistogram(){
+        this.counts = new AtomicLongArray(BUCKETS * STRIPES);
+        this.total = new LongAdder();
+        this.max = new AtomicLong();
+    }
+
+    /**
+     * To record a latency
+     * @param nanos The latency, in nanoseconds
+     */
+    public void record(long nanos){
+        long micros = Math.max(0, nanos / 1000);
+        int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+
+        counts.getAndIncrement(stripe * BUCKETS + bucket(micros));
+        total.add(micros);
+
+        long current = max.get();
+        while(micros > current && !max.compareAndSet(current, micros))
+            current = max.get();
+    }
+
+    /**
+     * To take a snapshot of the histogram, recordings happening meanwhile may or may not be included
+     * @return The snapshot
+     */
+    public Snapshot snapshot(){
+        long[] buckets = new long[BUCKETS];
+        long count = 0;
+
+        for(int stripe = 0; stripe < STRIPES; stripe++){
+            for(int i = 0; i < BUCKETS; i++){
+                long value = counts.get(stripe * BUCKETS + i);
+                buckets[i] += value;
+                count += value;
+            }
+        }
+
+        return new Snapshot(buckets, count, total.sum(), max.get());
+    }
+
+    /**
+     * To get the bucket of a value
+     * @param micros The value, in microseconds
+     * @return The index of the bucket
+     */
+    static int bucket(long micros){
+        if(micros < SUB)
+            return (int) micros;
+
+        int exponent = Math.min(63 - Long.numberOfLeadingZeros(micros), MAX_EXPONENT);
+        if(exponent == MAX_EXPONENT && micros >= 2L << MAX_EXPONENT)
+            return BUCKETS - 1;
+
+        int sub = (int) (micros >>> (exponent - SUB_BITS)) - SUB;
+        return (exponent - SUB_BITS + 1) * SUB + sub;
+    }
+
+    /**
+     * To get the highest value of a bucket
+     * @param bucket The index of the bucket
+     * @return The highest value, in microseconds
+     */
+    static long highestValue(int bucket){
+        if(bucket < SUB)
+            return bucket;
+
+        int exponent = bucket / SUB + SUB_BITS - 1;
+        long sub = bucket % SUB;
+        return ((SUB + sub + 1) << (exponent - SUB_BITS)) - 1;
+    }
+
+    /**
+     * Class that represents the state of a histogram at some point
+     */
+    public static class Snapshot {
+        /**
+         * The count of each bucket
+         */
+        private final long[] buckets;
+        /**
+         * The amount of recorded values, their sum and the largest one, in microseconds
+         */
+        private final long count, total, max;
+
+        /**
+         * Constructor
+         * @param buckets The count of each bucket
+         * @param count The amount of recorded values
+         * @param total The sum of the recorded values, in microseconds
+         * @param max The largest recorded value, in microseconds
+         */
+        Snapshot(long[] buckets, long count, long total, long max){
+            this.buckets = buckets;
+            this.count = count;
+            this.total = total;
+            this.max = max;
+        }
+
+        /**
+         * To get a percentile of the recorded values
+         * @param percentile The percentile, between 0 and 100
+         * @return The upper bound of the bucket containing the percentile, in microseconds
+         */
+        public long getPercentile(double percentile){
+            if(count == 0)
+                return 0;
+
+            long rank = (long) Math.ceil(percentile / 100 * count);
+            long seen = 0;
+
+            for(int i = 0; i < buckets.length; i++){
+                seen += buckets[i];
+
+                if(seen >= Math.max(1, rank))
+                    return Math.min(highestValue(i), max);
+            }
+
+            return max;
+        }
+
+        /**
+         * To get count
+         * @return Count
+         */
+        public long getCount() { return count; }
+
+        /**
+         * To get the mean of the recorded values
+         * @return The mean, in microseconds
+         */
+        public long getMean() { return count == 0 ? 0 : total / count; }
+
+        /**
+         * To get max
+         * @return Max, in microseconds
+         */
+        public long getMax() { return max; }
+    }
+}
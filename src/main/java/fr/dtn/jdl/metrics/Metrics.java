@@ -0,0 +1,105 @@
+package fr.dtn.jdl.metrics;
+
+import fr.dtn.jll.Log;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class that holds the invocation metrics of the raw text commands, slash commands and event types of a bot
+ */
+public class Metrics {
+    /**
+     * The JMX domain of the metrics
+     */
+    public static final String DOMAIN = "fr.dtn.jdl";
+
+    /**
+     * Different kinds of metrics
+     */
+    public enum Kind {
+        COMMAND, // Raw text commands, by display name
+        SLASH_COMMAND, // Slash commands, by name
+        AUTOCOMPLETE, // Auto completed parameters, by slash command and parameter name
+        EVENT, // Event handlers, by event type
+        BATCH, // Batches of batch event handlers, by handler class, the refusals are the dropped events
+        OUTBOUND; // Messages sent through the outbound pipeline, 'messages' to channels and 'replies' to interactions
+    }
+
+    /**
+     * The metrics of each kind, by name
+     */
+    private final Map<Kind, ConcurrentHashMap<String, InvocationMetrics>> metrics;
+    /**
+     * The JMX server the metrics are registered on, or null if JMX is disabled
+     */
+    private final MBeanServer server;
+
+    /**
+     * Constructor
+     * @param jmx If the metrics are exposed as JMX MBeans
+     */
+    public Metrics(boolean jmx){
+        this.metrics = new ConcurrentHashMap<>();
+        this.server = jmx ? ManagementFactory.getPlatformMBeanServer() : null;
+
+        for(Kind kind : Kind.values())
+            this.metrics.put(kind, new ConcurrentHashMap<>());
+    }
+
+    /**
+     * To get the metrics of a command or event type, creating them on first use
+     * @param kind The kind of metrics
+     * @param name The name of the command or event type
+     * @return The metrics
+     */
+    public InvocationMetrics get(Kind kind, String name){
+        ConcurrentHashMap<String, InvocationMetrics> byName = metrics.get(kind);
+        InvocationMetrics invocation = byName.get(name);
+
+        if(invocation == null)
+            invocation = byName.computeIfAbsent(name, key -> create(kind, key));
+
+        return invocation;
+    }
+
+    // Utility method
+    private InvocationMetrics create(Kind kind, String name){
+        InvocationMetrics invocation = new InvocationMetrics(name);
+
+        if(server != null){
+            try{
+                server.registerMBean(invocation, new ObjectName(DOMAIN + ":type=" + kind + ",name=" + ObjectName.quote(name)));
+            }catch(JMException e){
+                Log.warn("Unable to expose metrics of " + kind + " '" + name + "' through JMX : " + e.getMessage());
+            }
+        }
+
+        return invocation;
+    }
+
+    /**
+     * To write all the metrics as a plain text table, latencies are in microseconds
+     * @return The table
+     */
+    public String dump(){
+        StringBuilder dump = new StringBuilder(String.format("%-14s %-32s %10s %8s %8s %8s %8s %8s %8s %8s %8s %8s %8s%n",
+                "kind", "name", "calls", "errors", "refused", "hits", "misses", "shed", "mean", "p50", "p90", "p99", "max"));
+
+        for(Kind kind : Kind.values()){
+            for(InvocationMetrics invocation : new TreeMap<>(metrics.get(kind)).values()){
+                LatencyHistogram.Snapshot latencies = invocation.getLatencies().snapshot();
+                dump.append(String.format("%-14s %-32s %10d %8d %8d %8d %8d %8d %8d %8d %8d %8d %8d%n",
+                        kind, invocation.getName(), invocation.getInvocations(), invocation.getErrors(), invocation.getRefusals(), invocation.getCacheHits(), invocation.getCacheMisses(), invocation.getShed(),
+                        latencies.getMean(), latencies.getPercentile(50), latencies.getPercentile(90), latencies.getPercentile(99), latencies.getMax()));
+            }
+        }
+
+        return dump.toString();
+    }
+}
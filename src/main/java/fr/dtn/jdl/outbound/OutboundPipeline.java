@@ -0,0 +1,487 @@
+package fr.dtn.jdl.outbound;
+
+import fr.dtn.jdl.metrics.InvocationMetrics;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
+import net.dv8tion.jda.api.interactions.callbacks.IReplyCallback;
+import net.dv8tion.jda.api.utils.messages.MessageCreateBuilder;
+import net.dv8tion.jda.api.utils.messages.MessageCreateData;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Class that sends messages to channels through one queue per channel. The messages sent to a channel within a short
+ * window, and the ones sent while the previous message of the channel is still being sent, are grouped into a single
+ * message as long as it stays within the limits of Discord, so bursts cost a few requests instead of one per message.
+ * Only a few channels are sent to at once, while interaction replies are sent right away, since Discord drops them
+ * after 3 seconds
+ */
+public class OutboundPipeline {
+    /**
+     * The states of the queue of a channel
+     */
+    private enum State {
+        IDLE, // No message is waiting
+        WAITING, // Messages are waiting for the end of the window
+        READY, // Messages are waiting for a channel to finish sending
+        SENDING // A message is being sent, the next ones wait for it
+    }
+
+    /**
+     * The scheduler ending the windows
+     */
+    private final ScheduledExecutorService scheduler;
+    /**
+     * Claims the acknowledgement of an interaction, true if it must be replied to, false to use its hook
+     */
+    private final Predicate<IReplyCallback> claim;
+    /**
+     * The time in milliseconds messages wait for other messages of their channel
+     */
+    private final long window;
+    /**
+     * The maximum amount of channels being sent to at once
+     */
+    private final int concurrency;
+    /**
+     * The metrics of the messages sent to channels and of the interaction replies
+     */
+    private final InvocationMetrics messages, replies;
+
+    /**
+     * The queues of the channels with waiting messages, by channel id
+     */
+    private final ConcurrentHashMap<Long, ChannelQueue> queues;
+    /**
+     * The queues whose messages can be sent as soon as another channel finishes sending
+     */
+    private final ConcurrentLinkedQueue<ChannelQueue> ready;
+    /**
+     * The amount of channels being sent to
+     */
+    private final AtomicInteger sending;
+    /**
+     * The amount of messages waiting in the queues or being sent
+     */
+    private final AtomicInteger depth;
+    /**
+     * The amount of messages given to the pipeline, and the amount of messages actually sent to Discord
+     */
+    private final LongAdder queued, sent;
+
+    /**
+     * If the pipeline is closing, the waiting messages are then sent without waiting for their window or other channels
+     */
+    private volatile boolean closing;
+
+    /**
+     * Constructor
+     * @param scheduler The scheduler ending the windows
+     * @param claim Claims the acknowledgement of an interaction, true if it must be replied to, false to use its hook
+     * @param window The time in milliseconds messages wait for other messages of their channel, 0 to only group the
+     *               messages sent while the previous message of the channel is being sent
+     * @param concurrency The maximum amount of channels being sent to at once, interaction replies do not count
+     * @param messages The metrics of the messages sent to channels
+     * @param replies The metrics of the interaction replies
+     */
+    public OutboundPipeline(ScheduledExecutorService scheduler, Predicate<IReplyCallback> claim, long window, int concurrency, InvocationMetrics messages, InvocationMetrics replies){
+        if(concurrency <= 0)
+            throw new IllegalArgumentException("The amount of channels sent to at once must be positive");
+
+        this.scheduler = scheduler;
+        this.claim = claim;
+        this.window = Math.max(window, 0);
+        this.concurrency = concurrency;
+        this.messages = messages;
+        this.replies = replies;
+        this.queues = new ConcurrentHashMap<>();
+        this.ready = new ConcurrentLinkedQueue<>();
+        this.sending = new AtomicInteger();
+        this.depth = new AtomicInteger();
+        this.queued = new LongAdder();
+        this.sent = new LongAdder();
+    }
+
+    /**
+     * To send a text message to a channel
+     * @param channel The channel
+     * @param content The text, at most 2000 characters
+     * @return A future completing with the sent message, which may also contain other messages
+     */
+    public CompletableFuture<Message> send(MessageChannel channel, String content){ return send(channel, content, Collections.emptyList()); }
+
+    /**
+     * To send an embed to a channel
+     * @param channel The channel
+     * @param embed The embed
+     * @return A future completing with the sent message, which may also contain other embeds
+     */
+    public CompletableFuture<Message> send(MessageChannel channel, MessageEmbed embed){ return send(channel, "", Collections.singletonList(embed)); }
+
+    /**
+     * To send a message to a channel, grouped with the other messages sent to the channel within the window
+     * @param channel The channel
+     * @param content The text, at most 2000 characters, or an empty string
+     * @param embeds The embeds, at most 10 of them
+     * @return A future completing with the sent message, which may also contain other messages
+     */
+    public CompletableFuture<Message> send(MessageChannel channel, String content, Collection<MessageEmbed> embeds){
+        Piece piece = new Piece(content, new ArrayList<>(embeds));
+
+        if(content.length() > Message.MAX_CONTENT_LENGTH)
+            throw new IllegalArgumentException("A message cannot be longer than " + Message.MAX_CONTENT_LENGTH + " characters");
+        if(embeds.size() > Message.MAX_EMBED_COUNT || piece.embedLength > MessageEmbed.EMBED_MAX_LENGTH_BOT)
+            throw new IllegalArgumentException("A message cannot have more than " + Message.MAX_EMBED_COUNT + " embeds or " + MessageEmbed.EMBED_MAX_LENGTH_BOT + " characters of embeds");
+        if(content.isEmpty() && embeds.isEmpty())
+            throw new IllegalArgumentException("A message cannot be empty");
+
+        queued.increment();
+        depth.incrementAndGet();
+
+        while(true){
+            ChannelQueue queue = queues.get(channel.getIdLong());
+
+            if(queue == null)
+                queue = queues.computeIfAbsent(channel.getIdLong(), id -> new ChannelQueue(id, channel));
+
+            if(queue.add(channel, piece))
+                return piece.future;
+        }
+    }
+
+    /**
+     * To reply to an interaction right away, or to send a follow up message if it is already acknowledged
+     * @param event The interaction, such as a slash command
+     * @param content The text
+     * @param ephemeral If only the user of the interaction sees the reply
+     * @return A future completing once the reply is sent
+     */
+    public CompletableFuture<?> reply(IReplyCallback event, String content, boolean ephemeral){
+        return reply(event, new MessageCreateBuilder().setContent(content).build(), ephemeral);
+    }
+
+    /**
+     * To reply to an interaction with an embed right away, or to send a follow up message if it is already acknowledged
+     * @param event The interaction, such as a slash command
+     * @param embed The embed
+     * @param ephemeral If only the user of the interaction sees the reply
+     * @return A future completing once the reply is sent
+     */
+    public CompletableFuture<?> reply(IReplyCallback event, MessageEmbed embed, boolean ephemeral){
+        return reply(event, new MessageCreateBuilder().setEmbeds(embed).build(), ephemeral);
+    }
+
+    // Utility method, interaction replies are not limited by the concurrency of the channels
+    private CompletableFuture<?> reply(IReplyCallback event, MessageCreateData data, boolean ephemeral){
+        long start = System.nanoTime();
+        CompletableFuture<?> future;
+
+        try{
+            future = claim.test(event)
+                    ? event.reply(data).setEphemeral(ephemeral).submit()
+                    : event.getHook().sendMessage(data).setEphemeral(ephemeral).submit();
+        }catch(RuntimeException e){
+            future = CompletableFuture.failedFuture(e);
+        }
+
+        return future.whenComplete((result, error) -> replies.record(System.nanoTime() - start, error != null));
+    }
+
+    /**
+     * To send all the waiting messages without waiting for their window, usually before shutting down
+     */
+    public void flush(){
+        this.closing = true;
+
+        for(ChannelQueue queue : queues.values())
+            queue.due();
+
+        drain();
+    }
+
+    /**
+     * To get the amount of messages waiting in the queues or being sent
+     * @return The amount of messages
+     */
+    public int getDepth(){ return depth.get(); }
+
+    /**
+     * To get the amount of messages given to the pipeline
+     * @return The amount of messages
+     */
+    public long getQueued(){ return queued.sum(); }
+
+    /**
+     * To get the amount of messages actually sent to Discord
+     * @return The amount of messages
+     */
+    public long getSent(){ return sent.sum(); }
+
+    /**
+     * To get the average amount of messages grouped into each sent message
+     * @return The coalescing ratio, 1 if no message was grouped with another one
+     */
+    public double getCoalescingRatio(){
+        long sent = getSent();
+        return sent == 0 ? 1 : (double) (getQueued() - getDepth()) / sent;
+    }
+
+    // Utility method, starts sending to the ready channels while fewer channels than the concurrency are being sent to
+    private void drain(){
+        while(!ready.isEmpty()){
+            int current = sending.get();
+
+            if(current >= concurrency && !closing)
+                return;
+            if(!sending.compareAndSet(current, current + 1))
+                continue;
+
+            ChannelQueue queue = ready.poll();
+
+            if(queue == null){
+                sending.decrementAndGet();
+                continue;
+            }
+
+            queue.send();
+        }
+    }
+
+    @Override
+    public String toString(){
+        return String.format("depth=%d queued=%d sent=%d coalescing=%.2f", getDepth(), getQueued(), getSent(), getCoalescingRatio());
+    }
+
+    /**
+     * Class that represents a message given to the pipeline
+     */
+    static final class Piece {
+        /**
+         * The text, or an empty string
+         */
+        final String content;
+        /**
+         * The embeds
+         */
+        final List<MessageEmbed> embeds;
+        /**
+         * The total length of the embeds
+         */
+        final int embedLength;
+        /**
+         * The future completing with the sent message
+         */
+        final CompletableFuture<Message> future;
+
+        /**
+         * Constructor
+         * @param content The text, or an empty string
+         * @param embeds The embeds
+         */
+        Piece(String content, List<MessageEmbed> embeds){
+            int embedLength = 0;
+            for(MessageEmbed embed : embeds)
+                embedLength += embed.getLength();
+
+            this.content = content;
+            this.embeds = embeds;
+            this.embedLength = embedLength;
+            this.future = new CompletableFuture<>();
+        }
+    }
+
+    /**
+     * Class that represents the waiting messages of a channel, removed from the pipeline once it has none
+     */
+    final class ChannelQueue {
+        /**
+         * The id of the channel
+         */
+        private final long id;
+        /**
+         * The waiting messages
+         */
+        private final ArrayDeque<Piece> pieces;
+        /**
+         * The last given instance of the channel
+         */
+        private MessageChannel channel;
+        /**
+         * The state of the queue
+         */
+        private State state;
+        /**
+         * If the queue was removed from the pipeline, messages are then added to a new queue
+         */
+        private boolean removed;
+
+        /**
+         * Constructor
+         * @param id The id of the channel
+         * @param channel The channel
+         */
+        ChannelQueue(long id, MessageChannel channel){
+            this.id = id;
+            this.channel = channel;
+            this.pieces = new ArrayDeque<>();
+            this.state = State.IDLE;
+        }
+
+        /**
+         * To add a message to the queue, starting its window if it is the first one
+         * @param channel The channel
+         * @param piece The message
+         * @return If the message was added, false if the queue was removed from the pipeline
+         */
+        boolean add(MessageChannel channel, Piece piece){
+            synchronized(this){
+                if(removed)
+                    return false;
+
+                this.channel = channel;
+                pieces.add(piece);
+
+                if(state != State.IDLE)
+                    return true;
+
+                if(window > 0 && !closing){
+                    state = State.WAITING;
+
+                    try{
+                        scheduler.schedule(this::due, window, TimeUnit.MILLISECONDS);
+                        return true;
+                    }catch(RejectedExecutionException e){
+                        // The scheduler is shut down, the message is sent right away
+                    }
+                }
+
+                state = State.READY;
+            }
+
+            ready.add(this);
+            drain();
+            return true;
+        }
+
+        /**
+         * To end the window of the queue, its messages are then sent as soon as possible
+         */
+        void due(){
+            synchronized(this){
+                if(state != State.WAITING)
+                    return;
+
+                state = State.READY;
+            }
+
+            ready.add(this);
+            drain();
+        }
+
+        /**
+         * To send the first waiting messages as a single message
+         */
+        void send(){
+            List<Piece> batch;
+            MessageChannel channel;
+
+            synchronized(this){
+                state = State.SENDING;
+                batch = take();
+                channel = this.channel;
+            }
+
+            MessageCreateBuilder builder = new MessageCreateBuilder();
+            StringBuilder content = new StringBuilder();
+            List<MessageEmbed> embeds = new ArrayList<>();
+
+            for(Piece piece : batch){
+                if(!piece.content.isEmpty())
+                    content.append(content.length() == 0 ? "" : "\n").append(piece.content);
+                embeds.addAll(piece.embeds);
+            }
+
+            long start = System.nanoTime();
+            CompletableFuture<Message> future;
+
+            try{
+                future = channel.sendMessage(builder.setContent(content.toString()).setEmbeds(embeds).build()).submit();
+            }catch(RuntimeException e){
+                future = CompletableFuture.failedFuture(e);
+            }
+
+            future.whenComplete((message, error) -> sent(batch, message, error, start));
+        }
+
+        // Utility method, completes the messages of a batch and sends the messages that arrived meanwhile
+        private void sent(List<Piece> batch, Message message, Throwable error, long start){
+            messages.record(System.nanoTime() - start, error != null);
+            depth.addAndGet(-batch.size());
+            sent.increment();
+
+            for(Piece piece : batch){
+                if(error == null)
+                    piece.future.complete(message);
+                else
+                    piece.future.completeExceptionally(error);
+            }
+
+            boolean more;
+            synchronized(this){
+                more = !pieces.isEmpty();
+
+                if(more){
+                    state = State.READY;
+                }else{
+                    state = State.IDLE;
+                    removed = true;
+                    queues.remove(id, this);
+                }
+            }
+
+            sending.decrementAndGet();
+
+            if(more)
+                ready.add(this);
+
+            drain();
+        }
+
+        // Utility method, takes the first messages fitting in a single message of Discord
+        private List<Piece> take(){
+            List<Piece> batch = new ArrayList<>();
+            int contentLength = 0, embedCount = 0, embedLength = 0;
+
+            while(!pieces.isEmpty()){
+                Piece piece = pieces.peek();
+                int addedLength = piece.content.isEmpty() ? 0 : piece.content.length() + (contentLength == 0 ? 0 : 1);
+
+                if(!batch.isEmpty() && (contentLength + addedLength > Message.MAX_CONTENT_LENGTH
+                        || embedCount + piece.embeds.size() > Message.MAX_EMBED_COUNT
+                        || embedLength + piece.embedLength > MessageEmbed.EMBED_MAX_LENGTH_BOT))
+                    break;
+
+                batch.add(pieces.poll());
+                contentLength += addedLength;
+                embedCount += piece.embeds.size();
+                embedLength += piece.embedLength;
+            }
+
+            return batch;
+        }
+    }
+}
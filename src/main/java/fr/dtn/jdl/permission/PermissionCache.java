@@ -0,0 +1,166 @@
+package fr.dtn.jdl.permission;
+
+import fr.dtn.jdl.util.LongMap;
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Class that caches the effective permissions of members in channels, as raw values, in a table of fixed size.
+ * Entries are stored in groups of 4 slots and tagged with the generation of their guild : a permission change in a guild
+ * increases its generation, which invalidates all its entries at once. Entries also expire after some time, so changes
+ * that come without any event, such as the end of a timeout, are eventually seen.
+ * Each slot holds an immutable entry, so lookups read it in one volatile read and never lock
+ */
+public class PermissionCache {
+    /**
+     * The amount of slots per group and the amount of guild generations
+     */
+    private static final int WAYS = 4, GENERATIONS = 1024;
+
+    /**
+     * The entry of each slot, null if the slot is free
+     */
+    private final AtomicReferenceArray<Entry> slots;
+    /**
+     * The generations of the guilds, several guilds can share the same one
+     */
+    private final AtomicIntegerArray guildGenerations;
+    /**
+     * The mask giving the group of a hash
+     */
+    private final int groupMask;
+    /**
+     * The lifetime of the entries, in nanoseconds
+     */
+    private final long lifetime;
+    /**
+     * The origin of the moments, so that they are always positive
+     */
+    private final long origin;
+
+    /**
+     * Constructor
+     * @param capacity The maximum amount of entries, rounded up to a power of two
+     * @param lifetime The lifetime of the entries, in nanoseconds
+     */
+    public PermissionCache(int capacity, long lifetime){
+        int groups = Math.max(1, Integer.highestOneBit(Math.max(WAYS, capacity) - 1) << 1) / WAYS;
+        this.slots = new AtomicReferenceArray<>(groups * WAYS);
+        this.guildGenerations = new AtomicIntegerArray(GENERATIONS);
+        this.groupMask = groups - 1;
+        this.lifetime = lifetime;
+        this.origin = System.nanoTime() - 1;
+    }
+
+    /**
+     * To check if a member has permissions in a channel, the permission overrides of the channel included
+     * @param member The member
+     * @param channel The channel
+     * @param mask The raw value of the permissions
+     * @return If the member has all the permissions
+     */
+    public boolean hasPermissions(Member member, GuildChannel channel, long mask){
+        return mask == 0 || (get(member, channel) & mask) == mask;
+    }
+
+    /**
+     * To get the effective permissions of a member in a channel, computing them if they are not cached
+     * @param member The member
+     * @param channel The channel
+     * @return The raw value of the permissions
+     */
+    public long get(Member member, GuildChannel channel){
+        long memberId = member.getIdLong(), channelId = channel.getIdLong();
+        int generation = guildGenerations.get(generationOf(member.getGuild().getIdLong()));
+        int base = (LongMap.hash(memberId * 31 + channelId) & groupMask) * WAYS;
+        long now = System.nanoTime() - origin;
+
+        for(int slot = base; slot < base + WAYS; slot++){
+            Entry entry = slots.get(slot);
+
+            if(entry != null && entry.member == memberId && entry.channel == channelId && entry.generation == generation && entry.expiration > now)
+                return entry.value;
+        }
+
+        long value = Permission.getRaw(member.getPermissions(channel));
+        int victim = base;
+        long oldest = Long.MAX_VALUE;
+
+        // Concurrent writers can replace each other's entries, which only costs another computation later
+        for(int slot = base; slot < base + WAYS; slot++){
+            Entry entry = slots.get(slot);
+
+            if(entry == null || (entry.member == memberId && entry.channel == channelId)){
+                victim = slot;
+                break;
+            }
+
+            if(entry.expiration < oldest){
+                oldest = entry.expiration;
+                victim = slot;
+            }
+        }
+
+        slots.set(victim, new Entry(memberId, channelId, value, generation, now + lifetime));
+        return value;
+    }
+
+    /**
+     * To invalidate the cached permissions of all the members of a guild
+     * @param guildId The id of the guild
+     */
+    public void invalidate(long guildId){
+        guildGenerations.incrementAndGet(generationOf(guildId));
+    }
+
+    /**
+     * To get the capacity
+     * @return The maximum amount of entries
+     */
+    public int capacity(){ return slots.length(); }
+
+    // Utility method
+    private static int generationOf(long guildId){ return LongMap.hash(guildId) & (GENERATIONS - 1); }
+
+    /**
+     * Class that represents the cached permissions of a member in a channel
+     */
+    static final class Entry {
+        /**
+         * The member and channel ids
+         */
+        final long member, channel;
+        /**
+         * The effective permissions
+         */
+        final long value;
+        /**
+         * The guild generation the permissions were computed in
+         */
+        final int generation;
+        /**
+         * The moment the entry expires, in nanoseconds since the creation of the cache
+         */
+        final long expiration;
+
+        /**
+         * Constructor
+         * @param member The member id
+         * @param channel The channel id
+         * @param value The effective permissions
+         * @param generation The guild generation the permissions were computed in
+         * @param expiration The moment the entry expires, in nanoseconds since the creation of the cache
+         */
+        Entry(long member, long channel, long value, int generation, long expiration){
+            this.member = member;
+            this.channel = channel;
+            this.value = value;
+            this.generation = generation;
+            this.expiration = expiration;
+        }
+    }
+}
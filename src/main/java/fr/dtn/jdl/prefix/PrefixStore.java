@@ -0,0 +1,143 @@
+package fr.dtn.jdl.prefix;
+
+import com.moandjiezana.toml.Toml;
+import com.moandjiezana.toml.TomlWriter;
+import fr.dtn.jdl.util.LongMap;
+import fr.dtn.jll.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Class that stores the raw text command prefix of each guild. Prefixes are read from an in-memory copy that is replaced
+ * as a whole on each change, so reads never lock nor touch the disk, and changes are saved to the file in background
+ */
+public class PrefixStore {
+    /**
+     * The file the prefixes are saved to
+     */
+    private final File file;
+    /**
+     * The executor running the saves
+     */
+    private final Executor saver;
+    /**
+     * The prefix used by guilds that do not have their own
+     */
+    private final String defaultPrefix;
+    /**
+     * The prefix of each guild, by guild id
+     */
+    private volatile LongMap<String> prefixes;
+    /**
+     * If a save is already waiting to run, so that close changes are saved only once
+     */
+    private final AtomicBoolean savePending;
+
+    /**
+     * Constructor
+     * @param file The file the prefixes are saved to
+     * @param defaultPrefix The prefix used by guilds that do not have their own
+     * @param saver The executor running the saves
+     */
+    public PrefixStore(File file, String defaultPrefix, Executor saver){
+        this.file = file;
+        this.saver = saver;
+        this.defaultPrefix = defaultPrefix;
+        this.savePending = new AtomicBoolean();
+        this.prefixes = load(file);
+    }
+
+    /**
+     * To get the prefix of a guild
+     * @param guildId The id of the guild
+     * @return The prefix of the guild, or the default prefix if it does not have its own
+     */
+    public String get(long guildId){ return prefixes.getOrDefault(guildId, defaultPrefix); }
+
+    /**
+     * To set the prefix of a guild
+     * @param guildId The id of the guild
+     * @param prefix The new prefix of the guild, or null to use the default prefix again
+     */
+    public synchronized void set(long guildId, String prefix){
+        if(prefix != null && prefix.isEmpty())
+            throw new IllegalArgumentException("Prefix cannot be empty");
+
+        LongMap<String> next = prefixes.copy();
+
+        if(prefix == null || prefix.equals(defaultPrefix))
+            next.remove(guildId);
+        else
+            next.put(guildId, prefix);
+
+        this.prefixes = next;
+        scheduleSave();
+    }
+
+    /**
+     * To get the prefix used by guilds that do not have their own
+     * @return The default prefix
+     */
+    public String getDefaultPrefix() { return defaultPrefix; }
+
+    // Utility method
+    private void scheduleSave(){
+        if(savePending.compareAndSet(false, true))
+            saver.execute(this::save);
+    }
+
+    /**
+     * To save the prefixes now if a change is waiting to be saved
+     */
+    public void flush(){
+        if(savePending.get())
+            save();
+    }
+
+    /**
+     * To write the prefixes to the file, through a temporary file so that a crash never leaves it half written
+     */
+    public synchronized void save(){
+        savePending.set(false);
+        Map<String, Object> table = new TreeMap<>();
+        prefixes.forEach((guildId, prefix) -> table.put(Long.toString(guildId), prefix));
+
+        File temporary = new File(file.getPath() + ".tmp");
+        try{
+            new TomlWriter().write(Map.of("prefixes", table), temporary);
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }catch(IOException e){
+            Log.error("Failed to save guild prefixes to '" + file.getPath() + "' : " + e.getMessage());
+        }
+    }
+
+    // Utility method
+    private static LongMap<String> load(File file){
+        LongMap<String> prefixes = new LongMap<>();
+
+        if(!file.exists())
+            return prefixes;
+
+        Toml toml = new Toml().read(file).getTable("prefixes");
+        if(toml == null)
+            return prefixes;
+
+        for(Map.Entry<String, Object> entry : toml.entrySet()){
+            try{
+                prefixes.put(Long.parseLong(entry.getKey().replace("\"", "")), entry.getValue().toString());
+            }catch(NumberFormatException e){
+                Log.error("Loading guild prefixes : Invalid guild id '" + entry.getKey() + "'");
+            }
+        }
+
+        Log.info("Loaded " + prefixes.size() + " guild prefix(es) from '" + file.getPath() + "'");
+        return prefixes;
+    }
+}
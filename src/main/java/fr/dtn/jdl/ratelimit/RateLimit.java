@@ -0,0 +1,124 @@
+package fr.dtn.jdl.ratelimit;
+
+import com.moandjiezana.toml.Toml;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class that represents how often something can be used : a maximum amount of uses per period, the uses being able to
+ * happen in a burst. A cooldown is a rate limit of one use per period
+ */
+public class RateLimit {
+    /**
+     * The maximum amount of uses per period
+     */
+    private final int uses;
+    /**
+     * The period, in nanoseconds
+     */
+    private final long period;
+    /**
+     * The time a use takes from the bucket, and the amount of time the bucket can be in advance, in nanoseconds
+     */
+    private final long interval, tolerance;
+
+    /**
+     * Constructor
+     * @param uses The maximum amount of uses per period
+     * @param period The period, in nanoseconds
+     */
+    public RateLimit(int uses, long period){
+        if(uses < 1 || period < 1)
+            throw new IllegalArgumentException("Rate limit must allow at least 1 use per period");
+
+        this.uses = uses;
+        this.period = period;
+        this.interval = period / uses;
+        this.tolerance = interval * (uses - 1);
+    }
+
+    /**
+     * To parse a rate limit written as 'uses/seconds', such as '3/10' for 3 uses every 10 seconds
+     * @param rate The rate limit
+     * @return The rate limit
+     */
+    public static RateLimit parse(String rate){
+        String[] parts = rate.trim().split("/");
+
+        if(parts.length != 2)
+            throw new IllegalArgumentException("Rate limit '" + rate + "' must be written as 'uses/seconds'");
+
+        return new RateLimit(Integer.parseInt(parts[0].trim()), (long) (Double.parseDouble(parts[1].trim()) * TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    /**
+     * To read the rate limit of a command file, from its 'rate' field or else from its 'cooldown' field in seconds
+     * @param toml The command file
+     * @return The rate limit, or null if the command is not limited
+     */
+    public static RateLimit of(Toml toml){
+        String rate = toml.getString("rate");
+        if(rate != null && !rate.isEmpty())
+            return parse(rate);
+
+        // Integer cooldowns are read as longs by toml4j
+        Object cooldown = toml.toMap().get("cooldown");
+        if(cooldown instanceof Number && ((Number) cooldown).doubleValue() > 0)
+            return new RateLimit(1, (long) (((Number) cooldown).doubleValue() * TimeUnit.SECONDS.toNanos(1)));
+
+        return null;
+    }
+
+    /**
+     * To read a rate limit written by write(DataOutput)
+     * @param in The input
+     * @return The rate limit, or null if there is none
+     * @throws IOException If the input cannot be read
+     */
+    public static RateLimit read(DataInput in) throws IOException {
+        int uses = in.readInt();
+        long period = in.readLong();
+        return uses == 0 ? null : new RateLimit(uses, period);
+    }
+
+    /**
+     * To write a rate limit
+     * @param out The output
+     * @param limit The rate limit, or null if there is none
+     * @throws IOException If the output cannot be written
+     */
+    public static void write(DataOutput out, RateLimit limit) throws IOException {
+        out.writeInt(limit == null ? 0 : limit.uses);
+        out.writeLong(limit == null ? 0 : limit.period);
+    }
+
+    /**
+     * To get uses
+     * @return Uses
+     */
+    public int getUses() { return uses; }
+
+    /**
+     * To get period
+     * @return Period, in nanoseconds
+     */
+    public long getPeriod() { return period; }
+
+    /**
+     * To get interval
+     * @return The time a use takes from the bucket, in nanoseconds
+     */
+    long getInterval() { return interval; }
+
+    /**
+     * To get tolerance
+     * @return The amount of time the bucket can be in advance, in nanoseconds
+     */
+    long getTolerance() { return tolerance; }
+
+    @Override
+    public String toString(){ return uses + "/" + TimeUnit.NANOSECONDS.toMillis(period) / 1000.0 + "s"; }
+}
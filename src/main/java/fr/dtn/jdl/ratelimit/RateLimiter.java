@@ -0,0 +1,122 @@
+package fr.dtn.jdl.ratelimit;
+
+import fr.dtn.jdl.util.LongMap;
+
+/**
+ * Class that holds token buckets by primitive key, in a table of fixed size so that millions of keys never make it grow.
+ * Each bucket is a single long, the moment its tokens are fully back (generic cell rate algorithm), and a bucket whose
+ * moment is passed is the same as no bucket at all, so its slot is free. Keys are stored in groups of 8 slots : when a
+ * group is full of active buckets, the one closest to being full again is evicted
+ */
+public class RateLimiter {
+    /**
+     * The amount of slots per group, and the amount of locks
+     */
+    private static final int WAYS = 8, LOCKS = 64;
+
+    /**
+     * The key of each slot
+     */
+    private final long[] keys;
+    /**
+     * The moment the bucket of each slot is full again, in nanoseconds since the creation of the limiter
+     */
+    private final long[] full;
+    /**
+     * The mask giving the group of a hash
+     */
+    private final int groupMask;
+    /**
+     * The locks of the groups
+     */
+    private final Object[] locks;
+    /**
+     * The origin of the moments, so that they are always positive
+     */
+    private final long origin;
+
+    /**
+     * Constructor
+     * @param capacity The maximum amount of active buckets, rounded up to a power of two
+     */
+    public RateLimiter(int capacity){
+        int groups = Math.max(1, Integer.highestOneBit(Math.max(WAYS, capacity) - 1) << 1) / WAYS;
+        this.keys = new long[groups * WAYS];
+        this.full = new long[groups * WAYS];
+        this.groupMask = groups - 1;
+        this.locks = new Object[LOCKS];
+        this.origin = System.nanoTime() - 1;
+
+        for(int i = 0; i < LOCKS; i++)
+            this.locks[i] = new Object();
+    }
+
+    /**
+     * To take a use from the bucket of a key
+     * @param key The key of the bucket
+     * @param limit The rate limit of the bucket
+     * @return 0 if the use is allowed, or else the time to wait before it would be, in nanoseconds
+     */
+    public long acquire(long key, RateLimit limit){
+        long now = System.nanoTime() - origin;
+        int group = LongMap.hash(key) & groupMask;
+        int base = group * WAYS;
+
+        synchronized(locks[group & (LOCKS - 1)]){
+            int victim = base;
+
+            for(int slot = base; slot < base + WAYS; slot++){
+                if(full[slot] > now && keys[slot] == key){
+                    long moment = full[slot];
+
+                    if(moment - now > limit.getTolerance())
+                        return moment - limit.getTolerance() - now;
+
+                    full[slot] = moment + limit.getInterval();
+                    return 0;
+                }
+
+                if(full[slot] < full[victim])
+                    victim = slot;
+            }
+
+            keys[victim] = key;
+            full[victim] = now + limit.getInterval();
+            return 0;
+        }
+    }
+
+    /**
+     * To give back a use taken from the bucket of a key, when the action it was taken for does not happen
+     * @param key The key of the bucket
+     * @param limit The rate limit of the bucket
+     */
+    public void release(long key, RateLimit limit){
+        long now = System.nanoTime() - origin;
+        int group = LongMap.hash(key) & groupMask;
+        int base = group * WAYS;
+
+        synchronized(locks[group & (LOCKS - 1)]){
+            for(int slot = base; slot < base + WAYS; slot++){
+                if(full[slot] > now && keys[slot] == key){
+                    full[slot] -= limit.getInterval();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * To get the capacity
+     * @return The maximum amount of active buckets
+     */
+    public int capacity(){ return keys.length; }
+
+    /**
+     * To combine an id and a salt into the key of a bucket, such as a user id and a command
+     * @param id The id
+     * @param salt The salt
+     * @return The key
+     */
+    public static long key(long id, long salt){ return id * 0x9E3779B97F4A7C15L + salt; }
+}
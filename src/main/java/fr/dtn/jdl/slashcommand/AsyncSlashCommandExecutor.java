@@ -0,0 +1,37 @@
+package fr.dtn.jdl.slashcommand;
+
+import fr.dtn.jdl.Bot;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Class that represents which code will be executed when slash commands are used, for slash commands doing slow work
+ * such as requests to other services : the work runs in the background, and the slash command is done when the
+ * returned stage completes
+ */
+public interface AsyncSlashCommandExecutor extends SlashCommandExecutor {
+    /**
+     * To start the command, without waiting for its slow work. The bot defers the reply if the command is still running
+     * after the 'execution.deferAfter' delay, so reply with event.reply(...) only if bot.claimReply(event) is true, and
+     * with event.getHook() otherwise, or use bot.getOutbound().reply(...) which does it. An error embed is sent if the
+     * stage fails or times out
+     * @param bot The current bot
+     * @param guild The guild where the slash command is used
+     * @param channel The text channel where the slash command is used
+     * @param author The author of the slash command
+     * @param member The author of the slash command as a member of the guild
+     * @param event The event
+     * @return The stage completing when the command is done
+     */
+    CompletionStage<?> executeAsync(Bot bot, Guild guild, TextChannel channel, User author, Member member, SlashCommandInteractionEvent event);
+
+    @Override
+    default void execute(Bot bot, Guild guild, TextChannel channel, User author, Member member, SlashCommandInteractionEvent event){
+        executeAsync(bot, guild, channel, author, member, event);
+    }
+}
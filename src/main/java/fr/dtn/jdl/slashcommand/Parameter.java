@@ -1,7 +1,14 @@
 package fr.dtn.jdl.slashcommand;
 
+import fr.dtn.jdl.autocomplete.AutoCompleteProvider;
+import fr.dtn.jdl.autocomplete.AutoCompleter;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.function.Supplier;
+
 /**
  * Class that represents a parameter of a slash command
  */
@@ -22,6 +29,32 @@ public class Parameter{
      * The different choices that can be entered on the parameter
      */
     private final String[] choices;
+    /**
+     * The auto complete candidates, on top of the choices
+     */
+    private final String[] candidates;
+    /**
+     * The path of a file with one auto complete candidate per line, or an empty string
+     */
+    private final String candidatesFile;
+    /**
+     * If auto complete also suggests candidates containing the letters typed in order
+     */
+    private final boolean fuzzy;
+    /**
+     * The name of the class of the AutoCompleteProvider, or an empty string if the candidates are static
+     */
+    private final String provider;
+    /**
+     * Creates the AutoCompleteProvider without reflection, for the parameters of annotated commands, or null to load
+     * it from its class name
+     */
+    private final Supplier<AutoCompleteProvider> providerFactory;
+
+    /**
+     * Completes the parameter, created on the first auto complete
+     */
+    private volatile AutoCompleter completer;
 
     /**
      * Constructor
@@ -33,12 +66,105 @@ public class Parameter{
      * @param choices The different choices that can be entered on the parameter
      */
     public Parameter(OptionType type, String name, String description, boolean required, boolean autoComplete, String[] choices){
+        this(type, name, description, required, autoComplete, choices, new String[0], "", false, "");
+    }
+
+    /**
+     * Constructor
+     * @param type The type of the argument
+     * @param name The name of the parameter
+     * @param description The description of the parameter
+     * @param required If the parameter is required or not
+     * @param autoComplete If the auto complete is enabled on the parameter
+     * @param choices The different choices that can be entered on the parameter, also auto complete candidates
+     * @param candidates The auto complete candidates, on top of the choices
+     * @param candidatesFile The path of a file with one auto complete candidate per line, or an empty string
+     * @param fuzzy If auto complete also suggests candidates containing the letters typed in order
+     * @param provider The name of the class of the AutoCompleteProvider, or an empty string if the candidates are static
+     */
+    public Parameter(OptionType type, String name, String description, boolean required, boolean autoComplete, String[] choices, String[] candidates, String candidatesFile, boolean fuzzy, String provider){
+        this(type, name, description, required, autoComplete, choices, candidates, candidatesFile, fuzzy, provider, null);
+    }
+
+    /**
+     * Constructor
+     * @param type The type of the argument
+     * @param name The name of the parameter
+     * @param description The description of the parameter
+     * @param required If the parameter is required or not
+     * @param autoComplete If the auto complete is enabled on the parameter
+     * @param choices The different choices that can be entered on the parameter, also auto complete candidates
+     * @param candidates The auto complete candidates, on top of the choices
+     * @param candidatesFile The path of a file with one auto complete candidate per line, or an empty string
+     * @param fuzzy If auto complete also suggests candidates containing the letters typed in order
+     * @param provider The name of the class of the AutoCompleteProvider, or an empty string if the candidates are static
+     * @param providerFactory Creates the AutoCompleteProvider, or null to load it from its class name
+     */
+    public Parameter(OptionType type, String name, String description, boolean required, boolean autoComplete, String[] choices, String[] candidates, String candidatesFile, boolean fuzzy, String provider, Supplier<AutoCompleteProvider> providerFactory){
         this.type = type;
         this.name = name;
         this.description = description;
         this.required = required;
         this.autoComplete = autoComplete;
         this.choices = choices;
+        this.candidates = candidates;
+        this.candidatesFile = candidatesFile;
+        this.fuzzy = fuzzy;
+        this.provider = provider;
+        this.providerFactory = providerFactory;
+    }
+
+    /**
+     * Constructor
+     * @param in The input to read the parameter from, written by write(DataOutput)
+     * @throws IOException If the input cannot be read
+     */
+    public Parameter(DataInput in) throws IOException {
+        this.type = OptionType.valueOf(in.readUTF());
+        this.name = in.readUTF();
+        this.description = in.readUTF();
+        this.required = in.readBoolean();
+        this.autoComplete = in.readBoolean();
+        this.choices = new String[in.readInt()];
+
+        for(int i = 0; i < choices.length; i++)
+            choices[i] = in.readUTF();
+
+        this.candidates = new String[in.readInt()];
+
+        for(int i = 0; i < candidates.length; i++)
+            candidates[i] = in.readUTF();
+
+        this.candidatesFile = in.readUTF();
+        this.fuzzy = in.readBoolean();
+        this.provider = in.readUTF();
+        this.providerFactory = null;
+    }
+
+    /**
+     * To write the definition of the parameter
+     * @param out The output to write the parameter to
+     * @throws IOException If the output cannot be written
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeUTF(type.name());
+        out.writeUTF(name);
+        out.writeUTF(description);
+        out.writeBoolean(required);
+        out.writeBoolean(autoComplete);
+        out.writeInt(choices.length);
+
+        for(String choice : choices)
+            out.writeUTF(choice);
+
+        out.writeInt(candidates.length);
+
+        for(String candidate : candidates)
+            out.writeUTF(candidate);
+
+        out.writeUTF(candidatesFile);
+        out.writeBoolean(fuzzy);
+        out.writeUTF(provider);
     }
 
     /**
@@ -76,4 +202,59 @@ public class Parameter{
      * @return Choices
      */
     public String[] getChoices() { return choices; }
-}
\ No newline at end of file
+
+    /**
+     * To get candidates
+     * @return Candidates
+     */
+    public String[] getCandidates() { return candidates; }
+
+    /**
+     * To get candidatesFile
+     * @return candidatesFile, or an empty string
+     */
+    public String getCandidatesFile() { return candidatesFile; }
+
+    /**
+     * To get fuzzy
+     * @return fuzzy
+     */
+    public boolean isFuzzy() { return fuzzy; }
+
+    /**
+     * To get provider
+     * @return provider, or an empty string
+     */
+    public String getProvider() { return provider; }
+
+    /**
+     * To get the factory of the provider
+     * @return The factory of the provider, or null if it is loaded from its class name
+     */
+    public Supplier<AutoCompleteProvider> getProviderFactory() { return providerFactory; }
+
+    /**
+     * To get the completer of the parameter, indexing its candidates or instantiating its provider on the first call
+     * @return The completer
+     */
+    public AutoCompleter getCompleter(){
+        AutoCompleter completer = this.completer;
+
+        if(completer == null){
+            synchronized(this){
+                completer = this.completer;
+
+                if(completer == null)
+                    this.completer = completer = AutoCompleter.of(this);
+            }
+        }
+
+        return completer;
+    }
+
+    /**
+     * To know if the completer of the parameter is built, getCompleter() then returns without waiting
+     * @return If the completer is built
+     */
+    public boolean hasCompleter(){ return completer != null; }
+}
@@ -0,0 +1,38 @@
+package fr.dtn.jdl.slashcommand;
+
+import fr.dtn.jdl.Bot;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.utils.messages.MessageCreateData;
+
+/**
+ * Class that represents which code will be executed when slash commands are used, for slash commands answering with a
+ * single reply built from their options : the bot sends the reply, and can cache it if the slash command file has a
+ * 'cache' section. The bot defers the reply if respond(...) takes longer than the 'execution.deferAfter' delay
+ */
+public interface ResponseSlashCommandExecutor extends SlashCommandExecutor {
+    /**
+     * To build the reply of the slash command, the cached reply is sent instead while it is kept
+     * @param bot The current bot
+     * @param guild The guild where the slash command is used
+     * @param channel The text channel where the slash command is used
+     * @param author The author of the slash command
+     * @param member The author of the slash command as a member of the guild
+     * @param event The event, to read the options
+     * @return The reply, replies with files are not cached
+     */
+    MessageCreateData respond(Bot bot, Guild guild, TextChannel channel, User author, Member member, SlashCommandInteractionEvent event);
+
+    @Override
+    default void execute(Bot bot, Guild guild, TextChannel channel, User author, Member member, SlashCommandInteractionEvent event){
+        MessageCreateData response = respond(bot, guild, channel, author, member, event);
+
+        if(bot.claimReply(event))
+            event.reply(response).queue();
+        else
+            event.getHook().sendMessage(response).queue();
+    }
+}
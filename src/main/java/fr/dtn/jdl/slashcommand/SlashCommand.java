@@ -2,6 +2,10 @@ package fr.dtn.jdl.slashcommand;
 
 import com.moandjiezana.toml.Toml;
 import fr.dtn.jdl.Bot;
+import fr.dtn.jdl.autocomplete.AutoCompleter;
+import fr.dtn.jdl.cache.CachePolicy;
+import fr.dtn.jdl.cache.TinyLfuCache;
+import fr.dtn.jdl.ratelimit.RateLimit;
 import fr.dtn.jll.Log;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.Guild;
@@ -9,13 +13,23 @@ import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.api.interactions.commands.build.Commands;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
+import net.dv8tion.jda.api.interactions.commands.build.SlashCommandData;
+import net.dv8tion.jda.api.utils.messages.MessageCreateData;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 /**
  * Class that represents a slash command
@@ -28,7 +42,27 @@ public class SlashCommand {
     /**
      * The permissions required to run the slash command
      */
-    private Permission[] permissions;
+    private final Permission[] permissions;
+    /**
+     * The raw value of the permissions, checked against the effective permissions of members
+     */
+    private final long permissionMask;
+    /**
+     * How often a user can use the command, or null if it is not limited
+     */
+    private final RateLimit rateLimit;
+    /**
+     * The time the command can run before it is timed out, in milliseconds, 0 to use the one of the bot
+     */
+    private final long timeout;
+    /**
+     * How the replies of the command are cached, or null if they are not
+     */
+    private final CachePolicy cachePolicy;
+    /**
+     * The name of the class of the executor
+     */
+    private final String executorClass;
     /**
      * The executor of the slash command
      */
@@ -37,6 +71,10 @@ public class SlashCommand {
      * The parameters of the slash command
      */
     private List<Parameter> parameters;
+    /**
+     * The cached replies, or null if they are not cached
+     */
+    private TinyLfuCache<String, MessageCreateData> responses;
 
     /**
      * Constructor
@@ -50,41 +88,31 @@ public class SlashCommand {
         this.description = toml.getString("description");
 
         List<Object> perms = toml.getList("permissions");
+        List<Permission> permissions = new ArrayList<>();
 
-        try{
-            this.permissions = new Permission[perms.size()];
-        }catch(NullPointerException e){
+        if(perms == null)
             Log.warn("Permissions of slash command '" + displayName + "' are not set, using default empty permissions");
-            this.permissions = new Permission[0];
-        }
+        else
+            for(Object o : perms){
+                String permission = o.toString().toUpperCase();
 
-        for(int i = 0; i < permissions.length; i++){
-            String permission = perms.get(i).toString().toUpperCase();
-
-            try{
-                permissions[i] = Permission.valueOf(permission);
-            }catch(IllegalArgumentException e){
-                Log.error("Loading slash command '" + displayName + "' : Failed to load permission '" + permission + "' : Permission does not exist");
+                try{
+                    permissions.add(Permission.valueOf(permission));
+                }catch(IllegalArgumentException e){
+                    Log.error("Loading slash command '" + displayName + "' : Failed to load permission '" + permission + "' : Permission does not exist");
+                }
             }
-        }
 
-
-        String className = toml.getString("executor");
-        try {
-            this.executor = (SlashCommandExecutor) Class.forName(className).getConstructor().newInstance();
-        }catch(ClassNotFoundException e){
-            Log.error("Loading slash command '" + displayName + "' failed : Impossible to load executor class '" + className + "' : Class not found");
-            return;
-        }catch(NoSuchMethodException e){
-            Log.error("Loading slash command '" + displayName + "' failed : Class '" + className + "' does not have an argument-less constructor");
+        this.permissions = permissions.toArray(new Permission[0]);
+        this.permissionMask = Permission.getRaw(this.permissions);
+        this.rateLimit = RateLimit.of(toml);
+        // Integer timeouts are read as longs by toml4j
+        Object timeout = toml.toMap().get("timeout");
+        this.timeout = timeout instanceof Number ? (long) (((Number) timeout).doubleValue() * 1000) : 0;
+        this.cachePolicy = CachePolicy.of(toml);
+        this.executorClass = toml.getString("executor");
+        if(!loadExecutor())
             return;
-        }catch(InvocationTargetException | InstantiationException e){
-            Log.error("Loading slash command '" + displayName + "' failed : Class '" + className + "' cannot be instantiated : Unknown reason");
-            return;
-        }catch(IllegalAccessException e){
-            Log.error("Loading slash command '" + displayName + "' failed : Class '" + className + "' argument-less constructor is not public");
-            return;
-        }
 
         Log.info("Loading slash command options");
         List<String> names = toml.getList("parameters.name");
@@ -111,13 +139,163 @@ public class SlashCommand {
             }
         });
 
+        List<List<String>> candidates = toml.getList("parameters.candidates");
+        List<String> candidatesFiles = toml.getList("parameters.candidatesFile");
+        List<Boolean> fuzzy = toml.getList("parameters.fuzzy");
+        List<String> providers = toml.getList("parameters.provider");
+
+        for(List<?> list : Arrays.asList(candidates, candidatesFiles, fuzzy, providers)){
+            if(list != null && list.size() != names.size()){
+                Log.error("Loading slash command '" + displayName + "' failed : Different options amount");
+                return;
+            }
+        }
+
         this.parameters = new ArrayList<>();
-        for(int i = 0; i < names.size(); i++)
-            this.parameters.add(new Parameter(types.get(i), names.get(i), descriptions.get(i), required.get(i), autoCompletes.get(i), choice.get(i).toArray(new String[0])));
+        for(int i = 0; i < names.size(); i++){
+            String candidatesFile = candidatesFiles == null ? "" : candidatesFiles.get(i);
+            if(!candidatesFile.equals("") && !new File(candidatesFile).isAbsolute())
+                candidatesFile = new File(file.getAbsoluteFile().getParentFile(), candidatesFile).getPath();
+
+            this.parameters.add(new Parameter(types.get(i), names.get(i), descriptions.get(i), required.get(i), autoCompletes.get(i), choice.get(i).toArray(new String[0]),
+                    candidates == null ? new String[0] : candidates.get(i).toArray(new String[0]),
+                    candidatesFile,
+                    fuzzy != null && fuzzy.get(i),
+                    providers == null ? "" : providers.get(i)));
+        }
 
         Log.info("Slash command '" + displayName + "' loaded successfully");
     }
 
+    /**
+     * Constructor, used by the command indexes generated from annotated executors
+     * @param displayName The name of the slash command
+     * @param description The description of the slash command
+     * @param permissions The permissions required to run the slash command
+     * @param parameters The parameters of the slash command
+     * @param rateLimit How often a user can use the slash command, or null if it is not limited
+     * @param executor The executor of the slash command
+     */
+    public SlashCommand(String displayName, String description, Permission[] permissions, List<Parameter> parameters, RateLimit rateLimit, SlashCommandExecutor executor){
+        this(displayName, description, permissions, parameters, rateLimit, 0, executor);
+    }
+
+    /**
+     * Constructor, used by the command indexes generated from annotated executors
+     * @param displayName The name of the slash command
+     * @param description The description of the slash command
+     * @param permissions The permissions required to run the slash command
+     * @param parameters The parameters of the slash command
+     * @param rateLimit How often a user can use the slash command, or null if it is not limited
+     * @param timeout The time the slash command can run before it is timed out, in milliseconds, 0 to use the one of the bot
+     * @param executor The executor of the slash command
+     */
+    public SlashCommand(String displayName, String description, Permission[] permissions, List<Parameter> parameters, RateLimit rateLimit, long timeout, SlashCommandExecutor executor){
+        this(displayName, description, permissions, parameters, rateLimit, timeout, null, executor);
+    }
+
+    /**
+     * Constructor, used by the command indexes generated from annotated executors
+     * @param displayName The name of the slash command
+     * @param description The description of the slash command
+     * @param permissions The permissions required to run the slash command
+     * @param parameters The parameters of the slash command
+     * @param rateLimit How often a user can use the slash command, or null if it is not limited
+     * @param timeout The time the slash command can run before it is timed out, in milliseconds, 0 to use the one of the bot
+     * @param cachePolicy How the replies of the slash command are cached, or null if they are not
+     * @param executor The executor of the slash command
+     */
+    public SlashCommand(String displayName, String description, Permission[] permissions, List<Parameter> parameters, RateLimit rateLimit, long timeout, CachePolicy cachePolicy, SlashCommandExecutor executor){
+        this.displayName = displayName;
+        this.description = description;
+        this.permissions = permissions;
+        this.permissionMask = Permission.getRaw(permissions);
+        this.rateLimit = rateLimit;
+        this.timeout = timeout;
+        this.cachePolicy = cachePolicy;
+        this.parameters = parameters;
+        this.executorClass = executor.getClass().getName();
+        this.executor = executor;
+        createCache();
+    }
+
+    /**
+     * Constructor
+     * @param in The input to read the slash command from, written by write(DataOutput)
+     * @throws IOException If the input cannot be read
+     */
+    public SlashCommand(DataInput in) throws IOException {
+        this.displayName = in.readUTF();
+        Log.info("Loading slash command '" + displayName + "' from snapshot");
+        this.description = in.readUTF();
+        this.permissionMask = in.readLong();
+        this.permissions = Permission.getPermissions(permissionMask).toArray(new Permission[0]);
+
+        this.rateLimit = RateLimit.read(in);
+        this.timeout = in.readLong();
+        this.cachePolicy = CachePolicy.read(in);
+        this.executorClass = in.readUTF();
+        this.parameters = new ArrayList<>();
+
+        for(int i = in.readInt(); i > 0; i--)
+            parameters.add(new Parameter(in));
+
+        if(loadExecutor())
+            Log.info("Slash command '" + displayName + "' loaded successfully");
+    }
+
+    // Utility method
+    private boolean loadExecutor(){
+        String className = executorClass;
+        try {
+            this.executor = (SlashCommandExecutor) Class.forName(className).getConstructor().newInstance();
+            createCache();
+            return true;
+        }catch(ClassNotFoundException e){
+            Log.error("Loading slash command '" + displayName + "' failed : Impossible to load executor class '" + className + "' : Class not found");
+        }catch(NoSuchMethodException e){
+            Log.error("Loading slash command '" + displayName + "' failed : Class '" + className + "' does not have an argument-less constructor");
+        }catch(InvocationTargetException | InstantiationException e){
+            Log.error("Loading slash command '" + displayName + "' failed : Class '" + className + "' cannot be instantiated : Unknown reason");
+        }catch(IllegalAccessException e){
+            Log.error("Loading slash command '" + displayName + "' failed : Class '" + className + "' argument-less constructor is not public");
+        }
+
+        return false;
+    }
+
+    // Utility method, only the replies built by response executors can be cached
+    private void createCache(){
+        if(cachePolicy == null)
+            return;
+
+        if(executor instanceof ResponseSlashCommandExecutor)
+            this.responses = cachePolicy.newCache();
+        else
+            Log.warn("Replies of slash command '" + displayName + "' are not cached : Executor '" + executorClass + "' does not implement ResponseSlashCommandExecutor");
+    }
+
+    /**
+     * To write the definition of the slash command
+     * @param out The output to write the slash command to
+     * @throws IOException If the output cannot be written
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeUTF(displayName);
+        out.writeUTF(description == null ? "" : description);
+
+        out.writeLong(permissionMask);
+
+        RateLimit.write(out, rateLimit);
+        out.writeLong(timeout);
+        CachePolicy.write(out, cachePolicy);
+        out.writeUTF(executorClass);
+        out.writeInt(parameters.size());
+
+        for(Parameter parameter : parameters)
+            parameter.write(out);
+    }
+
     /**
      * To execute the command
      * @param bot The current bot
@@ -131,6 +309,88 @@ public class SlashCommand {
         executor.execute(bot, guild, channel, author, member, event);
     }
 
+    /**
+     * To execute the command, without waiting for the slow work of asynchronous executors
+     * @param bot The current bot
+     * @param guild The guild where the slash command is used
+     * @param channel The text channel where the slash command is used
+     * @param author The author of the slash command
+     * @param member The author of the slash command as a member of the guild
+     * @param event The event
+     * @return The stage completing when the command is done, already completed for executors that are not asynchronous
+     */
+    public CompletionStage<?> executeAsync(Bot bot, Guild guild, TextChannel channel, User author, Member member, SlashCommandInteractionEvent event) {
+        if(executor instanceof AsyncSlashCommandExecutor)
+            return ((AsyncSlashCommandExecutor) executor).executeAsync(bot, guild, channel, author, member, event);
+
+        if(executor instanceof ResponseSlashCommandExecutor){
+            MessageCreateData response = ((ResponseSlashCommandExecutor) executor).respond(bot, guild, channel, author, member, event);
+
+            // Files are read once when they are sent
+            if(responses != null && response.getFiles().isEmpty())
+                responses.put(cacheKey(guild, author, event), response);
+
+            if(bot.claimReply(event))
+                event.reply(response).queue();
+            else
+                event.getHook().sendMessage(response).queue();
+            return CompletableFuture.completedFuture(null);
+        }
+
+        executor.execute(bot, guild, channel, author, member, event);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * To know if the bot may defer the slash command when it is slow, only asynchronous executors and response executors,
+     * which reply through Bot.claimReply(...), can be deferred
+     * @return If the slash command may be deferred
+     */
+    public boolean isDeferred(){ return executor instanceof AsyncSlashCommandExecutor || executor instanceof ResponseSlashCommandExecutor; }
+
+    /**
+     * To get the cached reply of a use of the slash command
+     * @param guild The guild where the slash command is used
+     * @param author The author of the slash command
+     * @param event The event, giving the options
+     * @return The reply, or null if it is not cached or the replies of the slash command are not cached
+     */
+    public MessageCreateData getCachedResponse(Guild guild, User author, SlashCommandInteractionEvent event){
+        return responses == null ? null : responses.get(cacheKey(guild, author, event));
+    }
+
+    // Utility method, the options are given in the order of the parameters
+    private String cacheKey(Guild guild, User author, SlashCommandInteractionEvent event){
+        StringBuilder options = new StringBuilder();
+
+        for(OptionMapping option : event.getOptions())
+            options.append(option.getName()).append('=').append(option.getAsString()).append('\0');
+
+        return cachePolicy.key(guild.getIdLong(), author.getIdLong(), options.toString());
+    }
+
+    /**
+     * To build the data sent to Discord to register the slash command
+     * @return The data of the slash command
+     */
+    public SlashCommandData toData(){
+        SlashCommandData data = Commands.slash(displayName, description);
+
+        for(Parameter parameter : parameters) {
+            OptionData option = new OptionData(parameter.getType(), parameter.getName(), parameter.getDescription(), parameter.isRequired());
+
+            // Discord does not allow both, the choices are then auto complete candidates
+            if(parameter.isAutoComplete() && option.getType().canSupportChoices())
+                option.setAutoComplete(true);
+            else if(parameter.getChoices().length > 0)
+                option.addChoices(AutoCompleter.toChoices(Arrays.asList(parameter.getChoices()), parameter.getType()));
+
+            data.addOptions(option);
+        }
+
+        return data;
+    }
+
     /**
      * To get displayName
      * @return displayName
@@ -149,9 +409,64 @@ public class SlashCommand {
      */
     public Permission[] getPermissions() { return permissions; }
 
+    /**
+     * To get permissionMask
+     * @return permissionMask
+     */
+    public long getPermissionMask() { return permissionMask; }
+
     /**
      * To get parameters
      * @return Parameters
      */
     public List<Parameter> getParameters(){ return parameters; }
+
+    /**
+     * To get a parameter by its name
+     * @param name The name of the parameter
+     * @return The parameter, or null if there is none
+     */
+    public Parameter getParameter(String name){
+        for(Parameter parameter : parameters)
+            if(parameter.getName().equals(name))
+                return parameter;
+
+        return null;
+    }
+
+    /**
+     * To get rateLimit
+     * @return rateLimit, or null if the command is not limited
+     */
+    public RateLimit getRateLimit() { return rateLimit; }
+
+    /**
+     * To get cachePolicy
+     * @return cachePolicy, or null if the replies of the slash command are not cached
+     */
+    public CachePolicy getCachePolicy() { return cachePolicy; }
+
+    /**
+     * To get the cached replies, with their hit and miss counts
+     * @return The cached replies, or null if they are not cached
+     */
+    public TinyLfuCache<String, MessageCreateData> getResponseCache() { return responses; }
+
+    /**
+     * To get timeout
+     * @return timeout, in milliseconds, 0 to use the one of the bot
+     */
+    public long getTimeout() { return timeout; }
+
+    /**
+     * To get executorClass
+     * @return executorClass
+     */
+    public String getExecutorClass() { return executorClass; }
+
+    /**
+     * To get if the slash command loaded successfully, with its executor and parameters
+     * @return If the slash command is loaded
+     */
+    public boolean isLoaded() { return executor != null && parameters != null; }
 }
\ No newline at end of file
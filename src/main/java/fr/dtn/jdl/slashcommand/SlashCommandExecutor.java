@@ -8,7 +8,10 @@ import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 
 /**
- * Class that represents which code will be executed when slash commands are used
+ * Class that represents which code will be executed when slash commands are used. The bot never acknowledges the
+ * interaction while such an executor runs : it must reply or defer the reply itself within 3 seconds. The bot only
+ * acknowledges it with an error embed if the executor throws, and defers the slow asynchronous and response executors,
+ * see AsyncSlashCommandExecutor and ResponseSlashCommandExecutor
  */
 public interface SlashCommandExecutor {
     /**
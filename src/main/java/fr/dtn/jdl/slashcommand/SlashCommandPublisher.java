@@ -0,0 +1,167 @@
+package fr.dtn.jdl.slashcommand;
+
+import fr.dtn.jll.Log;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.interactions.commands.build.SlashCommandData;
+import net.dv8tion.jda.api.requests.restaction.CommandListUpdateAction;
+import net.dv8tion.jda.api.sharding.ShardManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Class that collects the data of all the slash commands and sends it to Discord in a single bulk update.
+ * The hash of the last sent command set is saved, so that an unchanged set is never sent again
+ */
+public class SlashCommandPublisher {
+    /**
+     * The file storing the hash of the last sent command set
+     */
+    private final File hashFile;
+    /**
+     * The id of the guild the commands are registered on, or 0 to register them globally
+     */
+    private final long guildId;
+    /**
+     * The data of the slash commands, by name
+     */
+    private final Map<String, SlashCommandData> commands;
+    /**
+     * If the command set changed since it was last sent
+     */
+    private boolean dirty;
+
+    /**
+     * Constructor
+     * @param hashFile The file storing the hash of the last sent command set
+     * @param guildId The id of the guild the commands are registered on, or 0 to register them globally
+     */
+    public SlashCommandPublisher(File hashFile, long guildId){
+        this.hashFile = hashFile;
+        this.guildId = guildId;
+        this.commands = new TreeMap<>();
+    }
+
+    /**
+     * To add or replace the data of a slash command
+     * @param data The data of the slash command
+     */
+    public synchronized void put(SlashCommandData data){
+        commands.put(data.getName(), data);
+        dirty = true;
+    }
+
+    /**
+     * To remove the data of a slash command
+     * @param name The name of the slash command
+     */
+    public synchronized void remove(String name){
+        if(commands.remove(name) != null)
+            dirty = true;
+    }
+
+    /**
+     * To get if the command set changed since it was last sent
+     * @return If the command set changed
+     */
+    public synchronized boolean isDirty() { return dirty; }
+
+    /**
+     * To send the command set to Discord if it changed since the last time it was sent, even before a restart
+     * @param shards The shards of the bot
+     * @param force If the command set is sent even if it did not change
+     * @return If the command set is sent or up to date, false if the target guild is not available yet or no shard runs
+     */
+    public synchronized boolean publish(ShardManager shards, boolean force){
+        List<SlashCommandData> data = new ArrayList<>(commands.values());
+        String hash = scope() + ":" + hash(data);
+
+        if(!force && hash.equals(readHash())){
+            Log.info("Slash commands are up to date (" + data.size() + " command(s)), skipping registration");
+            dirty = false;
+            return true;
+        }
+
+        CommandListUpdateAction action;
+
+        if(guildId != 0){
+            Guild guild = shards.getGuildById(guildId);
+
+            if(guild == null)
+                return false;
+
+            action = guild.updateCommands();
+        }else{
+            // A node of a shard coordinator can run no shard, when there are more nodes than shards
+            Iterator<JDA> running = shards.getShardCache().iterator();
+
+            if(!running.hasNext())
+                return false;
+
+            action = running.next().updateCommands();
+        }
+
+        Log.info("Registering " + data.size() + " slash command(s) on " + scope());
+        action.addCommands(data).queue(
+                success -> writeHash(hash),
+                failure -> Log.error("Failed to register slash commands on " + scope() + " : " + failure.getMessage())
+        );
+
+        dirty = false;
+        return true;
+    }
+
+    // Utility method
+    private String scope(){ return guildId == 0 ? "global" : "guild " + guildId; }
+
+    // Utility method
+    private String readHash(){
+        try{
+            return hashFile.exists() ? new String(Files.readAllBytes(hashFile.toPath()), StandardCharsets.UTF_8).trim() : null;
+        }catch(IOException e){
+            Log.warn("Failed to read slash commands hash from '" + hashFile.getPath() + "' : " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Utility method
+    private void writeHash(String hash){
+        try{
+            Files.write(hashFile.toPath(), hash.getBytes(StandardCharsets.UTF_8));
+        }catch(IOException e){
+            Log.warn("Failed to write slash commands hash to '" + hashFile.getPath() + "' : " + e.getMessage());
+        }
+    }
+
+    /**
+     * To compute the hash of a command set, from the JSON sent to Discord
+     * @param commands The data of the commands, sorted by name
+     * @return The hexadecimal SHA-256 hash of the command set
+     */
+    public static String hash(List<SlashCommandData> commands){
+        try{
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+            for(SlashCommandData command : commands)
+                digest.update(command.toData().toJson());
+
+            StringBuilder hex = new StringBuilder();
+            for(byte b : digest.digest())
+                hex.append(String.format("%02x", b));
+
+            return hex.toString();
+        }catch(NoSuchAlgorithmException e){
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,568 @@
+package fr.dtn.jdl.store;
+
+import fr.dtn.jdl.util.LongMap;
+import fr.dtn.jll.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * Key-value store saved in a directory, whose entries belong to a guild or a user, by id. Every change is appended to a
+ * memory-mapped log, and an index in memory gives the position of the last value of each key, so that reading a value
+ * only copies its bytes. The log is compacted into a new file once it is mostly made of replaced values, and the
+ * records that were not completely written when the process stopped are ignored when the store is opened again
+ */
+public class KeyValueStore {
+    /**
+     * The first bytes of a log file, 'JDLS', and the version of its format
+     */
+    private static final int MAGIC = 0x4A444C53, VERSION = 1;
+    /**
+     * The size of the header of a log file, and of the header of a record : its checksum, id, key length and value length
+     */
+    private static final int FILE_HEADER = 8, RECORD_HEADER = 18;
+    /**
+     * The initial and maximum sizes of the mapped log, in bytes
+     */
+    private static final int INITIAL_SIZE = 1 << 20, MAX_SIZE = 1 << 30;
+    /**
+     * The value length of the records removing a key
+     */
+    private static final int REMOVED = -1;
+
+    /**
+     * The directory of the log files
+     */
+    private final File directory;
+    /**
+     * Guards the index and the log, values are read concurrently
+     */
+    private final ReentrantReadWriteLock lock;
+
+    /**
+     * The position of the record of each key in the log, by id
+     */
+    private LongMap<HashMap<String, Integer>> index;
+    /**
+     * The generation of the current log file, increased by each compaction
+     */
+    private long generation;
+    /**
+     * The current log file, and its mapping
+     */
+    private FileChannel channel;
+    private MappedByteBuffer log;
+    /**
+     * The position after the last record, and the amount of bytes of the records of the index
+     */
+    private int tail, live;
+    /**
+     * The amount of entries
+     */
+    private int size;
+    /**
+     * If the store is closed
+     */
+    private boolean closed;
+
+    /**
+     * Constructor, opens the last log file of the directory and reads its records
+     * @param directory The directory of the log files, created if it does not exist
+     * @throws UncheckedIOException If the log file cannot be opened
+     */
+    public KeyValueStore(File directory){
+        this.directory = directory;
+        this.lock = new ReentrantReadWriteLock();
+        this.index = new LongMap<>();
+
+        if(!directory.isDirectory() && !directory.mkdirs())
+            throw new UncheckedIOException(new IOException("Unable to create store directory '" + directory.getPath() + "'"));
+
+        try{
+            this.generation = lastGeneration();
+            open(generation == 0 ? ++generation : generation);
+            recover();
+        }catch(IOException e){
+            throw new UncheckedIOException("Failed to open store '" + directory.getPath() + "'", e);
+        }
+
+        Log.info("Loaded " + size + " stored entr(y/ies) from '" + directory.getPath() + "'");
+    }
+
+    /**
+     * To get the value of a key
+     * @param id The id of the guild or user the entry belongs to
+     * @param key The key
+     * @return A copy of the value, or null if the key is absent
+     */
+    public byte[] get(long id, String key){
+        lock.readLock().lock();
+
+        try{
+            int position = positionOf(id, key);
+
+            if(position < 0)
+                return null;
+
+            byte[] value = new byte[log.getInt(position + 14)];
+            log.get(position + RECORD_HEADER + log.getShort(position + 12), value);
+            return value;
+        }finally{
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * To get the value of a key as a text
+     * @param id The id of the guild or user the entry belongs to
+     * @param key The key
+     * @return The value, or null if the key is absent
+     */
+    public String getString(long id, String key){
+        byte[] value = get(id, key);
+        return value == null ? null : new String(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * To get the value of a key as a number
+     * @param id The id of the guild or user the entry belongs to
+     * @param key The key
+     * @param defaultValue The value to return if the key is absent
+     * @return The value, or the default value if the key is absent
+     */
+    public long getLong(long id, String key, long defaultValue){
+        byte[] value = get(id, key);
+        return value == null || value.length != Long.BYTES ? defaultValue : ByteBuffer.wrap(value).getLong();
+    }
+
+    /**
+     * To know if a key has a value
+     * @param id The id of the guild or user the entry belongs to
+     * @param key The key
+     * @return If the key has a value
+     */
+    public boolean contains(long id, String key){
+        lock.readLock().lock();
+
+        try{
+            return positionOf(id, key) >= 0;
+        }finally{
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * To get the keys that have a value for a guild or user
+     * @param id The id of the guild or user
+     * @return A copy of the keys
+     */
+    public Set<String> keys(long id){
+        lock.readLock().lock();
+
+        try{
+            HashMap<String, Integer> keys = index.get(id);
+            return keys == null ? Collections.emptySet() : new HashSet<>(keys.keySet());
+        }finally{
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * To set the value of a key
+     * @param id The id of the guild or user the entry belongs to
+     * @param key The key, at most 32767 bytes once encoded
+     * @param value The value
+     * @throws IllegalStateException If the store is closed or full
+     */
+    public void put(long id, String key, byte[] value){
+        if(value == null)
+            throw new IllegalArgumentException("Stored values cannot be null, use remove(long, String) instead");
+
+        append(id, key, value);
+    }
+
+    /**
+     * To set the value of a key to a text
+     * @param id The id of the guild or user the entry belongs to
+     * @param key The key
+     * @param value The value
+     */
+    public void putString(long id, String key, String value){ put(id, key, value.getBytes(StandardCharsets.UTF_8)); }
+
+    /**
+     * To set the value of a key to a number
+     * @param id The id of the guild or user the entry belongs to
+     * @param key The key
+     * @param value The value
+     */
+    public void putLong(long id, String key, long value){ put(id, key, ByteBuffer.allocate(Long.BYTES).putLong(value).array()); }
+
+    /**
+     * To remove the value of a key
+     * @param id The id of the guild or user the entry belongs to
+     * @param key The key
+     * @return If the key had a value
+     */
+    public boolean remove(long id, String key){ return append(id, key, null); }
+
+    /**
+     * To get the amount of entries
+     * @return The amount of entries
+     */
+    public int size(){
+        lock.readLock().lock();
+
+        try{
+            return size;
+        }finally{
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * To get the amount of bytes of the log taken by replaced and removed values
+     * @return The amount of bytes
+     */
+    public int getGarbage(){
+        lock.readLock().lock();
+
+        try{
+            return tail - FILE_HEADER - live;
+        }finally{
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * To write the changes of the log to the disk, they survive a crash of the process without it, but not one of the
+     * machine
+     */
+    public void sync(){
+        lock.readLock().lock();
+
+        try{
+            if(!closed)
+                log.force();
+        }finally{
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * To compact the log if at least half of it, and 64 KB, are replaced and removed values
+     * @return If the log was compacted
+     */
+    public boolean compactIfNeeded(){
+        lock.writeLock().lock();
+
+        try{
+            int garbage = tail - FILE_HEADER - live;
+
+            if(closed || garbage < 64 * 1024 || garbage < live)
+                return false;
+
+            compact();
+            return true;
+        }finally{
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * To write the entries to a new log file, without the replaced and removed values. The new file only replaces the
+     * current one once it is completely written, so a crash while compacting keeps the current one
+     */
+    public void compact(){
+        lock.writeLock().lock();
+
+        try{
+            if(closed)
+                throw new IllegalStateException("Store '" + directory.getPath() + "' is closed");
+
+            File temporary = new File(directory, "store-" + (generation + 1) + ".log.tmp");
+            LongMap<HashMap<String, Integer>> compacted = new LongMap<>(index.size());
+            ByteBuffer output = ByteBuffer.allocate(FILE_HEADER + live).putInt(MAGIC).putInt(VERSION);
+
+            index.forEach((id, keys) -> {
+                HashMap<String, Integer> positions = new HashMap<>(keys.size() * 2);
+
+                // Records are copied with their checksum
+                for(Map.Entry<String, Integer> entry : keys.entrySet()){
+                    int position = entry.getValue();
+                    positions.put(entry.getKey(), output.position());
+                    output.put(log.slice(position, lengthOf(position)));
+                }
+
+                compacted.put(id, positions);
+            });
+
+            try(FileChannel out = FileChannel.open(temporary.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)){
+                output.flip();
+                while(output.hasRemaining())
+                    out.write(output);
+                out.force(true);
+            }
+
+            Files.move(temporary.toPath(), fileOf(generation + 1).toPath(), StandardCopyOption.ATOMIC_MOVE);
+
+            File previous = fileOf(generation);
+            int before = tail;
+            channel.close();
+            open(++generation);
+            this.index = compacted;
+            this.tail = FILE_HEADER + live;
+
+            // Mapped files cannot be deleted on some systems, an older generation is then deleted the next time the store is opened
+            if(!previous.delete())
+                previous.deleteOnExit();
+
+            Log.info("Compacted store '" + directory.getPath() + "' from " + before + " to " + tail + " bytes");
+        }catch(IOException e){
+            throw new UncheckedIOException("Failed to compact store '" + directory.getPath() + "'", e);
+        }finally{
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * To write the changes to the disk and close the log, the store cannot be used anymore
+     */
+    public void close(){
+        lock.writeLock().lock();
+
+        try{
+            if(closed)
+                return;
+
+            closed = true;
+            log.force();
+            channel.close();
+        }catch(IOException e){
+            Log.error("Failed to close store '" + directory.getPath() + "' : " + e.getMessage());
+        }finally{
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Utility method, the caller holds a lock
+    private int positionOf(long id, String key){
+        if(closed)
+            throw new IllegalStateException("Store '" + directory.getPath() + "' is closed");
+
+        HashMap<String, Integer> keys = index.get(id);
+        Integer position = keys == null ? null : keys.get(key);
+        return position == null ? -1 : position;
+    }
+
+    // Utility method, the checksum is written last, so a record cut by a crash is never read back
+    private boolean append(long id, String key, byte[] value){
+        byte[] encodedKey = key.getBytes(StandardCharsets.UTF_8);
+
+        if(encodedKey.length == 0 || encodedKey.length > Short.MAX_VALUE)
+            throw new IllegalArgumentException("Stored keys must take from 1 to " + Short.MAX_VALUE + " bytes");
+
+        int length = RECORD_HEADER + encodedKey.length + (value == null ? 0 : value.length);
+        lock.writeLock().lock();
+
+        try{
+            if(closed)
+                throw new IllegalStateException("Store '" + directory.getPath() + "' is closed");
+
+            // Removing an absent key writes nothing
+            if(value == null && positionOf(id, key) < 0)
+                return false;
+
+            reserve(length);
+            int position = tail;
+
+            log.putLong(position + 4, id);
+            log.putShort(position + 12, (short) encodedKey.length);
+            log.putInt(position + 14, value == null ? REMOVED : value.length);
+            log.put(position + RECORD_HEADER, encodedKey);
+            if(value != null)
+                log.put(position + RECORD_HEADER + encodedKey.length, value);
+            log.putInt(position, checksum(position, length));
+
+            this.tail = position + length;
+            return apply(id, key, position, length, value == null);
+        }catch(IOException e){
+            throw new UncheckedIOException("Failed to grow store '" + directory.getPath() + "'", e);
+        }finally{
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Utility method, updates the index with a record
+    private boolean apply(long id, String key, int position, int length, boolean removed){
+        HashMap<String, Integer> keys = index.get(id);
+        Integer previous = keys == null ? null : keys.get(key);
+
+        if(previous != null){
+            live -= lengthOf(previous);
+            size--;
+        }
+
+        if(removed){
+            if(previous != null){
+                keys.remove(key);
+
+                if(keys.isEmpty())
+                    index.remove(id);
+            }
+        }else{
+            if(keys == null)
+                index.put(id, keys = new HashMap<>(4));
+
+            keys.put(key, position);
+            live += length;
+            size++;
+        }
+
+        return previous != null;
+    }
+
+    // Utility method, grows the mapping of the log, compacting it first if it would be too large
+    private void reserve(int length) throws IOException {
+        if(tail + length <= log.capacity())
+            return;
+
+        if(tail - FILE_HEADER - live >= length){
+            compact();
+
+            if(tail + length <= log.capacity())
+                return;
+        }
+
+        long capacity = log.capacity();
+        while(capacity < tail + length)
+            capacity *= 2;
+
+        if(capacity > MAX_SIZE)
+            throw new IllegalStateException("Store '" + directory.getPath() + "' is full : " + MAX_SIZE + " bytes");
+
+        this.log = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    // Utility method, maps a log file, writing its header if it is new
+    private void open(long generation) throws IOException {
+        this.channel = FileChannel.open(fileOf(generation).toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long capacity = INITIAL_SIZE;
+
+        while(capacity < channel.size())
+            capacity *= 2;
+
+        if(capacity > MAX_SIZE)
+            throw new IOException("Log file is larger than " + MAX_SIZE + " bytes");
+
+        boolean created = channel.size() == 0;
+        this.log = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+
+        if(created){
+            log.putInt(0, MAGIC);
+            log.putInt(4, VERSION);
+        }else if(log.getInt(0) != MAGIC || log.getInt(4) != VERSION){
+            throw new IOException("'" + fileOf(generation).getName() + "' is not a store log of version " + VERSION);
+        }
+    }
+
+    // Utility method, reads the records of the log until the first one that is not completely written
+    private void recover(){
+        int position = FILE_HEADER;
+
+        while(position + RECORD_HEADER <= log.capacity()){
+            short keyLength = log.getShort(position + 12);
+            int valueLength = log.getInt(position + 14);
+
+            if(keyLength <= 0 || valueLength < REMOVED)
+                break;
+
+            long length = (long) RECORD_HEADER + keyLength + Math.max(0, valueLength);
+
+            if(position + length > log.capacity() || log.getInt(position) != checksum(position, (int) length))
+                break;
+
+            byte[] key = new byte[keyLength];
+            log.get(position + RECORD_HEADER, key);
+            apply(log.getLong(position + 4), new String(key, StandardCharsets.UTF_8), position, (int) length, valueLength == REMOVED);
+            position += (int) length;
+        }
+
+        this.tail = position;
+
+        // The bytes of a record cut by a crash are cleared, so that they are never mistaken for the next records
+        if(position + RECORD_HEADER <= log.capacity() && (log.getLong(position) != 0 || log.getLong(position + 8) != 0)){
+            Log.warn("Store '" + directory.getPath() + "' : Ignoring the incomplete record at byte " + position);
+
+            for(int i = position; i < log.capacity(); i++)
+                log.put(i, (byte) 0);
+        }
+    }
+
+    // Utility method
+    private int lengthOf(int position){ return RECORD_HEADER + log.getShort(position + 12) + Math.max(0, log.getInt(position + 14)); }
+
+    // Utility method, the checksum covers the record after its own 4 bytes
+    private int checksum(int position, int length){
+        CRC32 crc = new CRC32();
+        crc.update(log.slice(position + 4, length - 4));
+        return (int) crc.getValue();
+    }
+
+    // Utility method, keeps the last complete generation and deletes the other files
+    private long lastGeneration(){
+        File[] files = directory.listFiles();
+        long last = 0;
+
+        if(files == null)
+            return 0;
+
+        for(File file : files){
+            String name = file.getName();
+
+            if(name.startsWith("store-") && name.endsWith(".log")){
+                try{
+                    last = Math.max(last, Long.parseLong(name.substring(6, name.length() - 4)));
+                }catch(NumberFormatException ignored){}
+            }
+        }
+
+        for(File file : files){
+            String name = file.getName();
+
+            // Temporary files are compactions the process did not finish
+            if(name.startsWith("store-") && (name.endsWith(".log.tmp") || (name.endsWith(".log") && !file.equals(fileOf(last)))) && !file.delete())
+                Log.warn("Unable to delete '" + file.getPath() + "'");
+        }
+
+        return last;
+    }
+
+    // Utility method
+    private File fileOf(long generation){ return new File(directory, "store-" + generation + ".log"); }
+
+    @Override
+    public String toString(){
+        lock.readLock().lock();
+
+        try{
+            return size + " entries, " + tail + " bytes of which " + (tail - FILE_HEADER - live) + " garbage";
+        }finally{
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package fr.dtn.jdl.util;
+
+import java.util.Arrays;
+
+/**
+ * Map with primitive long keys, using open addressing with linear probing so that no key is ever boxed.
+ * It is not thread-safe : share it through copies published with a volatile reference when it is read concurrently
+ * @param <V> The type of the values, null values are not supported
+ */
+public class LongMap<V> {
+    /**
+     * The maximum ratio of used slots before the table grows
+     */
+    private static final float LOAD_FACTOR = 0.6f;
+
+    /**
+     * The keys of each slot
+     */
+    private long[] keys;
+    /**
+     * The values of each slot, a null value marks a free slot
+     */
+    private Object[] values;
+    /**
+     * The amount of entries
+     */
+    private int size;
+
+    /**
+     * Constructor
+     */
+    public LongMap(){ this(16); }
+
+    /**
+     * Constructor
+     * @param expected The amount of entries the map should hold without growing
+     */
+    public LongMap(int expected){
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expected / LOAD_FACTOR)) - 1) << 1;
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+    }
+
+    /**
+     * To get the value of a key
+     * @param key The key
+     * @return The value, or null if the key is absent
+     */
+    public V get(long key){ return getOrDefault(key, null); }
+
+    /**
+     * To get the value of a key
+     * @param key The key
+     * @param defaultValue The value to return if the key is absent
+     * @return The value, or the default value if the key is absent
+     */
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(long key, V defaultValue){
+        long[] keys = this.keys;
+        Object[] values = this.values;
+        int mask = keys.length - 1;
+
+        for(int i = hash(key) & mask; values[i] != null; i = (i + 1) & mask)
+            if(keys[i] == key)
+                return (V) values[i];
+
+        return defaultValue;
+    }
+
+    /**
+     * To associate a value to a key
+     * @param key The key
+     * @param value The value, cannot be null
+     * @return The previous value of the key, or null if it was absent
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value){
+        if(value == null)
+            throw new NullPointerException("LongMap does not support null values");
+
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+
+        for(; values[i] != null; i = (i + 1) & mask){
+            if(keys[i] == key){
+                V previous = (V) values[i];
+                values[i] = value;
+                return previous;
+            }
+        }
+
+        keys[i] = key;
+        values[i] = value;
+
+        if(++size > keys.length * LOAD_FACTOR)
+            resize(keys.length << 1);
+
+        return null;
+    }
+
+    /**
+     * To remove a key
+     * @param key The key
+     * @return The value of the key, or null if it was absent
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key){
+        int mask = keys.length - 1;
+
+        for(int i = hash(key) & mask; values[i] != null; i = (i + 1) & mask){
+            if(keys[i] == key){
+                V previous = (V) values[i];
+                shiftBack(i);
+                size--;
+                return previous;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * To get the amount of entries
+     * @return The amount of entries
+     */
+    public int size(){ return size; }
+
+    /**
+     * To get if the map does not contain any entry
+     * @return If the map is empty
+     */
+    public boolean isEmpty(){ return size == 0; }
+
+    /**
+     * To remove all the entries
+     */
+    public void clear(){
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * To run an action on every entry
+     * @param action The action
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(Entry<? super V> action){
+        long[] keys = this.keys;
+        Object[] values = this.values;
+
+        for(int i = 0; i < keys.length; i++)
+            if(values[i] != null)
+                action.accept(keys[i], (V) values[i]);
+    }
+
+    /**
+     * To copy the map, the values themselves are not copied
+     * @return The copy
+     */
+    public LongMap<V> copy(){
+        LongMap<V> copy = new LongMap<>(4);
+        copy.keys = keys.clone();
+        copy.values = values.clone();
+        copy.size = size;
+        return copy;
+    }
+
+    // Utility method, fills the hole left at a removed slot by moving back the following entries of its probe sequence
+    private void shiftBack(int hole){
+        int mask = keys.length - 1;
+
+        for(int i = (hole + 1) & mask; values[i] != null; i = (i + 1) & mask){
+            int home = hash(keys[i]) & mask;
+
+            if(((i - home) & mask) >= ((i - hole) & mask)){
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                hole = i;
+            }
+        }
+
+        values[hole] = null;
+    }
+
+    // Utility method
+    private void resize(int capacity){
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        int mask = capacity - 1;
+
+        for(int j = 0; j < oldKeys.length; j++){
+            if(oldValues[j] == null)
+                continue;
+
+            int i = hash(oldKeys[j]) & mask;
+            while(values[i] != null)
+                i = (i + 1) & mask;
+
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+
+    /**
+     * To spread the bits of a key, Discord ids share most of their high bits
+     * @param key The key
+     * @return The hash of the key
+     */
+    public static int hash(long key){
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    /**
+     * Represents an action run on an entry of the map
+     * @param <V> The type of the values
+     */
+    public interface Entry<V> {
+        /**
+         * To run the action
+         * @param key The key of the entry
+         * @param value The value of the entry
+         */
+        void accept(long key, V value);
+    }
+}
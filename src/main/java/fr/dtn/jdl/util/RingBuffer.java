@@ -0,0 +1,122 @@
+package fr.dtn.jdl.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free queue backed by a ring of slots, any thread can offer and poll.
+ * Each slot has a sequence number telling if it is free for the producer or filled for the consumer of a given lap
+ * @param <T> The type of the elements
+ */
+public class RingBuffer<T> {
+    /**
+     * The elements of each slot
+     */
+    private final AtomicReferenceArray<T> elements;
+    /**
+     * The sequence number of each slot
+     */
+    private final AtomicLongArray sequences;
+    /**
+     * The mask giving the slot of a position
+     */
+    private final int mask;
+    /**
+     * The position of the next offered element and the position of the next polled element
+     */
+    private final AtomicLong tail, head;
+
+    /**
+     * Constructor
+     * @param capacity The minimum capacity, rounded up to a power of two
+     */
+    public RingBuffer(int capacity){
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.tail = new AtomicLong();
+        this.head = new AtomicLong();
+
+        for(int i = 0; i < size; i++)
+            sequences.set(i, i);
+    }
+
+    /**
+     * To add an element if the buffer is not full
+     * @param element The element, cannot be null
+     * @return If the element was added
+     */
+    public boolean offer(T element){
+        while(true){
+            long position = tail.get();
+            int slot = (int) position & mask;
+            long difference = sequences.get(slot) - position;
+
+            if(difference == 0){
+                if(tail.compareAndSet(position, position + 1)){
+                    elements.lazySet(slot, element);
+                    sequences.set(slot, position + 1);
+                    return true;
+                }
+            }else if(difference < 0){
+                return false;
+            }
+        }
+    }
+
+    /**
+     * To remove the oldest element
+     * @return The element, or null if the buffer is empty
+     */
+    public T poll(){
+        while(true){
+            long position = head.get();
+            int slot = (int) position & mask;
+            long difference = sequences.get(slot) - (position + 1);
+
+            if(difference == 0){
+                if(head.compareAndSet(position, position + 1)){
+                    T element = elements.get(slot);
+                    elements.lazySet(slot, null);
+                    sequences.set(slot, position + mask + 1);
+                    return element;
+                }
+            }else if(difference < 0){
+                return null;
+            }
+        }
+    }
+
+    /**
+     * To remove elements and give them to a consumer, in offering order
+     * @param consumer The consumer
+     * @param limit The maximum amount of elements to remove
+     * @return The amount of removed elements
+     */
+    public int drain(Consumer<? super T> consumer, int limit){
+        int count = 0;
+        T element;
+
+        while(count < limit && (element = poll()) != null){
+            consumer.accept(element);
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * To get the approximate amount of elements, exact when no other thread uses the buffer
+     * @return The amount of elements
+     */
+    public int size(){ return (int) Math.max(0, Math.min(tail.get() - head.get(), capacity())); }
+
+    /**
+     * To get the capacity
+     * @return The capacity
+     */
+    public int capacity(){ return mask + 1; }
+}
@@ -0,0 +1,97 @@
+package fr.dtn.jdl.simulator;
+
+import fr.dtn.jdl.Bot;
+import fr.dtn.jdl.event.EventHandler;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRoleAddEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRoleRemoveEvent;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Event handler that records the events of a running bot, to replay them later in a simulation. Guilds and members are
+ * replaced by indexes in the order they are first seen, but the contents of the messages are kept as they are.
+ * Register it with bot.registerEventHandler(GenericEvent.class, recorder)
+ */
+public class EventRecorder implements EventHandler<GenericEvent>, Closeable {
+    /**
+     * The writer of the recording
+     */
+    private final BufferedWriter writer;
+    /**
+     * The index of each guild, by id
+     */
+    private final Map<Long, Integer> guilds;
+    /**
+     * The index of each member in its guild, by guild id and member id
+     */
+    private final Map<Long, Map<Long, Integer>> members;
+    /**
+     * The time of the previous event, from System.nanoTime()
+     */
+    private long previous;
+
+    /**
+     * Constructor
+     * @param file The recording, replaced if it exists
+     * @throws IOException If the recording cannot be created
+     */
+    public EventRecorder(File file) throws IOException {
+        this.writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8);
+        this.guilds = new HashMap<>();
+        this.members = new HashMap<>();
+        this.previous = System.nanoTime();
+    }
+
+    @Override
+    public void happen(Bot bot, GenericEvent event){
+        if(event instanceof MessageReceivedEvent){
+            MessageReceivedEvent message = (MessageReceivedEvent) event;
+
+            if(message.isFromGuild() && message.getMember() != null)
+                record(SimulatedEvent.Kind.MESSAGE, message.getGuild(), message.getMember(), message.getMessage().getContentRaw());
+        }else if(event instanceof SlashCommandInteractionEvent){
+            SlashCommandInteractionEvent slashCommand = (SlashCommandInteractionEvent) event;
+
+            if(slashCommand.getGuild() != null && slashCommand.getMember() != null)
+                record(SimulatedEvent.Kind.SLASH_COMMAND, slashCommand.getGuild(), slashCommand.getMember(), slashCommand.getName());
+        }else if(event instanceof GuildMemberRoleAddEvent){
+            record(SimulatedEvent.Kind.ROLE_ADD, ((GuildMemberRoleAddEvent) event).getGuild(), ((GuildMemberRoleAddEvent) event).getMember(), "");
+        }else if(event instanceof GuildMemberRoleRemoveEvent){
+            record(SimulatedEvent.Kind.ROLE_REMOVE, ((GuildMemberRoleRemoveEvent) event).getGuild(), ((GuildMemberRoleRemoveEvent) event).getMember(), "");
+        }
+    }
+
+    // Utility method
+    private synchronized void record(SimulatedEvent.Kind kind, Guild guild, Member member, String payload){
+        long now = System.nanoTime();
+        int guildIndex = guilds.computeIfAbsent(guild.getIdLong(), id -> guilds.size());
+        Map<Long, Integer> guildMembers = members.computeIfAbsent(guild.getIdLong(), id -> new HashMap<>());
+        int memberIndex = guildMembers.computeIfAbsent(member.getIdLong(), id -> guildMembers.size());
+
+        try{
+            EventRecording.write(writer, new SimulatedEvent(now - previous, kind, guildIndex, memberIndex, payload));
+            previous = now;
+        }catch(IOException e){
+            throw new RuntimeException("Failed to record event : " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * To write the events that are not written yet and close the recording
+     * @throws IOException If the recording cannot be written
+     */
+    @Override
+    public synchronized void close() throws IOException { writer.close(); }
+}
@@ -0,0 +1,139 @@
+package fr.dtn.jdl.simulator;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Class that reads and writes recorded events. A recording is a text file with one event per line, made of 5 fields
+ * separated by tabulations : the delay since the previous event in microseconds, the kind of the event, the index of
+ * the guild, the index of the member and the payload, whose tabulations, line breaks and backslashes are escaped
+ */
+public final class EventRecording {
+    // Utility class
+    private EventRecording(){}
+
+    /**
+     * To read a recording, line by line while the events are requested
+     * @param file The recording
+     * @return The events of the recording
+     * @throws IOException If the recording cannot be opened
+     */
+    public static EventSource read(File file) throws IOException {
+        BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8);
+
+        return () -> {
+            try{
+                String line;
+
+                do{
+                    line = reader.readLine();
+
+                    if(line == null){
+                        reader.close();
+                        return null;
+                    }
+                }while(line.isEmpty() || line.startsWith("#"));
+
+                return parse(line);
+            }catch(IOException e){
+                throw new UncheckedIOException("Failed to read recording '" + file.getPath() + "'", e);
+            }
+        };
+    }
+
+    /**
+     * To write events to a recording
+     * @param file The recording, replaced if it exists
+     * @param source The events
+     * @param limit The maximum amount of events written
+     * @return The amount of events written
+     * @throws IOException If the recording cannot be written
+     */
+    public static long write(File file, EventSource source, long limit) throws IOException {
+        long count = 0;
+
+        try(BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)){
+            SimulatedEvent event;
+
+            while(count < limit && (event = source.next()) != null){
+                write(writer, event);
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * To write an event as a line of a recording
+     * @param writer The writer of the recording
+     * @param event The event
+     * @throws IOException If the line cannot be written
+     */
+    public static void write(Writer writer, SimulatedEvent event) throws IOException {
+        writer.write(event.getDelay() / 1000 + "\t" + event.getKind() + "\t" + event.getGuild() + "\t" + event.getMember() + "\t" + escape(event.getPayload()) + "\n");
+    }
+
+    /**
+     * To parse a line of a recording
+     * @param line The line
+     * @return The event
+     */
+    public static SimulatedEvent parse(String line){
+        String[] fields = line.split("\t", 5);
+
+        if(fields.length != 5)
+            throw new IllegalArgumentException("Recorded event '" + line + "' must have 5 fields separated by tabulations");
+
+        return new SimulatedEvent(Long.parseLong(fields[0]) * 1000, SimulatedEvent.Kind.valueOf(fields[1]), Integer.parseInt(fields[2]), Integer.parseInt(fields[3]), unescape(fields[4]));
+    }
+
+    // Utility method
+    private static String escape(String payload){
+        StringBuilder builder = new StringBuilder(payload.length());
+
+        for(char c : payload.toCharArray()){
+            switch(c){
+                case '\\': builder.append("\\\\"); break;
+                case '\t': builder.append("\\t"); break;
+                case '\n': builder.append("\\n"); break;
+                case '\r': builder.append("\\r"); break;
+                default: builder.append(c);
+            }
+        }
+
+        return builder.toString();
+    }
+
+    // Utility method
+    private static String unescape(String payload){
+        if(payload.indexOf('\\') < 0)
+            return payload;
+
+        StringBuilder builder = new StringBuilder(payload.length());
+
+        for(int i = 0; i < payload.length(); i++){
+            char c = payload.charAt(i);
+
+            if(c != '\\' || i + 1 == payload.length()){
+                builder.append(c);
+                continue;
+            }
+
+            switch(payload.charAt(++i)){
+                case 't': builder.append('\t'); break;
+                case 'n': builder.append('\n'); break;
+                case 'r': builder.append('\r'); break;
+                default: builder.append(payload.charAt(i));
+            }
+        }
+
+        return builder.toString();
+    }
+}
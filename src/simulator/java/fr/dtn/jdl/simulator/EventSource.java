@@ -0,0 +1,12 @@
+package fr.dtn.jdl.simulator;
+
+/**
+ * Represents a stream of simulated events, synthetic or recorded
+ */
+public interface EventSource {
+    /**
+     * To get the next event
+     * @return The next event, or null if there are no more events
+     */
+    SimulatedEvent next();
+}
@@ -0,0 +1,93 @@
+package fr.dtn.jdl.simulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Class that represents a rest action that an executor or handler sent, instead of sending it to Discord
+ */
+public class RestCall {
+    /**
+     * The id of the event the action answers, 0 if it is unknown
+     */
+    private final long source;
+    /**
+     * The name of the entity that created the action, such as 'message' or 'channel'
+     */
+    private final String target;
+    /**
+     * The name of the method that created the action, such as 'replyEmbeds' or 'sendMessage'
+     */
+    private final String method;
+    /**
+     * The arguments of the method
+     */
+    private final Object[] arguments;
+    /**
+     * The methods called on the action before it was sent, such as 'setEphemeral'
+     */
+    private final List<String> modifiers;
+
+    /**
+     * Constructor
+     * @param source The id of the event the action answers, 0 if it is unknown
+     * @param target The name of the entity that created the action
+     * @param method The name of the method that created the action
+     * @param arguments The arguments of the method, null if there are none
+     */
+    public RestCall(long source, String target, String method, Object[] arguments){
+        this.source = source;
+        this.target = target;
+        this.method = method;
+        this.arguments = arguments == null ? new Object[0] : arguments;
+        this.modifiers = new ArrayList<>();
+    }
+
+    /**
+     * To add a method called on the action before it was sent
+     * @param modifier The name of the method
+     */
+    void modify(String modifier){ modifiers.add(modifier); }
+
+    /**
+     * To get source
+     * @return source
+     */
+    public long getSource() { return source; }
+
+    /**
+     * To get target
+     * @return target
+     */
+    public String getTarget() { return target; }
+
+    /**
+     * To get method
+     * @return method
+     */
+    public String getMethod() { return method; }
+
+    /**
+     * To get arguments
+     * @return arguments
+     */
+    public Object[] getArguments() { return arguments; }
+
+    /**
+     * To get modifiers
+     * @return modifiers
+     */
+    public List<String> getModifiers() { return Collections.unmodifiableList(modifiers); }
+
+    @Override
+    public String toString(){
+        StringBuilder builder = new StringBuilder(target).append('.').append(method).append(Arrays.deepToString(arguments));
+
+        for(String modifier : modifiers)
+            builder.append('.').append(modifier);
+
+        return builder.toString();
+    }
+}
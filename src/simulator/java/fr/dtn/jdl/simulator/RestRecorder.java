@@ -0,0 +1,202 @@
+package fr.dtn.jdl.simulator;
+
+import fr.dtn.jdl.metrics.LatencyHistogram;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class that records the rest actions sent by executors and handlers, and the time between an event and its responses.
+ * All the actions are counted, but only the first ones are kept, so long simulations do not fill the memory
+ */
+public class RestRecorder {
+    /**
+     * The amount of events whose fire time is kept, responses to older events do not have a latency
+     */
+    private static final int FIRE_TIMES = 1 << 20;
+
+    /**
+     * The maximum amount of kept actions
+     */
+    private final int capacity;
+    /**
+     * The kept actions, in the order they were sent
+     */
+    private final ConcurrentLinkedQueue<RestCall> calls;
+    /**
+     * The amount of kept actions
+     */
+    private final AtomicInteger kept;
+    /**
+     * The amount of sent actions, by target and method name such as 'message.reply'
+     */
+    private final ConcurrentHashMap<String, LongAdder> counts;
+    /**
+     * The fire time of the last events, by event id modulo FIRE_TIMES
+     */
+    private final long[] fireTimes;
+    /**
+     * The times between events and their responses
+     */
+    private volatile LatencyHistogram responses;
+
+    /**
+     * Constructor
+     * @param capacity The maximum amount of kept actions
+     */
+    public RestRecorder(int capacity){
+        this.capacity = capacity;
+        this.calls = new ConcurrentLinkedQueue<>();
+        this.kept = new AtomicInteger();
+        this.counts = new ConcurrentHashMap<>();
+        this.fireTimes = new long[FIRE_TIMES];
+        this.responses = new LatencyHistogram();
+    }
+
+    /**
+     * To create a rest action that is recorded when it is queued, completed or submitted
+     * @param type The interface of the action
+     * @param call The call that created the action
+     * @param <T> The type of the action
+     * @return The action
+     */
+    <T> T capture(Class<T> type, RestCall call){
+        return type.cast(Proxy.newProxyInstance(RestRecorder.class.getClassLoader(), new Class<?>[]{ type }, new ActionHandler(call)));
+    }
+
+    /**
+     * To set the time an event was fired at, so the latency of its responses can be measured
+     * @param source The id of the event
+     * @param nanos The time, from System.nanoTime()
+     */
+    void fired(long source, long nanos){ fireTimes[(int) (source & (FIRE_TIMES - 1))] = nanos; }
+
+    // Utility method
+    private void record(RestCall call){
+        counts.computeIfAbsent(call.getTarget() + "." + call.getMethod(), method -> new LongAdder()).increment();
+
+        if(kept.incrementAndGet() <= capacity)
+            calls.add(call);
+
+        if(call.getSource() != 0){
+            long fired = fireTimes[(int) (call.getSource() & (FIRE_TIMES - 1))];
+
+            if(fired != 0)
+                responses.record(System.nanoTime() - fired);
+        }
+    }
+
+    /**
+     * To get the kept actions
+     * @return The kept actions, in the order they were sent
+     */
+    public List<RestCall> getCalls(){ return new ArrayList<>(calls); }
+
+    /**
+     * To get the kept actions that answer an event
+     * @param source The id of the event
+     * @return The actions, in the order they were sent
+     */
+    public List<RestCall> getCalls(long source){
+        List<RestCall> answers = new ArrayList<>();
+
+        for(RestCall call : calls)
+            if(call.getSource() == source)
+                answers.add(call);
+
+        return answers;
+    }
+
+    /**
+     * To get the amount of sent actions created by a method
+     * @param method The target and name of the method, such as 'message.replyEmbeds' or 'channel.sendMessage'
+     * @return The amount of actions, kept or not
+     */
+    public long count(String method){
+        LongAdder count = counts.get(method);
+        return count == null ? 0 : count.sum();
+    }
+
+    /**
+     * To get the amount of sent actions by target and method name
+     * @return The amounts, sorted by target and method name
+     */
+    public Map<String, Long> getCounts(){
+        Map<String, Long> result = new TreeMap<>();
+        counts.forEach((method, count) -> result.put(method, count.sum()));
+        return result;
+    }
+
+    /**
+     * To get the times between events and their responses
+     * @return The latencies, in nanoseconds
+     */
+    public LatencyHistogram.Snapshot getResponseLatencies(){ return responses.snapshot(); }
+
+    /**
+     * To forget all the recorded actions and latencies
+     */
+    public void clear(){
+        calls.clear();
+        kept.set(0);
+        counts.clear();
+        responses = new LatencyHistogram();
+    }
+
+    /**
+     * Class that answers the calls of a recorded rest action
+     */
+    final class ActionHandler implements InvocationHandler {
+        /**
+         * The call that created the action
+         */
+        private final RestCall call;
+
+        /**
+         * Constructor
+         * @param call The call that created the action
+         */
+        ActionHandler(RestCall call){
+            this.call = call;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] arguments){
+            switch(method.getName()){
+                case "queue":
+                case "queueAfter":
+                case "complete":
+                case "completeAfter":
+                    record(call);
+                    return null;
+                case "submit":
+                case "submitAfter":
+                    record(call);
+                    return CompletableFuture.completedFuture(null);
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == arguments[0];
+                case "toString":
+                    return call.toString();
+            }
+
+            if(method.getReturnType().isInstance(proxy)){
+                call.modify(method.getName());
+                return proxy;
+            }
+
+            return Stubs.defaultValue(method.getReturnType());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package fr.dtn.jdl.simulator;
+
+/**
+ * Class that represents an event of a simulation, independently of the JDA objects it is turned into
+ */
+public class SimulatedEvent {
+    /**
+     * The kinds of simulated events
+     */
+    public enum Kind {
+        MESSAGE, // A message sent in the channel of the guild, the payload is its content
+        SLASH_COMMAND, // A slash command used in the channel of the guild, the payload is its name
+        ROLE_ADD, // A member getting a role, the payload is ignored
+        ROLE_REMOVE // A member losing a role, the payload is ignored
+    }
+
+    /**
+     * The time since the previous event, in nanoseconds
+     */
+    private final long delay;
+    /**
+     * The kind of the event
+     */
+    private final Kind kind;
+    /**
+     * The index of the guild and of the member in the guild
+     */
+    private final int guild, member;
+    /**
+     * The content of the message or the name of the slash command
+     */
+    private final String payload;
+
+    /**
+     * Constructor
+     * @param delay The time since the previous event, in nanoseconds
+     * @param kind The kind of the event
+     * @param guild The index of the guild
+     * @param member The index of the member in the guild
+     * @param payload The content of the message or the name of the slash command
+     */
+    public SimulatedEvent(long delay, Kind kind, int guild, int member, String payload){
+        this.delay = delay;
+        this.kind = kind;
+        this.guild = guild;
+        this.member = member;
+        this.payload = payload;
+    }
+
+    /**
+     * To get delay
+     * @return delay
+     */
+    public long getDelay() { return delay; }
+
+    /**
+     * To get kind
+     * @return kind
+     */
+    public Kind getKind() { return kind; }
+
+    /**
+     * To get guild
+     * @return guild
+     */
+    public int getGuild() { return guild; }
+
+    /**
+     * To get member
+     * @return member
+     */
+    public int getMember() { return member; }
+
+    /**
+     * To get payload
+     * @return payload
+     */
+    public String getPayload() { return payload; }
+
+    @Override
+    public String toString(){ return kind + " in guild " + guild + " by member " + member + " : " + payload; }
+}
@@ -0,0 +1,221 @@
+package fr.dtn.jdl.simulator;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.ChannelType;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.entities.channel.unions.MessageChannelUnion;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRoleAddEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRoleRemoveEvent;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.interactions.InteractionHook;
+import net.dv8tion.jda.api.interactions.commands.SlashCommandInteraction;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Class that represents a simulated guild, with a single text channel and some members that have all the permissions.
+ * It creates the JDA events of the simulated events, and its entities record the rest actions they create
+ */
+public class SimulatedGuild {
+    /**
+     * The index of the guild
+     */
+    private final int index;
+    /**
+     * The id of the guild, a snowflake whose shard is the index of the guild modulo the amount of shards
+     */
+    private final long id;
+    /**
+     * The shard of the guild
+     */
+    private final JDA jda;
+    /**
+     * The recorder of the rest actions
+     */
+    private final RestRecorder recorder;
+    /**
+     * The stand-ins of the guild entities
+     */
+    private final Guild guild;
+    private final Role role;
+    private final Member[] members;
+    /**
+     * The values of the channel, shared by the channel stand-ins of all the events
+     */
+    private final Map<String, Object> channel;
+
+    /**
+     * Constructor
+     * @param index The index of the guild
+     * @param jda The shard of the guild
+     * @param members The amount of members
+     * @param recorder The recorder of the rest actions
+     */
+    public SimulatedGuild(int index, JDA jda, int members, RestRecorder recorder){
+        this.index = index;
+        this.id = (long) index << 22 | 1;
+        this.jda = jda;
+        this.recorder = recorder;
+
+        Map<String, Object> guild = new HashMap<>();
+        guild.put("getIdLong", id);
+        guild.put("getId", Long.toString(id));
+        guild.put("getName", "guild-" + index);
+        guild.put("getJDA", jda);
+        this.guild = (Guild) Stubs.stub(guild, recorder, "guild", 0, Guild.class);
+
+        Map<String, Object> role = new HashMap<>();
+        role.put("getIdLong", id + 1);
+        role.put("getName", "simulated");
+        role.put("getGuild", this.guild);
+        role.put("getJDA", jda);
+        this.role = Stubs.stub(Role.class, role);
+
+        this.members = new Member[members];
+        for(int i = 0; i < members; i++){
+            long memberId = ((long) index << 24 | i) + 1;
+
+            Map<String, Object> user = new HashMap<>();
+            user.put("getIdLong", memberId);
+            user.put("getId", Long.toString(memberId));
+            user.put("getName", "user-" + i);
+            user.put("getJDA", jda);
+            User stub = (User) Stubs.stub(user, recorder, "user", 0, User.class);
+
+            Map<String, Object> member = new HashMap<>();
+            member.put("getIdLong", memberId);
+            member.put("getId", Long.toString(memberId));
+            member.put("getUser", stub);
+            member.put("getGuild", this.guild);
+            member.put("getEffectiveName", "user-" + i);
+            member.put("getJDA", jda);
+            member.put("getPermissions", (Stubs.Answer) arguments -> EnumSet.allOf(Permission.class));
+            member.put("hasPermission", (Stubs.Answer) arguments -> true);
+            this.members[i] = (Member) Stubs.stub(member, recorder, "member", 0, Member.class);
+        }
+
+        this.channel = new HashMap<>();
+        channel.put("getIdLong", id + 2);
+        channel.put("getId", Long.toString(id + 2));
+        channel.put("getName", "general");
+        channel.put("getGuild", this.guild);
+        channel.put("getType", ChannelType.TEXT);
+        channel.put("getJDA", jda);
+        channel.put("asTextChannel", Stubs.SELF);
+        channel.put("asGuildMessageChannel", Stubs.SELF);
+    }
+
+    /**
+     * To create the JDA event of a simulated event
+     * @param event The simulated event
+     * @param eventId The id of the event, which the recorded rest actions answering it have as source
+     * @return The JDA event
+     */
+    public GenericEvent event(SimulatedEvent event, long eventId){
+        switch(event.getKind()){
+            case MESSAGE: return message(event.getMember(), event.getPayload(), eventId);
+            case SLASH_COMMAND: return slashCommand(event.getMember(), event.getPayload(), eventId);
+            case ROLE_ADD: return new GuildMemberRoleAddEvent(jda, eventId, member(event.getMember()), Collections.singletonList(role));
+            case ROLE_REMOVE: return new GuildMemberRoleRemoveEvent(jda, eventId, member(event.getMember()), Collections.singletonList(role));
+            default: throw new IllegalArgumentException("Unknown event kind " + event.getKind());
+        }
+    }
+
+    /**
+     * To create the event of a message sent by a member in the channel of the guild
+     * @param member The index of the member
+     * @param content The raw content of the message
+     * @param eventId The id of the event
+     * @return The event
+     */
+    public MessageReceivedEvent message(int member, String content, long eventId){
+        Member author = member(member);
+        TextChannel channel = channel(eventId);
+
+        Map<String, Object> message = new HashMap<>();
+        message.put("getIdLong", eventId);
+        message.put("getId", Long.toString(eventId));
+        message.put("getContentRaw", content);
+        message.put("getContentDisplay", content);
+        message.put("getChannel", channel);
+        message.put("getChannelType", ChannelType.TEXT);
+        message.put("getGuild", guild);
+        message.put("isFromGuild", true);
+        message.put("getAuthor", author.getUser());
+        message.put("getMember", author);
+        message.put("getJDA", jda);
+
+        return new MessageReceivedEvent(jda, eventId, (Message) Stubs.stub(message, recorder, "message", eventId, Message.class));
+    }
+
+    /**
+     * To create the event of a slash command used by a member in the channel of the guild, without any option
+     * @param member The index of the member
+     * @param name The name of the slash command
+     * @param eventId The id of the event
+     * @return The event
+     */
+    public SlashCommandInteractionEvent slashCommand(int member, String name, long eventId){
+        Member author = member(member);
+
+        Map<String, Object> hook = new HashMap<>();
+        hook.put("setEphemeral", Stubs.SELF);
+        hook.put("getJDA", jda);
+
+        Map<String, Object> interaction = new HashMap<>();
+        interaction.put("getIdLong", eventId);
+        interaction.put("getId", Long.toString(eventId));
+        interaction.put("getName", name);
+        interaction.put("getFullCommandName", name);
+        interaction.put("getGuild", guild);
+        interaction.put("getChannel", channel(eventId));
+        interaction.put("getUser", author.getUser());
+        interaction.put("getMember", author);
+        interaction.put("getOptions", Collections.emptyList());
+        interaction.put("getHook", Stubs.stub(hook, recorder, "hook", eventId, InteractionHook.class));
+        interaction.put("getJDA", jda);
+
+        return new SlashCommandInteractionEvent(jda, eventId, (SlashCommandInteraction) Stubs.stub(interaction, recorder, "interaction", eventId, SlashCommandInteraction.class));
+    }
+
+    // Utility method, each event has its own channel stand-in so the messages sent in it are known to answer the event
+    private TextChannel channel(long eventId){
+        return (TextChannel) Stubs.stub(channel, recorder, "channel", eventId, MessageChannelUnion.class, TextChannel.class);
+    }
+
+    /**
+     * To get a member of the guild
+     * @param member The index of the member, modulo the amount of members
+     * @return The member
+     */
+    public Member member(int member){ return members[Math.floorMod(member, members.length)]; }
+
+    /**
+     * To get index
+     * @return index
+     */
+    public int getIndex() { return index; }
+
+    /**
+     * To get id
+     * @return id
+     */
+    public long getId() { return id; }
+
+    /**
+     * To get guild
+     * @return guild
+     */
+    public Guild getGuild() { return guild; }
+}
@@ -0,0 +1,160 @@
+package fr.dtn.jdl.simulator;
+
+import fr.dtn.jdl.metrics.LatencyHistogram;
+
+import java.util.Map;
+
+/**
+ * Class that represents the results of a simulation
+ */
+public class SimulationReport {
+    /**
+     * The amount of simulated events
+     */
+    private final long events;
+    /**
+     * The duration of the simulation, in nanoseconds
+     */
+    private final long duration;
+    /**
+     * The requested rate, in events per second, 0 if the events were sent as fast as possible or at their recorded pace
+     */
+    private final double rate;
+    /**
+     * The time shards spent giving each event to the bot
+     */
+    private final LatencyHistogram.Snapshot dispatch;
+    /**
+     * The total time shards spent giving the events to the bot, in nanoseconds
+     */
+    private final long dispatchTime;
+    /**
+     * The time between events being received by a shard and the rest actions answering them
+     */
+    private final LatencyHistogram.Snapshot responses;
+    /**
+     * The bytes allocated by the shard threads, -1 if the JVM cannot measure it
+     */
+    private final long shardAllocations;
+    /**
+     * The bytes allocated by all the threads alive at the end of the simulation, -1 if the JVM cannot measure it
+     */
+    private final long totalAllocations;
+    /**
+     * The amount of rest actions sent, by target and method name
+     */
+    private final Map<String, Long> restActions;
+    /**
+     * The metrics of the bot, as a plain text table
+     */
+    private final String metrics;
+
+    /**
+     * Constructor
+     * @param events The amount of simulated events
+     * @param duration The duration of the simulation, in nanoseconds
+     * @param rate The requested rate, in events per second
+     * @param dispatch The time shards spent giving each event to the bot
+     * @param dispatchTime The total time shards spent giving the events to the bot, in nanoseconds
+     * @param responses The time between events and the rest actions answering them
+     * @param shardAllocations The bytes allocated by the shard threads
+     * @param totalAllocations The bytes allocated by all the threads
+     * @param restActions The amount of rest actions sent, by target and method name
+     * @param metrics The metrics of the bot
+     */
+    public SimulationReport(long events, long duration, double rate, LatencyHistogram.Snapshot dispatch, long dispatchTime, LatencyHistogram.Snapshot responses,
+                            long shardAllocations, long totalAllocations, Map<String, Long> restActions, String metrics){
+        this.events = events;
+        this.duration = duration;
+        this.rate = rate;
+        this.dispatch = dispatch;
+        this.dispatchTime = dispatchTime;
+        this.responses = responses;
+        this.shardAllocations = shardAllocations;
+        this.totalAllocations = totalAllocations;
+        this.restActions = restActions;
+        this.metrics = metrics;
+    }
+
+    /**
+     * To get the throughput of the simulation
+     * @return The amount of events per second
+     */
+    public double getThroughput(){ return duration == 0 ? 0 : events * 1e9 / duration; }
+
+    /**
+     * To get the mean time shards spent giving an event to the bot
+     * @return The mean time, in nanoseconds
+     */
+    public long getMeanDispatchTime(){ return events == 0 ? 0 : dispatchTime / events; }
+
+    /**
+     * To get the bytes allocated by the shard threads per event
+     * @return The bytes per event, -1 if the JVM cannot measure it
+     */
+    public long getShardAllocationsPerEvent(){ return shardAllocations < 0 || events == 0 ? -1 : shardAllocations / events; }
+
+    /**
+     * To get the allocation rate of all the threads
+     * @return The bytes per second, -1 if the JVM cannot measure it
+     */
+    public long getAllocationRate(){ return totalAllocations < 0 || duration == 0 ? -1 : (long) (totalAllocations * 1e9 / duration); }
+
+    /**
+     * To get events
+     * @return events
+     */
+    public long getEvents() { return events; }
+
+    /**
+     * To get duration
+     * @return duration
+     */
+    public long getDuration() { return duration; }
+
+    /**
+     * To get dispatch
+     * @return dispatch, in microseconds
+     */
+    public LatencyHistogram.Snapshot getDispatch() { return dispatch; }
+
+    /**
+     * To get responses
+     * @return responses, in microseconds
+     */
+    public LatencyHistogram.Snapshot getResponses() { return responses; }
+
+    /**
+     * To get restActions
+     * @return restActions
+     */
+    public Map<String, Long> getRestActions() { return restActions; }
+
+    /**
+     * To get metrics
+     * @return metrics
+     */
+    public String getMetrics() { return metrics; }
+
+    @Override
+    public String toString(){
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("Simulated %d events in %.3f s : %.0f events/s", events, duration / 1e9, getThroughput()));
+        builder.append(rate > 0 ? String.format(" (requested %.0f events/s)%n", rate) : String.format("%n"));
+        builder.append("Shard dispatch   : ").append(latencies(dispatch)).append(String.format(", exact mean %d ns%n", getMeanDispatchTime()));
+        builder.append("Responses        : ").append(latencies(responses)).append(String.format("%n"));
+
+        if(shardAllocations >= 0)
+            builder.append(String.format("Allocations      : %d bytes/event on shard threads, %.1f MB/s in total%n", getShardAllocationsPerEvent(), getAllocationRate() / 1e6));
+
+        builder.append("Rest actions     : ").append(restActions).append(String.format("%n"));
+        builder.append("Metrics :").append(String.format("%n")).append(metrics);
+        return builder.toString();
+    }
+
+    // Utility method
+    private static String latencies(LatencyHistogram.Snapshot snapshot){
+        return String.format("%d, mean %d us, p50 %d us, p99 %d us, max %d us", snapshot.getCount(), snapshot.getMean(),
+                snapshot.getPercentile(50), snapshot.getPercentile(99), snapshot.getMax());
+    }
+}
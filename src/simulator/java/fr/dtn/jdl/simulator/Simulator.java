@@ -0,0 +1,385 @@
+package fr.dtn.jdl.simulator;
+
+import fr.dtn.jdl.Bot;
+import fr.dtn.jdl.execution.QueueStatistics;
+import fr.dtn.jdl.metrics.LatencyHistogram;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.events.Event;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.hooks.EventListener;
+import net.dv8tion.jda.api.sharding.ShardManager;
+import net.dv8tion.jda.api.utils.cache.ShardCacheView;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Class that runs a bot against simulated shards instead of Discord, to load test it offline. Events are created from
+ * synthetic or recorded streams, received by one thread per shard like on the gateway, and the rest actions that
+ * executors and handlers send are recorded instead of being sent
+ */
+public class Simulator {
+    /**
+     * The capacity of the queue of each shard, the simulation slows down when a shard falls behind
+     */
+    private static final int SHARD_QUEUE = 4096;
+    /**
+     * The event telling a shard thread to stop
+     */
+    private static final GenericEvent END = new Event(null, -1){};
+
+    /**
+     * The simulated bot
+     */
+    private final Bot bot;
+    /**
+     * The listeners the bot added to its shard manager
+     */
+    private final List<EventListener> listeners;
+    /**
+     * The simulated shards
+     */
+    private final JDA[] shards;
+    /**
+     * The simulated guilds, created when they are first used
+     */
+    private final AtomicReferenceArray<SimulatedGuild> guilds;
+    /**
+     * The amount of members per guild
+     */
+    private final int members;
+    /**
+     * The recorder of the rest actions
+     */
+    private final RestRecorder rest;
+    /**
+     * The id of the last created event
+     */
+    private final AtomicLong lastEventId;
+
+    /**
+     * Constructor
+     * @param directory The directory of the bot, with its 'configuration.toml'
+     * @param shards The amount of shards
+     * @param guilds The amount of guilds, spread over the shards
+     * @param members The amount of members per guild
+     */
+    public Simulator(File directory, int shards, int guilds, int members){
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.shards = new JDA[shards];
+        this.guilds = new AtomicReferenceArray<>(guilds);
+        this.members = members;
+        this.rest = new RestRecorder(100_000);
+        this.lastEventId = new AtomicLong();
+
+        Stubs.Answer guildById = arguments -> {
+            long id = arguments[0] instanceof String ? Long.parseLong((String) arguments[0]) : (Long) arguments[0];
+            long index = id >> 22;
+            return index < guilds && getGuild((int) index).getId() == id ? getGuild((int) index).getGuild() : null;
+        };
+
+        Map<String, Object> manager = new HashMap<>();
+        ShardManager shardManager = (ShardManager) Stubs.stub(manager, rest, "shardManager", 0, ShardManager.class);
+
+        for(int i = 0; i < shards; i++){
+            Map<String, Object> shard = new HashMap<>();
+            shard.put("getShardInfo", new JDA.ShardInfo(i, shards));
+            shard.put("getStatus", JDA.Status.CONNECTED);
+            shard.put("getShardManager", shardManager);
+            shard.put("getGuildById", guildById);
+            this.shards[i] = (JDA) Stubs.stub(shard, rest, "shard-" + i, 0, JDA.class);
+        }
+
+        Map<String, Object> cache = new HashMap<>();
+        cache.put("iterator", (Stubs.Answer) arguments -> Arrays.asList(this.shards).iterator());
+        cache.put("size", (long) shards);
+
+        manager.put("addEventListener", (Stubs.Answer) arguments -> {
+            for(Object listener : (Object[]) arguments[0])
+                listeners.add((EventListener) listener);
+            return null;
+        });
+        manager.put("getShards", Arrays.asList(this.shards));
+        manager.put("getShardCache", Stubs.stub(ShardCacheView.class, cache));
+        manager.put("getShardsTotal", shards);
+        manager.put("getShardsRunning", shards);
+        manager.put("getShardById", (Stubs.Answer) arguments -> this.shards[(Integer) arguments[0]]);
+        manager.put("getGuildById", guildById);
+
+        this.bot = new Bot(directory, builder -> shardManager);
+        this.bot.start();
+    }
+
+    /**
+     * To create a simulator for a bot in a new temporary directory
+     * @param configuration The content of 'configuration.toml'
+     * @param shards The amount of shards
+     * @param guilds The amount of guilds
+     * @param members The amount of members per guild
+     * @return The simulator
+     * @throws IOException If the directory cannot be created
+     */
+    public static Simulator inTemporaryDirectory(String configuration, int shards, int guilds, int members) throws IOException {
+        File directory = Files.createTempDirectory("jdl-simulator").toFile();
+        Files.writeString(new File(directory, "configuration.toml").toPath(), configuration);
+        return new Simulator(directory, shards, guilds, members);
+    }
+
+    /**
+     * To get a simulated guild
+     * @param index The index of the guild, modulo the amount of guilds so any recording can be replayed
+     * @return The guild
+     */
+    public SimulatedGuild getGuild(int index){
+        index = Math.floorMod(index, guilds.length());
+        SimulatedGuild guild = guilds.get(index);
+
+        if(guild == null){
+            guilds.compareAndSet(index, null, new SimulatedGuild(index, shards[shardOf(index)], members, rest));
+            guild = guilds.get(index);
+        }
+
+        return guild;
+    }
+
+    /**
+     * To get the shard of a guild, as Discord computes it from the guild id
+     * @param index The index of the guild
+     * @return The id of the shard
+     */
+    public int shardOf(int index){ return Math.floorMod(index, guilds.length()) % shards.length; }
+
+    /**
+     * To create the JDA event of a simulated event, with a new event id
+     * @param event The simulated event
+     * @return The JDA event, whose response number is its event id
+     */
+    public GenericEvent create(SimulatedEvent event){
+        return getGuild(event.getGuild()).event(event, lastEventId.incrementAndGet());
+    }
+
+    /**
+     * To give an event to the bot on the current thread, as a shard would
+     * @param event The event
+     */
+    public void fire(GenericEvent event){
+        rest.fired(event.getResponseNumber(), System.nanoTime());
+
+        for(EventListener listener : listeners)
+            listener.onEvent(event);
+    }
+
+    /**
+     * To create a simulated event and give it to the bot on the current thread, the rest actions answering it can then
+     * be found with getRest().getCalls(id)
+     * @param event The simulated event
+     * @return The id of the event
+     */
+    public long send(SimulatedEvent event){
+        GenericEvent created = create(event);
+        fire(created);
+        return created.getResponseNumber();
+    }
+
+    /**
+     * To run a simulation, each shard giving its events to the bot from its own thread
+     * @param source The events
+     * @param rate The amount of events per second, or 0 to send the events at their recorded pace, or as fast as possible
+     *             if they do not have any delay
+     * @return The report of the simulation
+     * @throws InterruptedException If the simulation is interrupted
+     */
+    public SimulationReport run(EventSource source, double rate) throws InterruptedException {
+        rest.clear();
+
+        LatencyHistogram dispatch = new LatencyHistogram();
+        LongAdder dispatchTime = new LongAdder();
+        AtomicLong shardAllocations = new AtomicLong();
+        com.sun.management.ThreadMXBean threads = allocationBean();
+        long totalBefore = allocatedBytes(threads);
+        List<BlockingQueue<GenericEvent>> queues = new ArrayList<>();
+        List<Thread> shardThreads = new ArrayList<>();
+
+        for(int i = 0; i < shards.length; i++){
+            BlockingQueue<GenericEvent> queue = new ArrayBlockingQueue<>(SHARD_QUEUE);
+            queues.add(queue);
+
+            Thread thread = new Thread(() -> {
+                long allocated = threads == null ? 0 : threads.getCurrentThreadAllocatedBytes();
+
+                try{
+                    GenericEvent event;
+
+                    while((event = queue.take()) != END){
+                        long start = System.nanoTime();
+
+                        for(EventListener listener : listeners)
+                            listener.onEvent(event);
+
+                        long time = System.nanoTime() - start;
+                        dispatch.record(time);
+                        dispatchTime.add(time);
+                    }
+                }catch(InterruptedException e){
+                    Thread.currentThread().interrupt();
+                }
+
+                if(threads != null)
+                    shardAllocations.addAndGet(threads.getCurrentThreadAllocatedBytes() - allocated);
+            }, "simulated-shard-" + i);
+
+            thread.start();
+            shardThreads.add(thread);
+        }
+
+        long start = System.nanoTime(), next = start, count = 0;
+        SimulatedEvent event;
+
+        while((event = source.next()) != null){
+            next += rate > 0 ? (long) (1e9 / rate) : event.getDelay();
+
+            for(long now = System.nanoTime(); now < next; now = System.nanoTime())
+                LockSupport.parkNanos(next - now);
+
+            GenericEvent created = create(event);
+            rest.fired(created.getResponseNumber(), System.nanoTime());
+            queues.get(shardOf(event.getGuild())).put(created);
+            count++;
+        }
+
+        for(BlockingQueue<GenericEvent> queue : queues)
+            queue.put(END);
+        for(Thread thread : shardThreads)
+            thread.join();
+
+        awaitIdle(30_000);
+        long duration = System.nanoTime() - start;
+
+        return new SimulationReport(count, duration, rate, dispatch.snapshot(), dispatchTime.sum(), rest.getResponseLatencies(),
+                threads == null ? -1 : shardAllocations.get(), threads == null ? -1 : allocatedBytes(threads) - totalBefore,
+                rest.getCounts(), bot.getMetrics().dump());
+    }
+
+    /**
+     * To wait for the executors and handlers of the bot to finish, when they do not run on the shard threads
+     * @param timeout The maximum time to wait, in milliseconds
+     * @return If the bot is idle
+     * @throws InterruptedException If the waiting is interrupted
+     */
+    public boolean awaitIdle(long timeout) throws InterruptedException {
+        long end = System.currentTimeMillis() + timeout;
+
+        while(System.currentTimeMillis() < end){
+            int depth = 0;
+            for(QueueStatistics statistics : bot.getExecutionStatistics())
+                depth += statistics.getDepth();
+
+            if(depth == 0)
+                return true;
+
+            Thread.sleep(5);
+        }
+
+        return false;
+    }
+
+    // Utility method
+    private static com.sun.management.ThreadMXBean allocationBean(){
+        if(!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean))
+            return null;
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled() ? threads : null;
+    }
+
+    // Utility method, threads that ended since the previous call are not counted
+    private static long allocatedBytes(com.sun.management.ThreadMXBean threads){
+        if(threads == null)
+            return 0;
+
+        long total = 0;
+        for(long allocated : threads.getThreadAllocatedBytes(threads.getAllThreadIds()))
+            total += Math.max(0, allocated);
+
+        return total;
+    }
+
+    /**
+     * To run a simulation from the command line, with options such as '--directory bot --guilds 1000 --rate 5000' :
+     * directory (mandatory, the bot directory), shards (1), guilds (100), members (10), events (100000), rate (0, as
+     * fast as possible), seed (0), replay (a recording to replay instead of synthetic events) and record (a file to write
+     * the synthetic events to instead of running them). The commands of the 'commands' and 'slash_commands' directories
+     * of the bot and the generated command indexes are registered
+     * @param args The options
+     * @throws Exception If the simulation fails
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for(int i = 0; i + 1 < args.length; i += 2){
+            if(!args[i].startsWith("--"))
+                throw new IllegalArgumentException("Unknown argument '" + args[i] + "', options are written as '--name value'");
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+
+        if(!options.containsKey("directory"))
+            throw new IllegalArgumentException("Missing option '--directory', the directory of the bot");
+
+        File directory = new File(options.get("directory"));
+        int guilds = Integer.parseInt(options.getOrDefault("guilds", "100"));
+        int members = Integer.parseInt(options.getOrDefault("members", "10"));
+        long events = Long.parseLong(options.getOrDefault("events", "100000"));
+
+        Simulator simulator = new Simulator(directory, Integer.parseInt(options.getOrDefault("shards", "1")), guilds, members);
+        Bot bot = simulator.getBot();
+
+        if(new File(directory, "commands").isDirectory())
+            bot.registerCommands(new File(directory, "commands"), true);
+        if(new File(directory, "slash_commands").isDirectory())
+            bot.registerSlashCommands(new File(directory, "slash_commands"), true);
+        bot.registerCommandIndexes();
+
+        EventSource source = options.containsKey("replay")
+                ? EventRecording.read(new File(options.get("replay")))
+                : new SyntheticEvents(bot, guilds, members, events, Long.parseLong(options.getOrDefault("seed", "0")));
+
+        if(options.containsKey("record")){
+            long written = EventRecording.write(new File(options.get("record")), source, events);
+            System.out.println("Recorded " + written + " events to '" + options.get("record") + "'");
+        }else{
+            System.out.println(simulator.run(source, Double.parseDouble(options.getOrDefault("rate", "0"))));
+        }
+
+        simulator.shutdown();
+    }
+
+    /**
+     * To get bot
+     * @return bot
+     */
+    public Bot getBot() { return bot; }
+
+    /**
+     * To get rest
+     * @return The recorder of the rest actions sent by the bot
+     */
+    public RestRecorder getRest() { return rest; }
+
+    /**
+     * To stop the bot
+     */
+    public void shutdown(){ bot.shutdown(); }
+}
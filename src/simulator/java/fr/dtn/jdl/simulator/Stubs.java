@@ -0,0 +1,138 @@
+package fr.dtn.jdl.simulator;
+
+import net.dv8tion.jda.api.requests.RestAction;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+
+/**
+ * Stand-ins of the JDA interfaces, whose methods return the values of a map by method name. Values that are answers are
+ * called with the arguments, SELF returns the stand-in itself, and missing methods return null, false or 0, except the
+ * ones returning a rest action, which return a rest action recorded when it is queued
+ */
+public final class Stubs {
+    /**
+     * The value of methods returning the stand-in itself
+     */
+    public static final Object SELF = new Object();
+
+    // Utility class
+    private Stubs(){}
+
+    /**
+     * To create a stand-in of an interface, without recording rest actions
+     * @param type The interface
+     * @param values The values of the methods, by name
+     * @param <T> The type of the interface
+     * @return The stand-in
+     */
+    public static <T> T stub(Class<T> type, Map<String, Object> values){
+        return type.cast(stub(values, null, type.getSimpleName(), 0, type));
+    }
+
+    /**
+     * To create a stand-in of several interfaces
+     * @param values The values of the methods, by name
+     * @param recorder The recorder of the rest actions created by the stand-in, or null to return null instead
+     * @param name The name of the stand-in in the recorded rest actions, such as 'message' or 'channel'
+     * @param source The id of the event the stand-in belongs to, 0 if it does not belong to an event
+     * @param types The interfaces
+     * @return The stand-in
+     */
+    public static Object stub(Map<String, Object> values, RestRecorder recorder, String name, long source, Class<?>... types){
+        return Proxy.newProxyInstance(Stubs.class.getClassLoader(), types, new Handler(values, recorder, name, source));
+    }
+
+    /**
+     * To get the value returned by a method that is not stubbed
+     * @param type The return type of the method
+     * @return null, false or 0
+     */
+    static Object defaultValue(Class<?> type){
+        if(type == boolean.class) return false;
+        if(type == long.class) return 0L;
+        if(type == int.class) return 0;
+        if(type == double.class) return 0.0;
+        if(type == float.class) return 0f;
+        if(type == short.class) return (short) 0;
+        if(type == byte.class) return (byte) 0;
+        if(type == char.class) return '\0';
+        return null;
+    }
+
+    /**
+     * Represents a value of a stand-in computed from the arguments of the call
+     */
+    public interface Answer {
+        /**
+         * To compute the value
+         * @param arguments The arguments of the call, empty if there are none
+         * @return The value
+         */
+        Object answer(Object[] arguments);
+    }
+
+    /**
+     * Class that answers the calls of a stand-in
+     */
+    static final class Handler implements InvocationHandler {
+        /**
+         * The values of the methods, by name
+         */
+        private final Map<String, Object> values;
+        /**
+         * The recorder of the rest actions, or null
+         */
+        private final RestRecorder recorder;
+        /**
+         * The name of the stand-in
+         */
+        private final String name;
+        /**
+         * The id of the event the stand-in belongs to
+         */
+        private final long source;
+
+        /**
+         * Constructor
+         * @param values The values of the methods, by name
+         * @param recorder The recorder of the rest actions, or null
+         * @param name The name of the stand-in
+         * @param source The id of the event the stand-in belongs to
+         */
+        Handler(Map<String, Object> values, RestRecorder recorder, String name, long source){
+            this.values = values;
+            this.recorder = recorder;
+            this.name = name;
+            this.source = source;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] arguments){
+            String methodName = method.getName();
+            Object value = values.get(methodName);
+
+            if(value == SELF)
+                return proxy;
+            if(value instanceof Answer)
+                return ((Answer) value).answer(arguments == null ? new Object[0] : arguments);
+            if(value != null)
+                return value;
+
+            switch(methodName){
+                case "hashCode": return System.identityHashCode(proxy);
+                case "equals": return proxy == arguments[0];
+                case "toString": return name + (source == 0 ? "" : "#" + source);
+            }
+
+            Class<?> type = method.getReturnType();
+
+            if(recorder != null && type.isInterface() && RestAction.class.isAssignableFrom(type))
+                return recorder.capture(type, new RestCall(source, name, methodName, arguments));
+
+            return defaultValue(type);
+        }
+    }
+}
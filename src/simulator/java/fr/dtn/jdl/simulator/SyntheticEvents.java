@@ -0,0 +1,129 @@
+package fr.dtn.jdl.simulator;
+
+import fr.dtn.jdl.Bot;
+import fr.dtn.jdl.command.Command;
+import fr.dtn.jdl.slashcommand.SlashCommand;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Class that generates random events from the commands of a bot : chat messages, raw text commands, slash commands and
+ * member updates. Like on Discord, a few guilds send most of the events
+ */
+public class SyntheticEvents implements EventSource {
+    /**
+     * Words used in chat messages and command arguments
+     */
+    private static final String[] WORDS = { "hello", "is", "anyone", "up", "for", "a", "game", "tonight", "apple", "bowl", "the", "lol", "gg", "what", "time", "?" };
+
+    /**
+     * The calls of the raw text commands and the names of the slash commands
+     */
+    private final String[] calls, slashCommands;
+    /**
+     * The prefix of the raw text commands
+     */
+    private final String prefix;
+    /**
+     * The amount of guilds and of members per guild
+     */
+    private final int guilds, members;
+    /**
+     * The shares of the events that are raw text commands, slash commands and member updates, the others are chat messages
+     */
+    private final double commandShare, slashCommandShare, memberShare;
+    /**
+     * The random generator
+     */
+    private final SplittableRandom random;
+    /**
+     * The amount of events left
+     */
+    private long remaining;
+
+    /**
+     * Constructor, with 15% of raw text commands, 10% of slash commands and 5% of member updates
+     * @param bot The bot, whose commands are used
+     * @param guilds The amount of guilds
+     * @param members The amount of members per guild
+     * @param count The amount of events
+     * @param seed The seed of the random generator, the same seed gives the same events
+     */
+    public SyntheticEvents(Bot bot, int guilds, int members, long count, long seed){
+        this(bot, guilds, members, count, seed, 0.15, 0.10, 0.05);
+    }
+
+    /**
+     * Constructor
+     * @param bot The bot, whose commands are used
+     * @param guilds The amount of guilds
+     * @param members The amount of members per guild
+     * @param count The amount of events
+     * @param seed The seed of the random generator, the same seed gives the same events
+     * @param commandShare The share of the events that are raw text commands, between 0 and 1
+     * @param slashCommandShare The share of the events that are slash commands, between 0 and 1
+     * @param memberShare The share of the events that are member updates, between 0 and 1
+     */
+    public SyntheticEvents(Bot bot, int guilds, int members, long count, long seed, double commandShare, double slashCommandShare, double memberShare){
+        List<String> calls = new ArrayList<>();
+        for(Command command : bot.getCommands())
+            for(String call : command.getCalls())
+                calls.add(call);
+
+        List<String> slashCommands = new ArrayList<>();
+        for(SlashCommand command : bot.getSlashCommands())
+            slashCommands.add(command.getDisplayName());
+
+        this.calls = calls.toArray(new String[0]);
+        this.slashCommands = slashCommands.toArray(new String[0]);
+        this.prefix = bot.getDefaultPrefix();
+        this.guilds = guilds;
+        this.members = members;
+        this.commandShare = this.calls.length == 0 ? 0 : commandShare;
+        this.slashCommandShare = this.slashCommands.length == 0 ? 0 : slashCommandShare;
+        this.memberShare = memberShare;
+        this.random = new SplittableRandom(seed);
+        this.remaining = count;
+    }
+
+    @Override
+    public SimulatedEvent next(){
+        if(remaining <= 0)
+            return null;
+
+        remaining--;
+
+        // Cubing a uniform number gives small indexes much more often : guild 0 is the busiest one
+        int guild = (int) (guilds * Math.pow(random.nextDouble(), 3));
+        int member = random.nextInt(members);
+        double kind = random.nextDouble();
+
+        if(kind < commandShare)
+            return new SimulatedEvent(0, SimulatedEvent.Kind.MESSAGE, guild, member, prefix + calls[random.nextInt(calls.length)] + words(random.nextInt(4), true));
+        kind -= commandShare;
+
+        if(kind < slashCommandShare)
+            return new SimulatedEvent(0, SimulatedEvent.Kind.SLASH_COMMAND, guild, member, slashCommands[random.nextInt(slashCommands.length)]);
+        kind -= slashCommandShare;
+
+        if(kind < memberShare)
+            return new SimulatedEvent(0, random.nextBoolean() ? SimulatedEvent.Kind.ROLE_ADD : SimulatedEvent.Kind.ROLE_REMOVE, guild, member, "");
+
+        return new SimulatedEvent(0, SimulatedEvent.Kind.MESSAGE, guild, member, words(1 + random.nextInt(12), false));
+    }
+
+    // Utility method
+    private String words(int count, boolean leadingSpace){
+        StringBuilder builder = new StringBuilder();
+
+        for(int i = 0; i < count; i++){
+            if(i > 0 || leadingSpace)
+                builder.append(' ');
+            builder.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+
+        return builder.toString();
+    }
+}
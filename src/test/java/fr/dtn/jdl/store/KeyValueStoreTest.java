@@ -0,0 +1,179 @@
+package fr.dtn.jdl.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that the records of a store survive it being opened again, and that a last record cut or damaged by a crash is
+ * ignored without losing the ones before it
+ */
+class KeyValueStoreTest {
+    /**
+     * The directory of the store, deleted after each test
+     */
+    @TempDir
+    File directory;
+
+    @Test
+    void reopenKeepsEntries(){
+        KeyValueStore store = new KeyValueStore(directory);
+        store.putString(1, "name", "first");
+        store.putLong(1, "count", 42);
+        store.putString(2, "name", "second");
+        store.putString(1, "name", "replaced");
+        store.remove(2, "name");
+        store.close();
+
+        store = new KeyValueStore(directory);
+        assertEquals("replaced", store.getString(1, "name"));
+        assertEquals(42, store.getLong(1, "count", 0));
+        assertNull(store.getString(2, "name"));
+        assertEquals(2, store.size());
+        store.close();
+    }
+
+    @Test
+    void reopenIgnoresCorruptedLastRecord() throws IOException {
+        KeyValueStore store = new KeyValueStore(directory);
+        store.putString(1, "a", "value-a");
+        store.putString(1, "b", "value-b");
+        store.putString(2, "c", "value-c");
+        store.close();
+
+        File log = logFile(1);
+        flipByte(log, lastIndexOf(log, "value-c"));
+
+        assertSurvivorsAndWrites();
+    }
+
+    @Test
+    void reopenIgnoresTruncatedLastRecord() throws IOException {
+        KeyValueStore store = new KeyValueStore(directory);
+        store.putString(1, "a", "value-a");
+        store.putString(1, "b", "value-b");
+        store.putString(2, "c", "value-c");
+        store.close();
+
+        File log = logFile(1);
+        truncate(log, lastIndexOf(log, "value-c") + 3);
+
+        assertSurvivorsAndWrites();
+    }
+
+    @Test
+    void reopenAfterCompactionIgnoresCorruptedLastRecord() throws IOException {
+        KeyValueStore store = new KeyValueStore(directory);
+        for(int i = 0; i < 100; i++)
+            store.putString(1, "a", "value-a-" + i);
+        store.putString(1, "b", "value-b");
+        store.putString(3, "removed", "value-removed");
+        store.remove(3, "removed");
+        store.compact();
+
+        assertEquals(0, store.getGarbage());
+        assertEquals("value-a-99", store.getString(1, "a"));
+
+        store.putString(1, "a", "value-a");
+        store.putString(2, "c", "value-c");
+        store.close();
+
+        File log = logFile(2);
+        assertFalse(new File(directory, "store-1.log").exists());
+        flipByte(log, lastIndexOf(log, "value-c"));
+
+        assertSurvivorsAndWrites();
+    }
+
+    @Test
+    void reopenAfterCompactionIgnoresTruncatedLastRecord() throws IOException {
+        KeyValueStore store = new KeyValueStore(directory);
+        for(int i = 0; i < 100; i++)
+            store.putString(1, "b", "value-b-" + i);
+        store.compact();
+        store.putString(1, "a", "value-a");
+        store.putString(1, "b", "value-b");
+        store.putString(2, "c", "value-c");
+        store.close();
+
+        File log = logFile(2);
+        truncate(log, lastIndexOf(log, "value-c") + 3);
+
+        assertSurvivorsAndWrites();
+    }
+
+    // Utility method, the store must hold 'a' and 'b' of id 1 but not 'c' of id 2, and keep the records written after it is opened again
+    private void assertSurvivorsAndWrites(){
+        KeyValueStore store = new KeyValueStore(directory);
+        assertEquals("value-a", store.getString(1, "a"));
+        assertEquals("value-b", store.getString(1, "b"));
+        assertNull(store.getString(2, "c"));
+        assertFalse(store.contains(2, "c"));
+        assertEquals(2, store.size());
+
+        store.putString(2, "c", "written-again");
+        store.putString(2, "d", "value-d");
+        store.close();
+
+        store = new KeyValueStore(directory);
+        assertEquals("value-a", store.getString(1, "a"));
+        assertEquals("value-b", store.getString(1, "b"));
+        assertEquals("written-again", store.getString(2, "c"));
+        assertEquals("value-d", store.getString(2, "d"));
+        assertEquals(4, store.size());
+        store.close();
+    }
+
+    // Utility method
+    private File logFile(long generation){
+        File file = new File(directory, "store-" + generation + ".log");
+        assertTrue(file.isFile(), "Missing log file '" + file.getName() + "'");
+        return file;
+    }
+
+    // Utility method, gives the position of the last occurrence of a text in a file
+    private static int lastIndexOf(File file, String text) throws IOException {
+        byte[] content = Files.readAllBytes(file.toPath());
+        byte[] pattern = text.getBytes(StandardCharsets.UTF_8);
+
+        search:
+        for(int i = content.length - pattern.length; i >= 0; i--){
+            for(int j = 0; j < pattern.length; j++)
+                if(content[i + j] != pattern[j])
+                    continue search;
+
+            return i;
+        }
+
+        throw new AssertionError("'" + text + "' not found in '" + file.getName() + "'");
+    }
+
+    // Utility method
+    private static void flipByte(File file, int position) throws IOException {
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)){
+            ByteBuffer buffer = ByteBuffer.allocate(1);
+            channel.read(buffer, position);
+            buffer.put(0, (byte) ~buffer.get(0));
+            channel.write(buffer.rewind(), position);
+        }
+    }
+
+    // Utility method
+    private static void truncate(File file, int length) throws IOException {
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)){
+            channel.truncate(length);
+        }
+    }
+}